@@ -0,0 +1,222 @@
+package com.ejemplo.mi_proyecto.carga;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una ejecución del generador de carga, leídos de argumentos --clave=valor
+ */
+public class ConfiguracionCarga {
+
+    /** Peticiones por segundo a lanzar (tasa fija, independiente de lo que tarden las respuestas) */
+    private int tasa = 200;
+    private Duration duracion = Duration.ofSeconds(60);
+    private Duration calentamiento = Duration.ofSeconds(10);
+    private int usuariosIniciales = 1000;
+    private Map<Operacion, Integer> mezcla = mezclaPorDefecto();
+    /** Peticiones en curso a partir de las cuales el generador descarta (y cuenta) las siguientes */
+    private int maximoEnCurso = 2000;
+
+    /** URL de una aplicación ya arrancada; si falta, se arranca en este proceso */
+    private String url;
+    /** Base de datos para la aplicación arrancada aquí; si falta, se usa Testcontainers */
+    private String jdbcUrl;
+    private String jdbcUsuario = "postgres";
+    private String jdbcPassword = "postgres";
+    private String imagenPostgres = "postgres:16-alpine";
+
+    private Path informe = Path.of("target", "carga", "informe.json");
+    /** Informe de una ejecución anterior con el que comparar el p99 */
+    private Path referencia;
+    private double toleranciaP99 = 0.10;
+    private Duration p99Maximo;
+    private double erroresMaximos = 0.01;
+
+    /**
+     * @param argumentos Argumentos con formato --clave=valor
+     * @throws IllegalArgumentException si algún argumento no es válido
+     */
+    public static ConfiguracionCarga desdeArgumentos(String[] argumentos) {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga();
+        for (String argumento : argumentos) {
+            if (argumento.isBlank()) {
+                continue;
+            }
+            if (!argumento.startsWith("--") || !argumento.contains("=")) {
+                throw new IllegalArgumentException("Argumento no válido (se espera --clave=valor): " + argumento);
+            }
+            String clave = argumento.substring(2, argumento.indexOf('='));
+            String valor = argumento.substring(argumento.indexOf('=') + 1);
+            configuracion.aplicar(clave, valor);
+        }
+        configuracion.validar();
+        return configuracion;
+    }
+
+    private void aplicar(String clave, String valor) {
+        switch (clave) {
+            case "tasa" -> tasa = Integer.parseInt(valor);
+            case "duracion" -> duracion = parsearDuracion(valor);
+            case "calentamiento" -> calentamiento = parsearDuracion(valor);
+            case "usuarios-iniciales" -> usuariosIniciales = Integer.parseInt(valor);
+            case "mezcla" -> mezcla = parsearMezcla(valor);
+            case "maximo-en-curso" -> maximoEnCurso = Integer.parseInt(valor);
+            case "url" -> url = valor.endsWith("/") ? valor.substring(0, valor.length() - 1) : valor;
+            case "jdbc-url" -> jdbcUrl = valor;
+            case "jdbc-usuario" -> jdbcUsuario = valor;
+            case "jdbc-password" -> jdbcPassword = valor;
+            case "imagen-postgres" -> imagenPostgres = valor;
+            case "informe" -> informe = Path.of(valor);
+            case "referencia" -> referencia = Path.of(valor);
+            case "tolerancia-p99" -> toleranciaP99 = Double.parseDouble(valor);
+            case "p99-maximo" -> p99Maximo = parsearDuracion(valor);
+            case "errores-maximos" -> erroresMaximos = Double.parseDouble(valor);
+            default -> throw new IllegalArgumentException("Parámetro desconocido: --" + clave);
+        }
+    }
+
+    private void validar() {
+        if (tasa <= 0 || usuariosIniciales <= 0 || maximoEnCurso <= 0) {
+            throw new IllegalArgumentException("tasa, usuarios-iniciales y maximo-en-curso deben ser positivos");
+        }
+        if (duracion.isZero() || duracion.isNegative()) {
+            throw new IllegalArgumentException("La duración debe ser positiva");
+        }
+    }
+
+    /**
+     * Acepta 500ms, 30s, 2m o el formato ISO-8601 (PT30S)
+     */
+    static Duration parsearDuracion(String valor) {
+        String v = valor.trim().toLowerCase();
+        if (v.startsWith("pt")) {
+            return Duration.parse(v.toUpperCase());
+        }
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duración no válida: " + valor);
+    }
+
+    /**
+     * Formato: get-id:50,get-email:20,post:15,put:10,delete:5 (pesos relativos)
+     */
+    static Map<Operacion, Integer> parsearMezcla(String valor) {
+        Map<Operacion, Integer> resultado = new EnumMap<>(Operacion.class);
+        for (String parte : valor.split(",")) {
+            String[] claveYPeso = parte.split(":");
+            if (claveYPeso.length != 2) {
+                throw new IllegalArgumentException("Mezcla no válida: " + parte);
+            }
+            int peso = Integer.parseInt(claveYPeso[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + parte);
+            }
+            resultado.put(Operacion.desdeClave(claveYPeso[0]), peso);
+        }
+        if (resultado.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("La mezcla debe tener algún peso positivo");
+        }
+        return resultado;
+    }
+
+    private static Map<Operacion, Integer> mezclaPorDefecto() {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        mezcla.put(Operacion.GET_ID, 50);
+        mezcla.put(Operacion.GET_EMAIL, 20);
+        mezcla.put(Operacion.POST, 15);
+        mezcla.put(Operacion.PUT, 10);
+        mezcla.put(Operacion.DELETE, 5);
+        return mezcla;
+    }
+
+    /**
+     * Resumen de la configuración para incluirlo en el informe
+     */
+    public Map<String, Object> resumen() {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("tasa", tasa);
+        resumen.put("duracionSegundos", duracion.toSeconds());
+        resumen.put("calentamientoSegundos", calentamiento.toSeconds());
+        resumen.put("usuariosIniciales", usuariosIniciales);
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        mezcla.forEach((operacion, peso) -> pesos.put(operacion.getClave(), peso));
+        resumen.put("mezcla", pesos);
+        resumen.put("destino", url != null ? url : jdbcUrl != null ? jdbcUrl : imagenPostgres);
+        return resumen;
+    }
+
+    // Getters
+    public int getTasa() {
+        return tasa;
+    }
+
+    public Duration getDuracion() {
+        return duracion;
+    }
+
+    public Duration getCalentamiento() {
+        return calentamiento;
+    }
+
+    public int getUsuariosIniciales() {
+        return usuariosIniciales;
+    }
+
+    public Map<Operacion, Integer> getMezcla() {
+        return mezcla;
+    }
+
+    public int getMaximoEnCurso() {
+        return maximoEnCurso;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getJdbcUsuario() {
+        return jdbcUsuario;
+    }
+
+    public String getJdbcPassword() {
+        return jdbcPassword;
+    }
+
+    public String getImagenPostgres() {
+        return imagenPostgres;
+    }
+
+    public Path getInforme() {
+        return informe;
+    }
+
+    public Path getReferencia() {
+        return referencia;
+    }
+
+    public double getToleranciaP99() {
+        return toleranciaP99;
+    }
+
+    public Duration getP99Maximo() {
+        return p99Maximo;
+    }
+
+    public double getErroresMaximos() {
+        return erroresMaximos;
+    }
+}
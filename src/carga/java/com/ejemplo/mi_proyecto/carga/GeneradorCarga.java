@@ -0,0 +1,385 @@
+package com.ejemplo.mi_proyecto.carga;
+
+import com.ejemplo.mi_proyecto.MiProyectoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de tasa fija contra /api/usuarios
+ *
+ * Arranca la aplicación en este proceso contra PostgreSQL (Testcontainers o --jdbc-url),
+ * o usa una ya arrancada (--url). Crea los usuarios iniciales, lanza la mezcla de operaciones
+ * configurada a la tasa pedida durante el calentamiento y la medición, y escribe un informe
+ * JSON con percentiles de latencia y rendimiento por operación.
+ *
+ * Termina con código 1 si se supera la tasa de errores, el p99 máximo o, con --referencia,
+ * si algún p99 empeora más que la tolerancia respecto al informe anterior.
+ *
+ * Uso: mvn -Pcarga test-compile exec:exec -Dcarga.argumentos="--tasa=500 --duracion=2m"
+ */
+public class GeneradorCarga {
+
+    private static final Duration TIMEOUT_PETICION = Duration.ofSeconds(30);
+    private static final int TAMANO_LOTE_INICIAL = 1000;
+
+    private final ConfiguracionCarga configuracion;
+    private final String baseUrl;
+    private final HttpClient cliente;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Operacion[] ruleta;
+    private final AtomicReferenceArray<Registro> registros;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicLong secuenciaEmails = new AtomicLong();
+    // Evita colisiones de email con ejecuciones anteriores contra la misma base de datos
+    private final String prefijoEjecucion = UUID.randomUUID().toString().substring(0, 8);
+
+    GeneradorCarga(ConfiguracionCarga configuracion, String baseUrl) {
+        this.configuracion = configuracion;
+        this.baseUrl = baseUrl + "/api/usuarios";
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.ruleta = construirRuleta(configuracion.getMezcla());
+        this.registros = new AtomicReferenceArray<>(configuracion.getUsuariosIniciales());
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        InformeCarga informe;
+        try (Entorno entorno = Entorno.preparar(configuracion)) {
+            GeneradorCarga generador = new GeneradorCarga(configuracion, entorno.url());
+            informe = generador.ejecutar();
+        }
+        System.exit(evaluar(configuracion, informe) ? 0 : 1);
+    }
+
+    /**
+     * Crea los usuarios iniciales, calienta y mide
+     */
+    InformeCarga ejecutar() throws IOException, InterruptedException {
+        System.out.printf("Creando %d usuarios iniciales en %s%n", configuracion.getUsuariosIniciales(), baseUrl);
+        crearUsuariosIniciales();
+
+        System.out.printf("Calentamiento: %d s a %d peticiones/s%n",
+                configuracion.getCalentamiento().toSeconds(), configuracion.getTasa());
+        ejecutarFase(configuracion.getCalentamiento(), new InformeCarga());
+
+        System.out.printf("Medición: %d s a %d peticiones/s%n",
+                configuracion.getDuracion().toSeconds(), configuracion.getTasa());
+        InformeCarga informe = new InformeCarga();
+        ejecutarFase(configuracion.getDuracion(), informe);
+        informe.escribir(configuracion.getInforme(), configuracion.resumen(), objectMapper);
+        System.out.printf("Informe escrito en %s%n", configuracion.getInforme().toAbsolutePath());
+        return informe;
+    }
+
+    /**
+     * Lanza peticiones a intervalos fijos sin esperar las respuestas (modelo abierto)
+     */
+    private void ejecutarFase(Duration duracion, InformeCarga informe) throws InterruptedException {
+        if (duracion.isZero()) {
+            return;
+        }
+        long periodo = TimeUnit.SECONDS.toNanos(1) / configuracion.getTasa();
+        long inicio = System.nanoTime();
+        long fin = inicio + duracion.toNanos();
+        informe.iniciar();
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * periodo;
+            if (previsto >= fin) {
+                break;
+            }
+            esperarHasta(previsto);
+            Operacion operacion = ruleta[ThreadLocalRandom.current().nextInt(ruleta.length)];
+            if (enCurso.get() >= configuracion.getMaximoEnCurso()) {
+                informe.registrarDescartada(operacion);
+                continue;
+            }
+            enCurso.incrementAndGet();
+            enviar(operacion).whenComplete((status, error) -> {
+                informe.registrar(operacion, System.nanoTime() - previsto, error == null ? status : 0);
+                enCurso.decrementAndGet();
+            });
+        }
+        // Esperar a las peticiones en curso para no mezclarlas con la fase siguiente
+        long limite = System.nanoTime() + TIMEOUT_PETICION.toNanos();
+        while (enCurso.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        informe.finalizar();
+    }
+
+    private CompletableFuture<Integer> enviar(Operacion operacion) {
+        Registro registro;
+        switch (operacion) {
+            case GET_ID:
+                registro = registroAleatorio();
+                return status(peticion("/" + registro.id()).GET());
+            case GET_EMAIL:
+                registro = registroAleatorio();
+                return status(peticion("/email/" + registro.email()).GET());
+            case PUT:
+                registro = registroAleatorio();
+                return status(peticion("/" + registro.id()).PUT(json(usuario("Carga actualizado", registro.email()))));
+            case DELETE:
+                registro = reclamarRegistro();
+                return status(peticion("/" + registro.id()).DELETE());
+            case POST:
+            default:
+                String email = nuevoEmail();
+                return cliente.sendAsync(peticion("").POST(json(usuario("Carga nuevo", email))).build(),
+                                HttpResponse.BodyHandlers.ofByteArray())
+                        .thenApply(respuesta -> {
+                            if (respuesta.statusCode() == 201) {
+                                colocar(new Registro(leerId(respuesta.body()), email));
+                            }
+                            return respuesta.statusCode();
+                        });
+        }
+    }
+
+    private void crearUsuariosIniciales() throws IOException, InterruptedException {
+        int total = configuracion.getUsuariosIniciales();
+        for (int desde = 0; desde < total; desde += TAMANO_LOTE_INICIAL) {
+            int hasta = Math.min(total, desde + TAMANO_LOTE_INICIAL);
+            ArrayNode lote = objectMapper.createArrayNode();
+            List<String> emails = new ArrayList<>();
+            for (int i = desde; i < hasta; i++) {
+                String email = nuevoEmail();
+                emails.add(email);
+                lote.add(usuario("Carga inicial " + i, email));
+            }
+            HttpResponse<byte[]> respuesta = cliente.send(peticion("/batch").POST(json(lote)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (respuesta.statusCode() != 200) {
+                throw new IllegalStateException("No se pudieron crear los usuarios iniciales: HTTP " + respuesta.statusCode());
+            }
+            for (JsonNode resultado : objectMapper.readTree(respuesta.body())) {
+                int indice = resultado.path("indice").asInt();
+                if (resultado.path("status").asInt() == 201) {
+                    registros.set(desde + indice, new Registro(resultado.path("id").asLong(), emails.get(indice)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Un usuario existente al azar; si no encuentra ninguno, uno inexistente (la respuesta será 404)
+     */
+    private Registro registroAleatorio() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        for (int intento = 0; intento < 8; intento++) {
+            Registro registro = registros.get(aleatorio.nextInt(registros.length()));
+            if (registro != null) {
+                return registro;
+            }
+        }
+        return new Registro(Long.MAX_VALUE, "inexistente@example.com");
+    }
+
+    /**
+     * Saca un usuario de la tabla para borrarlo, de modo que nadie más lo use después
+     */
+    private Registro reclamarRegistro() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        for (int intento = 0; intento < 8; intento++) {
+            int posicion = aleatorio.nextInt(registros.length());
+            Registro registro = registros.getAndSet(posicion, null);
+            if (registro != null) {
+                return registro;
+            }
+        }
+        return new Registro(Long.MAX_VALUE, "inexistente@example.com");
+    }
+
+    /**
+     * Añade un usuario creado en un hueco libre (o sustituye uno al azar si no hay)
+     */
+    private void colocar(Registro registro) {
+        int inicio = ThreadLocalRandom.current().nextInt(registros.length());
+        for (int i = 0; i < registros.length(); i++) {
+            if (registros.compareAndSet((inicio + i) % registros.length(), null, registro)) {
+                return;
+            }
+        }
+        registros.set(inicio, registro);
+    }
+
+    private String nuevoEmail() {
+        return "carga-" + prefijoEjecucion + "-" + secuenciaEmails.incrementAndGet() + "@example.com";
+    }
+
+    private CompletableFuture<Integer> status(HttpRequest.Builder peticion) {
+        return cliente.sendAsync(peticion.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder peticion(String ruta) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + ruta))
+                .timeout(TIMEOUT_PETICION)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private ObjectNode usuario(String nombre, String email) {
+        return objectMapper.createObjectNode().put("nombre", nombre).put("email", email).put("telefono", "555-0000");
+    }
+
+    private HttpRequest.BodyPublisher json(JsonNode cuerpo) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(cuerpo));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long leerId(byte[] cuerpo) {
+        try {
+            return objectMapper.readTree(cuerpo).path("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Respuesta de creación no válida", e);
+        }
+    }
+
+    private static void esperarHasta(long instante) {
+        long espera;
+        while ((espera = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(espera);
+        }
+    }
+
+    private static Operacion[] construirRuleta(Map<Operacion, Integer> mezcla) {
+        List<Operacion> ruleta = new ArrayList<>();
+        mezcla.forEach((operacion, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                ruleta.add(operacion);
+            }
+        });
+        return ruleta.toArray(new Operacion[0]);
+    }
+
+    /**
+     * Aplica los umbrales de la configuración e imprime el resultado
+     * @return true si la ejecución pasa todos los umbrales
+     */
+    static boolean evaluar(ConfiguracionCarga configuracion, InformeCarga informe) throws IOException {
+        List<String> fallos = new ArrayList<>();
+        if (informe.tasaErrores() > configuracion.getErroresMaximos()) {
+            fallos.add(String.format("Tasa de errores %.2f%% > %.2f%%", informe.tasaErrores() * 100,
+                    configuracion.getErroresMaximos() * 100));
+        }
+        if (configuracion.getP99Maximo() != null && informe.p99().compareTo(configuracion.getP99Maximo()) > 0) {
+            fallos.add(String.format("p99 %d ms > %d ms", informe.p99().toMillis(), configuracion.getP99Maximo().toMillis()));
+        }
+        if (configuracion.getReferencia() != null) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            fallos.addAll(InformeCarga.regresionesP99(objectMapper.readTree(configuracion.getInforme().toFile()),
+                    objectMapper.readTree(configuracion.getReferencia().toFile()), configuracion.getToleranciaP99()));
+        }
+        System.out.printf("p99 total: %.2f ms, errores: %.2f%%%n", informe.p99().toNanos() / 1e6, informe.tasaErrores() * 100);
+        fallos.forEach(fallo -> System.out.println("FALLO: " + fallo));
+        return fallos.isEmpty();
+    }
+
+    private record Registro(long id, String email) {
+    }
+
+    /**
+     * Aplicación y base de datos contra las que se lanza la carga
+     */
+    private static final class Entorno implements AutoCloseable {
+
+        private final PostgreSQLContainer<?> postgres;
+        private final ConfigurableApplicationContext aplicacion;
+        private final String url;
+
+        private Entorno(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext aplicacion, String url) {
+            this.postgres = postgres;
+            this.aplicacion = aplicacion;
+            this.url = url;
+        }
+
+        static Entorno preparar(ConfiguracionCarga configuracion) {
+            if (configuracion.getUrl() != null) {
+                return new Entorno(null, null, configuracion.getUrl());
+            }
+            PostgreSQLContainer<?> postgres = null;
+            String jdbcUrl = configuracion.getJdbcUrl();
+            String usuario = configuracion.getJdbcUsuario();
+            String password = configuracion.getJdbcPassword();
+            if (jdbcUrl == null) {
+                try {
+                    postgres = new PostgreSQLContainer<>(DockerImageName.parse(configuracion.getImagenPostgres()));
+                    postgres.start();
+                } catch (IllegalStateException e) {
+                    throw new IllegalStateException("No se pudo arrancar PostgreSQL con Testcontainers (¿Docker disponible?). "
+                            + "Use --jdbc-url=... o --url=... para apuntar a un entorno existente", e);
+                }
+                jdbcUrl = postgres.getJdbcUrl() + (postgres.getJdbcUrl().contains("?") ? "&" : "?")
+                        + "reWriteBatchedInserts=true";
+                usuario = postgres.getUsername();
+                password = postgres.getPassword();
+            }
+            // Como argumentos de línea de comandos, para que prevalezcan sobre application.properties
+            List<String> propiedades = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=" + usuario,
+                    "--spring.datasource.password=" + password,
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.com.ejemplo.mi_proyecto=WARN",
+                    "--logging.level.org.springframework.web=WARN"));
+            if (jdbcUrl.startsWith("jdbc:h2:")) {
+                // Solo para comprobar el propio generador: H2 no representa el rendimiento de PostgreSQL
+                propiedades.addAll(List.of(
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--usuarios.cache.notificaciones.habilitadas=false"));
+            }
+            ConfigurableApplicationContext aplicacion = new SpringApplicationBuilder(MiProyectoApplication.class)
+                    .run(propiedades.toArray(new String[0]));
+            String puerto = aplicacion.getEnvironment().getProperty("local.server.port");
+            return new Entorno(postgres, aplicacion, "http://localhost:" + puerto);
+        }
+
+        String url() {
+            return url;
+        }
+
+        @Override
+        public void close() {
+            if (aplicacion != null) {
+                aplicacion.close();
+            }
+            if (postgres != null) {
+                postgres.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.ejemplo.mi_proyecto.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (HdrHistogram, en microsegundos) y resultados de una fase de carga, por operación
+ *
+ * La latencia se mide desde el instante en que la petición debía salir según la tasa fijada,
+ * no desde que salió: si el sistema se atasca, la espera en el propio generador también
+ * cuenta (corrección de la "omisión coordinada").
+ */
+public class InformeCarga {
+
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.MINUTES.toMicros(2);
+    private static final String TOTAL = "total";
+
+    private final Map<Operacion, Resultados> porOperacion = new EnumMap<>(Operacion.class);
+    private final Resultados total = new Resultados();
+    private long inicioNanos;
+    private long finNanos;
+
+    public InformeCarga() {
+        for (Operacion operacion : Operacion.values()) {
+            porOperacion.put(operacion, new Resultados());
+        }
+    }
+
+    public void iniciar() {
+        inicioNanos = System.nanoTime();
+    }
+
+    public void finalizar() {
+        finNanos = System.nanoTime();
+    }
+
+    /**
+     * Registra una respuesta (status HTTP) o un fallo de transporte (status 0)
+     */
+    public void registrar(Operacion operacion, long latenciaNanos, int status) {
+        porOperacion.get(operacion).registrar(latenciaNanos, status);
+        total.registrar(latenciaNanos, status);
+    }
+
+    /**
+     * Registra una petición que no se lanzó porque había demasiadas en curso
+     */
+    public void registrarDescartada(Operacion operacion) {
+        porOperacion.get(operacion).descartadas.increment();
+        total.descartadas.increment();
+    }
+
+    /**
+     * Fracción de peticiones con error (5xx, fallo de transporte o descartadas)
+     */
+    public double tasaErrores() {
+        long intentos = total.histograma.getTotalCount() + total.descartadas.sum();
+        return intentos == 0 ? 0 : (double) (total.errores() + total.descartadas.sum()) / intentos;
+    }
+
+    /**
+     * Percentil 99 del total
+     */
+    public Duration p99() {
+        return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(total.histograma.getValueAtPercentile(99)));
+    }
+
+    /**
+     * Escribe el informe en JSON y, junto a él, la distribución de percentiles del total (.hgrm)
+     */
+    public void escribir(Path destino, Map<String, Object> configuracion, ObjectMapper objectMapper) throws IOException {
+        double segundos = (finNanos - inicioNanos) / 1e9;
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("configuracion", configuracion);
+        informe.put("segundosMedidos", Math.round(segundos * 10) / 10.0);
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        porOperacion.forEach((operacion, resultados) -> {
+            if (resultados.histograma.getTotalCount() > 0 || resultados.descartadas.sum() > 0) {
+                operaciones.put(operacion.getClave(), resultados.resumen(operacion.getDescripcion(), segundos));
+            }
+        });
+        informe.put("operaciones", operaciones);
+        informe.put(TOTAL, total.resumen("Todas las operaciones", segundos));
+
+        if (destino.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(destino.toAbsolutePath().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(destino.toFile(), informe);
+        Path distribucion = destino.resolveSibling(destino.getFileName().toString().replaceFirst("\\.json$", "") + ".hgrm");
+        try (PrintStream salida = new PrintStream(Files.newOutputStream(distribucion))) {
+            // Valores en milisegundos
+            total.histograma.outputPercentileDistribution(salida, 1000.0);
+        }
+    }
+
+    /**
+     * Compara el p99 de cada operación (y del total) con un informe anterior
+     * @return Descripción de cada p99 que empeoró más que la tolerancia; vacía si no hay regresiones
+     */
+    public static List<String> regresionesP99(JsonNode actual, JsonNode referencia, double tolerancia) {
+        List<String> regresiones = new ArrayList<>();
+        comparar(TOTAL, actual.path(TOTAL), referencia.path(TOTAL), tolerancia, regresiones);
+        for (Map.Entry<String, JsonNode> entrada : actual.path("operaciones").properties()) {
+            comparar(entrada.getKey(), entrada.getValue(), referencia.path("operaciones").path(entrada.getKey()),
+                    tolerancia, regresiones);
+        }
+        return regresiones;
+    }
+
+    private static void comparar(String nombre, JsonNode actual, JsonNode referencia, double tolerancia,
+                                 List<String> regresiones) {
+        JsonNode p99Actual = actual.path("latenciaMs").path("p99");
+        JsonNode p99Referencia = referencia.path("latenciaMs").path("p99");
+        if (p99Actual.isMissingNode() || p99Referencia.isMissingNode()) {
+            return;
+        }
+        double limite = p99Referencia.asDouble() * (1 + tolerancia);
+        if (p99Actual.asDouble() > limite) {
+            regresiones.add(String.format("%s: p99 %.2f ms > %.2f ms (referencia %.2f ms + %.0f%%)", nombre,
+                    p99Actual.asDouble(), limite, p99Referencia.asDouble(), tolerancia * 100));
+        }
+    }
+
+    private static final class Resultados {
+
+        private final Histogram histograma = new ConcurrentHistogram(LATENCIA_MAXIMA_US, 3);
+        private final Map<Integer, LongAdder> porStatus = new ConcurrentHashMap<>();
+        private final LongAdder descartadas = new LongAdder();
+
+        void registrar(long latenciaNanos, int status) {
+            histograma.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latenciaNanos), LATENCIA_MAXIMA_US));
+            porStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        long errores() {
+            long errores = 0;
+            for (Map.Entry<Integer, LongAdder> entrada : porStatus.entrySet()) {
+                if (entrada.getKey() == 0 || entrada.getKey() >= 500) {
+                    errores += entrada.getValue().sum();
+                }
+            }
+            return errores;
+        }
+
+        Map<String, Object> resumen(String descripcion, double segundos) {
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("descripcion", descripcion);
+            resumen.put("peticiones", histograma.getTotalCount());
+            resumen.put("peticionesPorSegundo", Math.round(histograma.getTotalCount() / segundos * 10) / 10.0);
+            resumen.put("errores", errores());
+            resumen.put("descartadas", descartadas.sum());
+            Map<String, Long> status = new LinkedHashMap<>();
+            porStatus.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> status.put(e.getKey() == 0 ? "sin-respuesta" : e.getKey().toString(), e.getValue().sum()));
+            resumen.put("status", status);
+            Map<String, Double> latencia = new LinkedHashMap<>();
+            latencia.put("media", ms(histograma.getMean()));
+            latencia.put("p50", ms(histograma.getValueAtPercentile(50)));
+            latencia.put("p90", ms(histograma.getValueAtPercentile(90)));
+            latencia.put("p99", ms(histograma.getValueAtPercentile(99)));
+            latencia.put("p999", ms(histograma.getValueAtPercentile(99.9)));
+            latencia.put("max", ms(histograma.getMaxValue()));
+            resumen.put("latenciaMs", latencia);
+            return resumen;
+        }
+
+        private static double ms(double microsegundos) {
+            return Math.round(microsegundos) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ejemplo.mi_proyecto.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class InformeCargaTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testP99PorEncimaDeLaToleranciaEsRegresion() throws Exception {
+        // Given: el p99 de "crear" pasa de 10 ms a 12 ms con una tolerancia del 10%
+        JsonNode referencia = informe(5.0, 10.0);
+        JsonNode actual = informe(5.2, 12.0);
+
+        // When
+        List<String> regresiones = InformeCarga.regresionesP99(actual, referencia, 0.10);
+
+        // Then
+        assertThat(regresiones).singleElement().asString().startsWith("crear: p99 12");
+    }
+
+    @Test
+    void testP99DentroDeLaToleranciaNoEsRegresion() throws Exception {
+        // Given: empeora un 5% con una tolerancia del 10%
+        JsonNode referencia = informe(5.0, 10.0);
+        JsonNode actual = informe(5.25, 10.5);
+
+        // When & Then
+        assertThat(InformeCarga.regresionesP99(actual, referencia, 0.10)).isEmpty();
+    }
+
+    @Test
+    void testOperacionSinReferenciaSeIgnora() throws Exception {
+        // Given: la referencia no midió la operación "crear"
+        JsonNode referencia = objectMapper.readTree("""
+                {"operaciones": {}, "total": {"latenciaMs": {"p99": 5.0}}}""");
+
+        // When & Then
+        assertThat(InformeCarga.regresionesP99(informe(5.0, 50.0), referencia, 0.10)).isEmpty();
+    }
+
+    /**
+     * Informe con el p99 del total y el de la operación "crear", como lo escribe InformeCarga.escribir
+     */
+    private JsonNode informe(double p99Total, double p99Crear) throws Exception {
+        return objectMapper.readTree("""
+                {"operaciones": {"crear": {"latenciaMs": {"p99": %s}}},
+                 "total": {"latenciaMs": {"p99": %s}}}""".formatted(p99Crear, p99Total));
+    }
+}
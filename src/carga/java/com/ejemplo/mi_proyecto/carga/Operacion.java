@@ -0,0 +1,45 @@
+package com.ejemplo.mi_proyecto.carga;
+
+/**
+ * Operaciones sobre /api/usuarios que puede lanzar el generador de carga
+ */
+public enum Operacion {
+
+    GET_ID("get-id", "GET /api/usuarios/{id}"),
+    GET_EMAIL("get-email", "GET /api/usuarios/email/{email}"),
+    POST("post", "POST /api/usuarios"),
+    PUT("put", "PUT /api/usuarios/{id}"),
+    DELETE("delete", "DELETE /api/usuarios/{id}");
+
+    private final String clave;
+    private final String descripcion;
+
+    Operacion(String clave, String descripcion) {
+        this.clave = clave;
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * Nombre usado en la línea de comandos (--mezcla) y en el informe
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Busca una operación por su clave
+     * @throws IllegalArgumentException si la clave no existe
+     */
+    public static Operacion desdeClave(String clave) {
+        for (Operacion operacion : values()) {
+            if (operacion.clave.equalsIgnoreCase(clave.trim())) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + clave);
+    }
+}
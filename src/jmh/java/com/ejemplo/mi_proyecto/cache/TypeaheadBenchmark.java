@@ -0,0 +1,119 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda por prefijo de 10 sugerencias sobre un millón de emails sintéticos: IndiceOrdenadoUtf8
+ * (la base de IndiceTypeaheadEmails) frente a un TreeMap<String, Long> como referencia
+ * Al preparar imprime la memoria de cada estructura (la del TreeMap, medida con el heap usado)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+
+    private static final int LIMITE = 10;
+    private static final String[] NOMBRES = {"ana", "andres", "beatriz", "carlos", "carmen", "david",
+            "elena", "javier", "laura", "lucia", "maria", "marta", "pablo", "sergio", "sofia", "zoe"};
+    private static final String[] DOMINIOS = {"example.com", "correo.es", "empresa.org"};
+
+    @Param({"1000000"})
+    private int usuarios;
+
+    // Prefijos de distinta selectividad: muchos, pocos y ningún resultado
+    @Param({"mar", "marta.4217", "xyz"})
+    private String prefijo;
+
+    private IndiceOrdenadoUtf8 indice;
+    private TreeMap<String, Long> arbol;
+    private byte[] prefijoUtf8;
+
+    @Setup
+    public void preparar() {
+        String[] emails = generarEmails(usuarios);
+        IndiceOrdenadoUtf8.Constructor constructor = new IndiceOrdenadoUtf8.Constructor(usuarios);
+        for (int i = 0; i < emails.length; i++) {
+            constructor.agregar(emails[i], i + 1L);
+        }
+        indice = constructor.construir();
+        prefijoUtf8 = prefijo.getBytes(StandardCharsets.UTF_8);
+
+        long antes = heapUsado();
+        arbol = new TreeMap<>();
+        for (int i = 0; i < emails.length; i++) {
+            // Copia con su propio array de bytes (new String(String) lo compartiría)
+            arbol.put(new String(emails[i].toCharArray()), i + 1L);
+        }
+        long bytesArbol = heapUsado() - antes;
+        long bytesEmails = 0;
+        for (String email : emails) {
+            bytesEmails += email.length();
+        }
+        System.out.printf("%n%d emails (%d bytes de texto): IndiceOrdenadoUtf8 %d bytes (%.1f por entrada),"
+                        + " TreeMap ~%d bytes (%.1f por entrada)%n", indice.tamano(), bytesEmails,
+                indice.tamanoBytes(), (double) indice.tamanoBytes() / indice.tamano(),
+                bytesArbol, (double) bytesArbol / arbol.size());
+    }
+
+    @Benchmark
+    public void indiceOrdenado(Blackhole blackhole) {
+        int encontradas = 0;
+        for (int i = indice.primeraPosicion(prefijoUtf8); i < indice.tamano() && encontradas < LIMITE
+                && indice.empiezaPor(i, prefijoUtf8); i++) {
+            blackhole.consume(indice.clave(i));
+            blackhole.consume(indice.id(i));
+            encontradas++;
+        }
+    }
+
+    @Benchmark
+    public void treeMap(Blackhole blackhole) {
+        int encontradas = 0;
+        for (Map.Entry<String, Long> entrada : arbol.tailMap(prefijo).entrySet()) {
+            if (encontradas == LIMITE || !entrada.getKey().startsWith(prefijo)) {
+                break;
+            }
+            blackhole.consume(entrada.getKey());
+            blackhole.consume(entrada.getValue());
+            encontradas++;
+        }
+    }
+
+    private static String[] generarEmails(int cantidad) {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        String[] emails = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            emails[i] = NOMBRES[aleatorio.nextInt(NOMBRES.length)] + "." + i + "@"
+                    + DOMINIOS[aleatorio.nextInt(DOMINIOS.length)];
+        }
+        return emails;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,88 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la serialización JSON de usuarios y de errores, con la misma configuración
+ * de Jackson que usa Spring Boot
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacionBenchmark {
+
+    @Param({"1", "100"})
+    private int tamanoLista;
+
+    private ObjectMapper objectMapper;
+    // Sin SerializadorErrorResponse, como referencia
+    private ObjectMapper objectMapperPorDefecto;
+    private ObjectWriter writerLista;
+    private List<Usuario> usuarios;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapperPorDefecto = Jackson2ObjectMapperBuilder.json()
+                .mixIn(ErrorResponse.class, SerializacionPorDefecto.class).build();
+        writerLista = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Usuario.class));
+        usuarios = new ArrayList<>(tamanoLista);
+        for (int i = 0; i < tamanoLista; i++) {
+            Usuario usuario = new Usuario("Usuario " + i, "usuario" + i + "@example.com", "555-" + i);
+            usuario.setId((long) i + 1);
+            usuarios.add(usuario);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarListaUsuarios() throws JsonProcessingException {
+        return writerLista.writeValueAsBytes(usuarios);
+    }
+
+    /**
+     * Incluye la construcción del ErrorResponse, como en GlobalExceptionHandler
+     */
+    @Benchmark
+    public byte[] serializarErrorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new ErrorResponse(RelojErrores.ahora(), 404, "NOT_FOUND",
+                "Usuario no encontrado con ID: 42", "/api/usuarios/42"));
+    }
+
+    /**
+     * Como antes: LocalDateTime.now() y serialización por defecto con @JsonFormat
+     */
+    @Benchmark
+    public byte[] serializarErrorResponsePorDefecto() throws JsonProcessingException {
+        return objectMapperPorDefecto.writeValueAsBytes(new ErrorResponse(404, "NOT_FOUND",
+                "Usuario no encontrado con ID: 42", "/api/usuarios/42"));
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class SerializacionPorDefecto {
+    }
+}
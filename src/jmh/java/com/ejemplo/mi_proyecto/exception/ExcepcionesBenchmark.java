@@ -0,0 +1,84 @@
+package com.ejemplo.mi_proyecto.exception;
+
+import com.ejemplo.mi_proyecto.dto.ErrorResponse;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camino del 404: lanzar ResourceNotFoundException desde cierta profundidad de pila y
+ * convertirla en ErrorResponse con GlobalExceptionHandler, con y sin captura del stack trace
+ *
+ * profundidad simula los marcos que hay por encima del servicio en una petición real
+ * (Tomcat, filtros, DispatcherServlet, proxies de Spring: más de 100).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExcepcionesBenchmark {
+
+    @Param({"10", "150"})
+    private int profundidad;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest("DELETE", "/api/usuarios/7"));
+    private long id = 7;
+
+    @Setup
+    public void setUp() {
+        // Sin el WARN de cada 404: se mide la excepción, no la escritura en consola
+        Configurator.setLevel(GlobalExceptionHandler.class.getName(), Level.ERROR);
+    }
+
+    /**
+     * Como antes: mensaje concatenado y stack trace completo
+     */
+    @Benchmark
+    public ResponseEntity<ErrorResponse> noEncontradoConTraza() {
+        try {
+            return lanzar(profundidad, true);
+        } catch (ResourceNotFoundException e) {
+            return handler.handleResourceNotFoundException(e, request);
+        }
+    }
+
+    /**
+     * Variante ligera: código de error, sin stack trace
+     */
+    @Benchmark
+    public ResponseEntity<ErrorResponse> noEncontradoSinTraza() {
+        try {
+            return lanzar(profundidad, false);
+        } catch (ResourceNotFoundException e) {
+            return handler.handleResourceNotFoundException(e, request);
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> lanzar(int restante, boolean conTraza) {
+        if (restante > 0) {
+            return lanzar(restante - 1, conTraza);
+        }
+        throw conTraza
+                ? new ResourceNotFoundException("Usuario no encontrado con ID: " + id)
+                : new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id);
+    }
+}
@@ -0,0 +1,58 @@
+package com.ejemplo.mi_proyecto.metricas;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por llamada de los timers de métodos (proxy + histograma Prometheus) frente a la llamada directa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemporizadorMetodosBenchmark {
+
+    public interface Consulta {
+        Optional<Long> buscar(Long id);
+    }
+
+    private Consulta directa;
+    private Consulta medida;
+    private final Long id = 42L;
+
+    @Setup
+    public void preparar() {
+        directa = Optional::of;
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        ProxyFactory factory = new ProxyFactory(directa);
+        factory.addInterface(Consulta.class);
+        factory.addAdvice(new TemporizadorMetodos(() -> registry, "benchmark.consulta", "Benchmark"));
+        medida = (Consulta) factory.getProxy();
+    }
+
+    @Benchmark
+    public Optional<Long> sinMetricas() {
+        return directa.buscar(id);
+    }
+
+    @Benchmark
+    public Optional<Long> conMetricas() {
+        return medida.buscar(id);
+    }
+}
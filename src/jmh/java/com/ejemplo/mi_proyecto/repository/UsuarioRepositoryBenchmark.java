@@ -0,0 +1,94 @@
+package com.ejemplo.mi_proyecto.repository;
+
+import com.ejemplo.mi_proyecto.MiProyectoApplication;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de ida y vuelta al repositorio contra H2 en memoria (perfil test)
+ *
+ * Miden el coste de JPA/Hibernate y del pool de conexiones sin red; no sustituyen
+ * a una prueba de carga contra PostgreSQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsuarioRepositoryBenchmark {
+
+    private static final int USUARIOS = 1000;
+
+    private ConfigurableApplicationContext contexto;
+    private UsuarioRepository usuarioRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(MiProyectoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.show-sql=false",
+                        "logging.level.com.ejemplo.mi_proyecto=WARN",
+                        "logging.level.org.springframework.web=WARN",
+                        "usuarios.bloom.habilitado=false")
+                .run();
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        List<Usuario> usuarios = new ArrayList<>(USUARIOS);
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios.add(new Usuario("Usuario " + i, "usuario" + i + "@example.com", null));
+        }
+        ids = usuarioRepository.saveAll(usuarios).stream().map(Usuario::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Usuario> buscarPorId() {
+        return usuarioRepository.findById(ids.get(ThreadLocalRandom.current().nextInt(USUARIOS)));
+    }
+
+    @Benchmark
+    public Optional<Usuario> buscarPorEmail() {
+        return usuarioRepository.findByEmail("usuario" + ThreadLocalRandom.current().nextInt(USUARIOS) + "@example.com");
+    }
+
+    @Benchmark
+    public List<Usuario> paginaKeyset() {
+        return usuarioRepository.findByIdGreaterThanOrderByIdAsc(
+                ids.get(ThreadLocalRandom.current().nextInt(USUARIOS - 50)), Limit.of(50));
+    }
+
+    @Benchmark
+    public Long crearYEliminar() {
+        Usuario usuario = usuarioRepository.save(new Usuario("Temporal", "temporal-"
+                + ThreadLocalRandom.current().nextLong() + "@example.com", null));
+        usuarioRepository.deleteById(usuario.getId());
+        return usuario.getId();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ejemplo.mi_proyecto.service.impl;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la validación y normalización de usuarios (sin base de datos)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacionUsuarioBenchmark {
+
+    private final Usuario valido = new Usuario("Juan Pérez", "juan.perez@example.com", "123-456-7890");
+    private final Usuario emailInvalido = new Usuario("Juan Pérez", "juan.perez", "123-456-7890");
+    private final String email = "  Juan.Perez@Example.COM ";
+
+    @Benchmark
+    public Usuario validarUsuarioValido() {
+        UsuarioServiceImpl.validarUsuario(valido);
+        return valido;
+    }
+
+    /**
+     * Camino de error: incluye el coste de crear la ValidacionException, que no captura stack trace
+     * ni formatea el mensaje hasta que se pide
+     */
+    @Benchmark
+    public Object validarUsuarioInvalido() {
+        try {
+            UsuarioServiceImpl.validarUsuario(emailInvalido);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public String normalizarEmail() {
+        return UsuarioServiceImpl.normalizarEmail(email);
+    }
+}
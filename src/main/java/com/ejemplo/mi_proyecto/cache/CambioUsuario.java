@@ -0,0 +1,46 @@
+package com.ejemplo.mi_proyecto.cache;
+
+/**
+ * Evento de cambio de un usuario que se difunde a los demás nodos
+ * Un email a null indica que no aplica (ej: emailNuevo en una eliminación)
+ */
+public class CambioUsuario {
+
+    private Long id;
+    private String emailAnterior;
+    private String emailNuevo;
+
+    public CambioUsuario() {
+    }
+
+    public CambioUsuario(Long id, String emailAnterior, String emailNuevo) {
+        this.id = id;
+        this.emailAnterior = emailAnterior;
+        this.emailNuevo = emailNuevo;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEmailAnterior() {
+        return emailAnterior;
+    }
+
+    public void setEmailAnterior(String emailAnterior) {
+        this.emailAnterior = emailAnterior;
+    }
+
+    public String getEmailNuevo() {
+        return emailNuevo;
+    }
+
+    public void setEmailNuevo(String emailNuevo) {
+        this.emailNuevo = emailNuevo;
+    }
+}
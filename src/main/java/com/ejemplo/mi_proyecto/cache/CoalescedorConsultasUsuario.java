@@ -0,0 +1,124 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa (single-flight) las consultas concurrentes del mismo usuario
+ *
+ * Mientras una consulta por un ID o email está en curso, las peticiones idénticas esperan
+ * y reciben su resultado en lugar de lanzar otra consulta. Una petición posterior a una
+ * invalidación de la caché no se une a una consulta empezada antes de ella, para no
+ * devolver datos anteriores a una escritura ya confirmada.
+ *
+ * Cada petición que espera recibe su propia copia del usuario, nunca la instancia de quien hizo la
+ * consulta (puede seguir gestionada en su contexto de persistencia). Los contadores se publican
+ * también como la métrica usuarios.consultas.coalescidas (etiqueta por=id|email).
+ */
+@Component
+public class CoalescedorConsultasUsuario implements MeterBinder {
+
+    private final UsuarioCache usuarioCache;
+    private final CargaUnica porId = new CargaUnica();
+    private final CargaUnica porEmail = new CargaUnica();
+
+    public CoalescedorConsultasUsuario(UsuarioCache usuarioCache) {
+        this.usuarioCache = usuarioCache;
+    }
+
+    /**
+     * Ejecuta la consulta por ID, o espera la que ya esté en curso para el mismo ID
+     */
+    public Optional<Usuario> porId(Long id, Supplier<Optional<Usuario>> consulta) {
+        return porId.ejecutar(new Clave(id, usuarioCache.generacion()), consulta);
+    }
+
+    /**
+     * Ejecuta la consulta por email, o espera la que ya esté en curso para el mismo email
+     */
+    public Optional<Usuario> porEmail(String emailNormalizado, Supplier<Optional<Usuario>> consulta) {
+        return porEmail.ejecutar(new Clave(emailNormalizado, usuarioCache.generacion()), consulta);
+    }
+
+    /**
+     * Número de llamadas por ID que reutilizaron una consulta en curso
+     */
+    public long coalescidasPorId() {
+        return porId.coalescidas.sum();
+    }
+
+    /**
+     * Número de llamadas por email que reutilizaron una consulta en curso
+     */
+    public long coalescidasPorEmail() {
+        return porEmail.coalescidas.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contador(registry, "id", porId);
+        contador(registry, "email", porEmail);
+    }
+
+    private static void contador(MeterRegistry registry, String por, CargaUnica carga) {
+        FunctionCounter.builder("usuarios.consultas.coalescidas", carga.coalescidas, LongAdder::sum)
+                .description("Lecturas de usuarios que reutilizaron una consulta en curso")
+                .tag("por", por)
+                .register(registry);
+    }
+
+    private record Clave(Object valor, long generacion) {
+    }
+
+    private static final class CargaUnica {
+
+        private final ConcurrentHashMap<Clave, CompletableFuture<Optional<Usuario>>> enCurso =
+                new ConcurrentHashMap<>();
+        private final LongAdder coalescidas = new LongAdder();
+
+        Optional<Usuario> ejecutar(Clave clave, Supplier<Optional<Usuario>> consulta) {
+            CompletableFuture<Optional<Usuario>> propia = new CompletableFuture<>();
+            CompletableFuture<Optional<Usuario>> existente = enCurso.putIfAbsent(clave, propia);
+            if (existente != null) {
+                coalescidas.increment();
+                return esperar(existente).map(UsuarioCache::copiar);
+            }
+            try {
+                Optional<Usuario> resultado = consulta.get();
+                // Se comparte una instantánea: lo que haga después quien consultó no llega a los demás
+                propia.complete(resultado.map(UsuarioCache::copiar));
+                return resultado;
+            } catch (RuntimeException | Error e) {
+                propia.completeExceptionally(e);
+                throw e;
+            } finally {
+                enCurso.remove(clave, propia);
+            }
+        }
+
+        private static Optional<Usuario> esperar(CompletableFuture<Optional<Usuario>> consulta) {
+            try {
+                return consulta.join();
+            } catch (CompletionException e) {
+                // Propagar la misma excepción que recibió la petición que hizo la consulta
+                if (e.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                if (e.getCause() instanceof Error causa) {
+                    throw causa;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom escalable (Almeida et al.) para cadenas
+ *
+ * Responde "puede contener" (con una tasa de falsos positivos acotada) o "seguro que no".
+ * El primer sub-filtro usa la mitad de la tasa objetivo. Cuando el filtro actual alcanza su
+ * capacidad se añade otro el doble de grande y con la mitad de tasa, de modo que la tasa total
+ * (serie geométrica) sigue acotada por tasaFalsosPositivos aunque se inserten más elementos
+ * de los previstos.
+ *
+ * Seguro para hilos: los bits se guardan en AtomicLongArray, por lo que una consulta
+ * concurrente con una inserción ve la inserción completa o no la ve, nunca un estado a medias.
+ */
+public class FiltroBloomEscalable {
+
+    private static final double LN2 = Math.log(2);
+
+    private final double tasaFalsosPositivos;
+    private final List<SubFiltro> filtros = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacidadInicial Elementos previstos para el primer sub-filtro
+     * @param tasaFalsosPositivos Tasa de falsos positivos objetivo (ej: 0.01)
+     */
+    public FiltroBloomEscalable(long capacidadInicial, double tasaFalsosPositivos) {
+        if (capacidadInicial <= 0) {
+            throw new IllegalArgumentException("La capacidad inicial debe ser positiva");
+        }
+        if (tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+        }
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        filtros.add(new SubFiltro(capacidadInicial, tasaFalsosPositivos / 2));
+    }
+
+    /**
+     * Añade un elemento
+     */
+    public synchronized void agregar(String valor) {
+        long hash = hash64(valor);
+        SubFiltro actual = filtros.get(filtros.size() - 1);
+        if (actual.contiene(hash)) {
+            return;
+        }
+        if (actual.elementos.sum() >= actual.capacidad) {
+            actual = new SubFiltro(actual.capacidad * 2, actual.tasa / 2);
+            filtros.add(actual);
+        }
+        actual.agregar(hash);
+    }
+
+    /**
+     * @return false si el elemento seguro que no se añadió; true si puede haberse añadido
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash64(valor);
+        for (SubFiltro filtro : filtros) {
+            if (filtro.contiene(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Número de elementos añadidos (sin contar los que ya daban positivo al añadirlos)
+     */
+    public long elementos() {
+        long total = 0;
+        for (SubFiltro filtro : filtros) {
+            total += filtro.elementos.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Memoria ocupada por los bits de todos los sub-filtros
+     */
+    public long tamanoBytes() {
+        long total = 0;
+        for (SubFiltro filtro : filtros) {
+            total += filtro.bits.length() * 8L;
+        }
+        return total;
+    }
+
+    /**
+     * Tasa de falsos positivos objetivo configurada
+     */
+    public double tasaFalsosPositivos() {
+        return tasaFalsosPositivos;
+    }
+
+    /**
+     * Hash de 64 bits de la cadena (FNV-1a seguido del mezclador final de SplitMix64)
+     */
+    static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class SubFiltro {
+
+        private final long capacidad;
+        private final double tasa;
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+        private final LongAdder elementos = new LongAdder();
+
+        SubFiltro(long capacidad, double tasa) {
+            this.capacidad = capacidad;
+            this.tasa = tasa;
+            long m = (long) Math.ceil(-capacidad * Math.log(tasa) / (LN2 * LN2));
+            int palabras = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+            this.bits = new AtomicLongArray(palabras);
+            this.numBits = palabras * 64L;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacidad * LN2));
+        }
+
+        void agregar(long hash) {
+            // Doble hashing (Kirsch-Mitzenmacher): h1 + i·h2
+            long h1 = hash;
+            long h2 = mezclar(hash) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, numBits);
+                int palabra = (int) (bit >>> 6);
+                long mascara = 1L << bit;
+                bits.getAndAccumulate(palabra, mascara, (a, b) -> a | b);
+            }
+            elementos.increment();
+        }
+
+        boolean contiene(long hash) {
+            long h1 = hash;
+            long h2 = mezclar(hash) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
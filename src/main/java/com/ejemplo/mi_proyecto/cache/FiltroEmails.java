@@ -0,0 +1,228 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom en memoria con los emails (normalizados) existentes
+ *
+ * Permite responder "no existe" sin consultar la base de datos. Mientras no esté construido,
+ * o si pudo perder cambios de otros nodos, responde siempre "puede existir" y las consultas
+ * van a la base de datos como antes. Un filtro de Bloom no admite borrados: los emails
+ * eliminados siguen dando positivo hasta la siguiente reconstrucción periódica.
+ *
+ * Solo se construye mientras ListenerCambiosUsuario recibe los cambios de los demás nodos: sin esa
+ * escucha no vería los emails creados en otro nodo y los daría por inexistentes. Con las
+ * notificaciones deshabilitadas el filtro queda deshabilitado aunque usuarios.bloom.habilitado=true.
+ * En el modo fragmentado no existe: solo vería los emails del fragmento 0.
+ */
+@Component
+@ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "false", matchIfMissing = true)
+public class FiltroEmails {
+
+    private static final Logger logger = LogManager.getLogger(FiltroEmails.class);
+
+    // Capacidad mínima del filtro y margen sobre el número de usuarios al reconstruir
+    private static final long CAPACIDAD_MINIMA = 1024;
+    private static final double MARGEN_CRECIMIENTO = 1.25;
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transaccionLectura;
+    private final boolean habilitado;
+    private final double tasaFalsosPositivos;
+    // El filtro solo es fiable mientras se reciben los cambios de los demás nodos (LISTEN)
+    private volatile boolean escuchando;
+
+    private volatile FiltroBloomEscalable filtro;
+    // Emails registrados desde el inicio de la reconstrucción anterior. Se registran antes del
+    // commit, así que un email puede no estar aún visible cuando la reconstrucción recorre la
+    // tabla: estos conjuntos se vuelcan en el filtro nuevo para no perderlo
+    private Set<String> registradosCicloAnterior = ConcurrentHashMap.newKeySet();
+    private Set<String> registradosCicloActual = ConcurrentHashMap.newKeySet();
+    private final LongAdder consultasEvitadas = new LongAdder();
+    // Cambia al marcar el filtro como desactualizado: una reconstrucción empezada antes no se instala
+    private final AtomicLong epoca = new AtomicLong();
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    public FiltroEmails(UsuarioRepository usuarioRepository, PlatformTransactionManager transactionManager,
+                        @Value("${usuarios.bloom.habilitado:false}") boolean habilitado,
+                        @Value("${usuarios.bloom.tasa-falsos-positivos:0.01}") double tasaFalsosPositivos,
+                        @Value("${usuarios.cache.notificaciones.habilitadas:false}") boolean notificacionesHabilitadas) {
+        this.usuarioRepository = usuarioRepository;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.habilitado = habilitado && notificacionesHabilitadas;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        if (habilitado && !notificacionesHabilitadas) {
+            logger.warn("Filtro de emails deshabilitado: requiere usuarios.cache.notificaciones.habilitadas=true");
+        }
+    }
+
+    /**
+     * @param emailNormalizado Email ya normalizado
+     * @return false solo si es seguro que ningún usuario tiene ese email
+     */
+    public boolean puedeExistir(String emailNormalizado) {
+        FiltroBloomEscalable actual = filtro;
+        if (actual == null || actual.puedeContener(emailNormalizado)) {
+            return true;
+        }
+        consultasEvitadas.increment();
+        return false;
+    }
+
+    /**
+     * Registra un email nuevo (creación o cambio de email, en este nodo o en otro)
+     */
+    public synchronized void registrar(String emailNormalizado) {
+        FiltroBloomEscalable actual = filtro;
+        if (actual != null) {
+            actual.agregar(emailNormalizado);
+        }
+        registradosCicloActual.add(emailNormalizado);
+    }
+
+    /**
+     * Descarta el filtro porque pudo perder emails (ej: se cayó la escucha de cambios de otros nodos)
+     * Hasta la próxima reconstrucción todas las consultas van a la base de datos
+     */
+    public void marcarDesactualizado() {
+        epoca.incrementAndGet();
+        filtro = null;
+    }
+
+    /**
+     * Lanza una reconstrucción en segundo plano
+     */
+    public void reconstruirEnSegundoPlano() {
+        if (habilitado) {
+            CompletableFuture.runAsync(this::reconstruir);
+        }
+    }
+
+    /**
+     * La escucha de cambios de otros nodos está activa: ya se puede construir un filtro fiable
+     */
+    public void escuchaIniciada() {
+        escuchando = true;
+        reconstruirEnSegundoPlano();
+    }
+
+    /**
+     * Se perdió la escucha de cambios: el filtro deja de usarse hasta que se recupere
+     */
+    public void escuchaPerdida() {
+        escuchando = false;
+        marcarDesactualizado();
+    }
+
+    /**
+     * Reconstruye el filtro recorriendo la columna email; se ejecuta al arrancar y periódicamente
+     * para eliminar los falsos positivos que dejan los emails borrados o cambiados
+     */
+    @Scheduled(initialDelayString = "${usuarios.bloom.retraso-inicial:PT0S}",
+               fixedDelayString = "${usuarios.bloom.reconstruccion:PT1H}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        if (!escuchando) {
+            logger.debug("Filtro de emails no reconstruido: la escucha de cambios no está activa");
+            return;
+        }
+        reconstruccion.lock();
+        try {
+            reconstruirFiltro();
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private void reconstruirFiltro() {
+        long inicio = System.nanoTime();
+        long epocaInicial = epoca.get();
+        synchronized (this) {
+            registradosCicloAnterior = registradosCicloActual;
+            registradosCicloActual = ConcurrentHashMap.newKeySet();
+        }
+        try {
+            FiltroBloomEscalable nuevo = transaccionLectura.execute(estado -> {
+                long capacidad = Math.max(CAPACIDAD_MINIMA, (long) (usuarioRepository.count() * MARGEN_CRECIMIENTO));
+                FiltroBloomEscalable construido = new FiltroBloomEscalable(capacidad, tasaFalsosPositivos);
+                try (Stream<String> emails = usuarioRepository.streamEmails()) {
+                    emails.forEach(construido::agregar);
+                }
+                return construido;
+            });
+            synchronized (this) {
+                registradosCicloAnterior.forEach(nuevo::agregar);
+                registradosCicloActual.forEach(nuevo::agregar);
+                if (epoca.get() != epocaInicial) {
+                    logger.info("Filtro de emails descartado: se marcó como desactualizado durante la reconstrucción");
+                    return;
+                }
+                filtro = nuevo;
+            }
+            logger.info("Filtro de emails reconstruido: {} emails, {} bytes, {} ms",
+                    nuevo.elementos(), nuevo.tamanoBytes(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                registradosCicloActual.addAll(registradosCicloAnterior);
+            }
+            logger.warn("No se pudo reconstruir el filtro de emails: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el filtro está habilitado por configuración, con las notificaciones entre nodos
+     * (aunque aún no esté construido)
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Indica si el filtro está construido y en uso
+     */
+    public boolean listo() {
+        return filtro != null;
+    }
+
+    /**
+     * Emails que contiene el filtro (0 si no está construido)
+     */
+    public long elementos() {
+        FiltroBloomEscalable actual = filtro;
+        return actual == null ? 0 : actual.elementos();
+    }
+
+    /**
+     * Memoria ocupada por el filtro en bytes (0 si no está construido)
+     */
+    public long tamanoBytes() {
+        FiltroBloomEscalable actual = filtro;
+        return actual == null ? 0 : actual.tamanoBytes();
+    }
+
+    /**
+     * Consultas a la base de datos evitadas por respuestas negativas del filtro
+     */
+    public long consultasEvitadas() {
+        return consultasEvitadas.sum();
+    }
+}
@@ -0,0 +1,181 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Conjunto inmutable de pares (clave, ID) ordenado por los bytes UTF-8 de la clave
+ *
+ * Las claves van seguidas en un único byte[] y se localizan con un array de inicios: cada entrada
+ * ocupa sus bytes UTF-8 más 12 bytes (inicio int + ID long), sin un objeto por entrada, así que
+ * el recolector de basura solo ve tres arrays de primitivos. La búsqueda por prefijo es una
+ * búsqueda binaria sobre los bytes seguida de un recorrido secuencial de las coincidencias.
+ */
+final class IndiceOrdenadoUtf8 {
+
+    static final IndiceOrdenadoUtf8 VACIO = new Constructor(0).construir();
+
+    private final byte[] claves;
+    // inicios[i] es el primer byte de la clave i; inicios[tamano] es el final de la última
+    private final int[] inicios;
+    private final long[] ids;
+
+    private IndiceOrdenadoUtf8(byte[] claves, int[] inicios, long[] ids) {
+        this.claves = claves;
+        this.inicios = inicios;
+        this.ids = ids;
+    }
+
+    int tamano() {
+        return ids.length;
+    }
+
+    /**
+     * Posición de la primera clave mayor o igual que el prefijo (tamano() si no hay ninguna)
+     */
+    int primeraPosicion(byte[] prefijo) {
+        int bajo = 0;
+        int alto = ids.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (Arrays.compareUnsigned(claves, inicios[medio], inicios[medio + 1], prefijo, 0, prefijo.length) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    boolean empiezaPor(int posicion, byte[] prefijo) {
+        int inicio = inicios[posicion];
+        return inicios[posicion + 1] - inicio >= prefijo.length
+                && Arrays.equals(claves, inicio, inicio + prefijo.length, prefijo, 0, prefijo.length);
+    }
+
+    String clave(int posicion) {
+        return new String(claves, inicios[posicion], inicios[posicion + 1] - inicios[posicion], StandardCharsets.UTF_8);
+    }
+
+    long id(int posicion) {
+        return ids[posicion];
+    }
+
+    /**
+     * Memoria ocupada por los tres arrays (sin cabeceras de objeto)
+     */
+    long tamanoBytes() {
+        return claves.length + inicios.length * 4L + ids.length * 8L;
+    }
+
+    /**
+     * Acumula las entradas en arrays que crecen por duplicación y las ordena al construir
+     * No es seguro para hilos
+     */
+    static final class Constructor {
+
+        private byte[] claves;
+        private int[] inicios;
+        private long[] ids;
+        private int tamano;
+        private int bytes;
+
+        Constructor(int capacidadPrevista) {
+            int capacidad = Math.max(16, capacidadPrevista);
+            this.claves = new byte[capacidad * 24];
+            this.inicios = new int[capacidad + 1];
+            this.ids = new long[capacidad];
+        }
+
+        Constructor agregar(String clave, long id) {
+            byte[] utf8 = clave.getBytes(StandardCharsets.UTF_8);
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, tamano * 2);
+                inicios = Arrays.copyOf(inicios, tamano * 2 + 1);
+            }
+            if (bytes + utf8.length > claves.length) {
+                claves = Arrays.copyOf(claves, Math.max(claves.length * 2, bytes + utf8.length));
+            }
+            System.arraycopy(utf8, 0, claves, bytes, utf8.length);
+            inicios[tamano] = bytes;
+            ids[tamano] = id;
+            bytes += utf8.length;
+            tamano++;
+            inicios[tamano] = bytes;
+            return this;
+        }
+
+        /**
+         * Ordena las entradas y las copia en arrays del tamaño justo
+         * Solo se usa memoria extra para dos permutaciones de int (8 bytes por entrada)
+         */
+        IndiceOrdenadoUtf8 construir() {
+            int[] orden = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                orden[i] = i;
+            }
+            if (!ordenado()) {
+                ordenar(orden, new int[tamano], 0, tamano);
+            }
+            byte[] clavesOrdenadas = new byte[bytes];
+            int[] iniciosOrdenados = new int[tamano + 1];
+            long[] idsOrdenados = new long[tamano];
+            int posicion = 0;
+            for (int i = 0; i < tamano; i++) {
+                int origen = orden[i];
+                int longitud = inicios[origen + 1] - inicios[origen];
+                System.arraycopy(claves, inicios[origen], clavesOrdenadas, posicion, longitud);
+                iniciosOrdenados[i] = posicion;
+                idsOrdenados[i] = ids[origen];
+                posicion += longitud;
+            }
+            iniciosOrdenados[tamano] = posicion;
+            return new IndiceOrdenadoUtf8(clavesOrdenadas, iniciosOrdenados, idsOrdenados);
+        }
+
+        private boolean ordenado() {
+            for (int i = 1; i < tamano; i++) {
+                if (comparar(i - 1, i) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int comparar(int a, int b) {
+            return Arrays.compareUnsigned(claves, inicios[a], inicios[a + 1], claves, inicios[b], inicios[b + 1]);
+        }
+
+        // Mergesort estable de la permutación (Arrays.sort no admite comparador para int[])
+        private void ordenar(int[] orden, int[] auxiliar, int desde, int hasta) {
+            if (hasta - desde <= 16) {
+                for (int i = desde + 1; i < hasta; i++) {
+                    int actual = orden[i];
+                    int j = i - 1;
+                    while (j >= desde && comparar(orden[j], actual) > 0) {
+                        orden[j + 1] = orden[j];
+                        j--;
+                    }
+                    orden[j + 1] = actual;
+                }
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            ordenar(orden, auxiliar, desde, medio);
+            ordenar(orden, auxiliar, medio, hasta);
+            if (comparar(orden[medio - 1], orden[medio]) <= 0) {
+                return;
+            }
+            System.arraycopy(orden, desde, auxiliar, desde, hasta - desde);
+            int izquierda = desde;
+            int derecha = medio;
+            for (int i = desde; i < hasta; i++) {
+                if (derecha >= hasta || (izquierda < medio && comparar(auxiliar[izquierda], auxiliar[derecha]) <= 0)) {
+                    orden[i] = auxiliar[izquierda++];
+                } else {
+                    orden[i] = auxiliar[derecha++];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.datasource.LecturaPrimario;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
+import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de emails (normalizados) para el autocompletado por prefijo
+ *
+ * La base es un IndiceOrdenadoUtf8 inmutable que se construye recorriendo la tabla. Los cambios
+ * posteriores (de este nodo tras el commit, o de otros por LISTEN) se guardan aparte con el email
+ * actual de cada ID afectado, que prevalece sobre la base; al reconstruir se descartan los que
+ * ya recoge la nueva base. Mientras no esté construido (o si está deshabilitado) sugerir()
+ * devuelve empty y las sugerencias se piden a la base de datos. En el modo fragmentado no existe:
+ * solo vería los emails del fragmento 0.
+ */
+@Component
+@ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "false", matchIfMissing = true)
+public class IndiceTypeaheadEmails {
+
+    private static final Logger logger = LogManager.getLogger(IndiceTypeaheadEmails.class);
+
+    private static final Comparator<SugerenciaEmail> POR_BYTES_UTF8 = (a, b) -> Arrays.compareUnsigned(
+            a.getEmail().getBytes(StandardCharsets.UTF_8), b.getEmail().getBytes(StandardCharsets.UTF_8));
+
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transaccionLectura;
+    private final boolean habilitado;
+    private final int maximoCambios;
+
+    private volatile IndiceOrdenadoUtf8 base;
+    // Email actual de cada ID modificado desde que se empezó a construir la base (vacío si se eliminó)
+    private final Map<Long, Cambio> cambiosPorId = new ConcurrentHashMap<>();
+    // Emails dados de alta o cambiados desde entonces, ordenados para buscar por prefijo
+    private final ConcurrentSkipListMap<String, Long> altas = new ConcurrentSkipListMap<>();
+    private long secuencia;
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private final AtomicBoolean reconstruccionPendiente = new AtomicBoolean();
+
+    public IndiceTypeaheadEmails(UsuarioRepository usuarioRepository, PlatformTransactionManager transactionManager,
+                                 @Value("${usuarios.typeahead.habilitado:false}") boolean habilitado,
+                                 @Value("${usuarios.typeahead.maximo-cambios:100000}") int maximoCambios) {
+        this.usuarioRepository = usuarioRepository;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.maximoCambios = maximoCambios;
+    }
+
+    /**
+     * Sugerencias cuyo email empieza por el prefijo, en orden de bytes UTF-8
+     * @param prefijoNormalizado Prefijo ya normalizado (minúsculas, sin espacios)
+     * @return empty si el índice no está construido
+     */
+    public Optional<List<SugerenciaEmail>> sugerir(String prefijoNormalizado, int limite) {
+        IndiceOrdenadoUtf8 actual = base;
+        if (actual == null) {
+            return Optional.empty();
+        }
+        List<SugerenciaEmail> candidatas = new ArrayList<>(limite * 2);
+        byte[] prefijo = prefijoNormalizado.getBytes(StandardCharsets.UTF_8);
+        int encontradas = 0;
+        for (int i = actual.primeraPosicion(prefijo); i < actual.tamano() && encontradas < limite
+                && actual.empiezaPor(i, prefijo); i++) {
+            // Los IDs modificados después de construir la base se toman de los cambios
+            if (!cambiosPorId.containsKey(actual.id(i))) {
+                candidatas.add(new SugerenciaEmail(actual.id(i), actual.clave(i)));
+                encontradas++;
+            }
+        }
+        int deCambios = 0;
+        for (Map.Entry<String, Long> alta : altas.tailMap(prefijoNormalizado).entrySet()) {
+            if (deCambios == limite || !alta.getKey().startsWith(prefijoNormalizado)) {
+                break;
+            }
+            candidatas.add(new SugerenciaEmail(alta.getValue(), alta.getKey()));
+            deCambios++;
+        }
+        if (deCambios > 0) {
+            candidatas.sort(POR_BYTES_UTF8);
+        }
+        return Optional.of(candidatas.size() > limite ? candidatas.subList(0, limite) : candidatas);
+    }
+
+    /**
+     * Indica si el índice está habilitado por configuración (aunque aún no esté construido)
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Aplica un cambio de usuario: el email nuevo si lo hay; si no, el usuario ya no existe
+     * Dentro de una transacción se aplica solo si confirma, y después del commit
+     */
+    public void aplicar(CambioUsuario cambio) {
+        if (!habilitado) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicarAhora(cambio.getId(), cambio.getEmailNuevo());
+                }
+            });
+        } else {
+            aplicarAhora(cambio.getId(), cambio.getEmailNuevo());
+        }
+    }
+
+    synchronized void aplicarAhora(Long id, String emailNuevo) {
+        Cambio anterior = cambiosPorId.put(id, new Cambio(emailNuevo, ++secuencia));
+        if (anterior != null && anterior.email() != null) {
+            altas.remove(anterior.email(), id);
+        }
+        if (emailNuevo != null) {
+            altas.put(emailNuevo, id);
+        }
+        if (base != null && cambiosPorId.size() > maximoCambios && reconstruccionPendiente.compareAndSet(false, true)) {
+            reconstruirEnSegundoPlano();
+        }
+    }
+
+    /**
+     * Lanza una reconstrucción en segundo plano
+     */
+    public void reconstruirEnSegundoPlano() {
+        if (habilitado) {
+            CompletableFuture.runAsync(this::reconstruir);
+        }
+    }
+
+    /**
+     * Reconstruye la base recorriendo los pares ID/email; se ejecuta al arrancar y periódicamente
+     * para que los cambios acumulados no crezcan sin límite
+     */
+    @Scheduled(initialDelayString = "${usuarios.typeahead.retraso-inicial:PT0S}",
+               fixedDelayString = "${usuarios.typeahead.reconstruccion:PT1H}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        reconstruccion.lock();
+        try {
+            reconstruccionPendiente.set(false);
+            reconstruirBase();
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private void reconstruirBase() {
+        long inicio = System.nanoTime();
+        long secuenciaInicial;
+        synchronized (this) {
+            secuenciaInicial = secuencia;
+        }
+        try {
+            // Los cambios aplicados a partir de aquí pueden no verse en el recorrido: se conservan.
+            // Los anteriores se descartan, así que se lee del primario (una réplica podría no tenerlos)
+            IndiceOrdenadoUtf8 nueva = LecturaPrimario.ejecutar(() -> transaccionLectura.execute(estado -> {
+                IndiceOrdenadoUtf8.Constructor constructor =
+                        new IndiceOrdenadoUtf8.Constructor((int) Math.min(Integer.MAX_VALUE / 32, usuarioRepository.count()));
+                try (Stream<SugerenciaEmail> filas = usuarioRepository.streamIdsYEmails()) {
+                    filas.forEach(fila -> constructor.agregar(fila.getEmail(), fila.getId()));
+                }
+                return constructor.construir();
+            }));
+            synchronized (this) {
+                base = nueva;
+                cambiosPorId.entrySet().removeIf(entrada -> {
+                    Cambio cambio = entrada.getValue();
+                    if (cambio.secuencia() > secuenciaInicial) {
+                        return false;
+                    }
+                    if (cambio.email() != null) {
+                        altas.remove(cambio.email(), entrada.getKey());
+                    }
+                    return true;
+                });
+            }
+            logger.info("Índice de autocompletado reconstruido: {} emails, {} bytes, {} ms",
+                    nueva.tamano(), nueva.tamanoBytes(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo reconstruir el índice de autocompletado: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indica si el índice está construido y en uso
+     */
+    public boolean listo() {
+        return base != null;
+    }
+
+    /**
+     * Emails en la base (0 si no está construida)
+     */
+    public long elementos() {
+        IndiceOrdenadoUtf8 actual = base;
+        return actual == null ? 0 : actual.tamano();
+    }
+
+    /**
+     * Memoria ocupada por la base en bytes (0 si no está construida)
+     */
+    public long tamanoBytes() {
+        IndiceOrdenadoUtf8 actual = base;
+        return actual == null ? 0 : actual.tamanoBytes();
+    }
+
+    /**
+     * Cambios aplicados desde la última reconstrucción
+     */
+    public int cambiosPendientes() {
+        return cambiosPorId.size();
+    }
+
+    private record Cambio(String email, long secuencia) {
+    }
+}
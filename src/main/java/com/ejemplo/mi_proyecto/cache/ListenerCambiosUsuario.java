@@ -0,0 +1,187 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Escucha el canal de cambios de usuarios (LISTEN) e invalida la caché local
+ * (y mantiene al día el filtro de emails y el índice de autocompletado, si existen: no en el modo fragmentado)
+ *
+ * Usa una conexión dedicada fuera del pool. Si la conexión se pierde, las notificaciones
+ * de ese intervalo no llegan: por eso se vacía la caché completa al perderla y al reconectar.
+ */
+@Component
+@ConditionalOnProperty(name = "usuarios.cache.notificaciones.habilitadas", havingValue = "true")
+public class ListenerCambiosUsuario implements SmartLifecycle {
+
+    private static final Logger logger = LogManager.getLogger(ListenerCambiosUsuario.class);
+
+    private static final int ESPERA_NOTIFICACIONES_MS = 5000;
+    private static final long ESPERA_MAXIMA_RECONEXION_MS = 30_000;
+
+    private final UsuarioCache usuarioCache;
+    private final ObjectProvider<FiltroEmails> filtroEmails;
+    private final ObjectProvider<IndiceTypeaheadEmails> indiceTypeahead;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final String canal;
+
+    private volatile boolean activo;
+    private volatile Connection conexion;
+    private Thread hilo;
+
+    public ListenerCambiosUsuario(UsuarioCache usuarioCache, ObjectProvider<FiltroEmails> filtroEmails,
+                                  ObjectProvider<IndiceTypeaheadEmails> indiceTypeahead,
+                                  DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+                                  @Value("${usuarios.cache.notificaciones.canal:usuarios_cambios}") String canal) {
+        this.usuarioCache = usuarioCache;
+        this.filtroEmails = filtroEmails;
+        this.indiceTypeahead = indiceTypeahead;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.canal = canal;
+    }
+
+    @Override
+    public void start() {
+        activo = true;
+        hilo = new Thread(this::escuchar, "usuarios-cache-listener");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        filtroEmails.ifAvailable(FiltroEmails::escuchaPerdida);
+        cerrarConexion();
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    /**
+     * Bucle principal: conecta, escucha y reconecta con espera exponencial ante fallos
+     */
+    private void escuchar() {
+        long espera = 1000;
+        boolean primeraConexion = true;
+        while (activo) {
+            try {
+                conectar();
+                // Lo ocurrido mientras no escuchábamos se perdió: empezar con la caché vacía
+                // y reconstruir el filtro de emails ahora que ya no se pierden cambios
+                usuarioCache.invalidarTodo();
+                filtroEmails.ifAvailable(FiltroEmails::escuchaIniciada);
+                if (!primeraConexion) {
+                    // El índice de autocompletado se construye al arrancar; tras un corte se rehace
+                    indiceTypeahead.ifAvailable(IndiceTypeaheadEmails::reconstruirEnSegundoPlano);
+                }
+                primeraConexion = false;
+                espera = 1000;
+                recibirNotificaciones();
+            } catch (SQLException | RuntimeException e) {
+                if (!activo) {
+                    break;
+                }
+                logger.warn("Conexión LISTEN del canal {} perdida: {}. Se vacía la caché de usuarios",
+                        canal, e.getMessage());
+                usuarioCache.invalidarTodo();
+                filtroEmails.ifAvailable(FiltroEmails::escuchaPerdida);
+            } finally {
+                cerrarConexion();
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_RECONEXION_MS);
+        }
+    }
+
+    private void conectar() throws SQLException {
+        conexion = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = conexion.createStatement()) {
+            statement.execute("LISTEN \"" + canal.replace("\"", "\"\"") + "\"");
+        }
+        logger.info("Escuchando cambios de usuarios en el canal {}", canal);
+    }
+
+    private void recibirNotificaciones() throws SQLException {
+        PGConnection pgConnection = conexion.unwrap(PGConnection.class);
+        while (activo) {
+            PGNotification[] notificaciones = pgConnection.getNotifications(ESPERA_NOTIFICACIONES_MS);
+            if (notificaciones == null || notificaciones.length == 0) {
+                // Sin tráfico: comprobar que la conexión sigue viva
+                if (!conexion.isValid(ESPERA_NOTIFICACIONES_MS / 1000)) {
+                    throw new SQLException("La conexión LISTEN no responde");
+                }
+                continue;
+            }
+            for (PGNotification notificacion : notificaciones) {
+                procesar(notificacion.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Aplica una notificación recibida a la caché local
+     */
+    void procesar(String payload) {
+        try {
+            CambioUsuario cambio = objectMapper.readValue(payload, CambioUsuario.class);
+            if (cambio.getId() == null) {
+                throw new IllegalArgumentException("Cambio sin ID");
+            }
+            usuarioCache.invalidar(cambio.getId());
+            if (cambio.getEmailNuevo() != null) {
+                filtroEmails.ifAvailable(filtro -> filtro.registrar(cambio.getEmailNuevo()));
+            }
+            indiceTypeahead.ifAvailable(indice -> indice.aplicar(cambio));
+        } catch (IOException | IllegalArgumentException e) {
+            // Ante un mensaje ilegible, lo seguro es no conservar nada
+            logger.warn("Notificación de cambio no válida: {}. Se vacía la caché de usuarios", payload);
+            usuarioCache.invalidarTodo();
+            filtroEmails.ifAvailable(filtro -> {
+                filtro.marcarDesactualizado();
+                filtro.reconstruirEnSegundoPlano();
+            });
+            indiceTypeahead.ifAvailable(IndiceTypeaheadEmails::reconstruirEnSegundoPlano);
+        }
+    }
+
+    private void cerrarConexion() {
+        Connection actual = conexion;
+        conexion = null;
+        if (actual != null) {
+            try {
+                actual.close();
+            } catch (SQLException e) {
+                logger.debug("Error al cerrar la conexión LISTEN: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Publica los cambios de usuarios en un canal de PostgreSQL (NOTIFY)
+ *
+ * pg_notify se ejecuta dentro de la transacción de escritura: PostgreSQL solo entrega
+ * la notificación si la transacción confirma, y justo después del commit.
+ */
+@Component
+public class NotificadorCambiosUsuario {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+    private final String canal;
+
+    public NotificadorCambiosUsuario(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                     @Value("${usuarios.cache.notificaciones.habilitadas:false}") boolean habilitado,
+                                     @Value("${usuarios.cache.notificaciones.canal:usuarios_cambios}") String canal) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.canal = canal;
+    }
+
+    /**
+     * Notifica un cambio a todos los nodos que escuchan el canal (incluido este)
+     */
+    public void notificar(CambioUsuario cambio) {
+        if (!habilitado) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, canal, serializar(cambio));
+    }
+
+    /**
+     * Notifica varios cambios con una sola sentencia (una notificación por cambio)
+     */
+    public void notificarTodos(Collection<CambioUsuario> cambios) {
+        if (!habilitado || cambios.isEmpty()) {
+            return;
+        }
+        String[] payloads = new String[cambios.size()];
+        int i = 0;
+        for (CambioUsuario cambio : cambios) {
+            payloads[i++] = serializar(cambio);
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, p) FROM unnest(?::text[]) AS p", rs -> null, canal, payloads);
+    }
+
+    private String serializar(CambioUsuario cambio) {
+        try {
+            return objectMapper.writeValueAsString(cambio);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio de usuario", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.dto.EstadisticasCache;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché de lectura en memoria para usuarios, acotada por tamaño y por tiempo (Caffeine, W-TinyLFU)
+ *
+ * Guarda los usuarios por ID y un índice email → ID. El índice por email solo es un puntero:
+ * al leerlo se comprueba que el usuario cacheado siga teniendo ese email, por lo que basta
+ * con invalidar por ID cuando un usuario cambia o se elimina.
+ */
+@Component
+public class UsuarioCache {
+
+    private final Cache<Long, Usuario> porId;
+    private final Cache<String, Long> idPorEmail;
+
+    // Se incrementa en cada invalidación; una lectura de la base de datos que empezó antes
+    // de una invalidación no debe dejar su resultado (posiblemente obsoleto) en la caché
+    private final AtomicLong generacion = new AtomicLong();
+    // Con réplicas de lectura, segunda invalidación diferida (null si no hay)
+    private final Executor reinvalidacion;
+
+    public UsuarioCache(long tamanoMaximo, Duration ttl) {
+        this(tamanoMaximo, ttl, Duration.ZERO);
+    }
+
+    /**
+     * Con réplicas de lectura, cada invalidación se repite pasado retraso-maximo + comprobacion: hasta
+     * entonces una réplica aún disponible puede no tener la escritura, y su lectura quedaría en la caché
+     */
+    @Autowired
+    public UsuarioCache(@Value("${usuarios.cache.tamano-maximo:10000}") long tamanoMaximo,
+                        @Value("${usuarios.cache.ttl:10m}") Duration ttl,
+                        @Value("${usuarios.bd.replicas.habilitado:false}") boolean replicas,
+                        @Value("${usuarios.bd.replicas.retraso-maximo:PT10S}") Duration retrasoMaximo,
+                        @Value("${usuarios.bd.replicas.comprobacion:PT5S}") Duration comprobacion) {
+        this(tamanoMaximo, ttl, replicas ? retrasoMaximo.plus(comprobacion) : Duration.ZERO);
+    }
+
+    /**
+     * @param reinvalidacion Si es positiva, cada invalidación se repite pasado ese tiempo: una lectura
+     *                       de una réplica con retraso puede cachear el estado previo a la escritura
+     */
+    public UsuarioCache(long tamanoMaximo, Duration ttl, Duration reinvalidacion) {
+        this.reinvalidacion = reinvalidacion.isZero() || reinvalidacion.isNegative() ? null
+                : CompletableFuture.delayedExecutor(reinvalidacion.toMillis(), TimeUnit.MILLISECONDS);
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idPorEmail = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Busca un usuario por ID
+     * @return Copia del usuario cacheado o empty si no está en caché
+     */
+    public Optional<Usuario> obtenerPorId(Long id) {
+        return Optional.ofNullable(porId.getIfPresent(id)).map(UsuarioCache::copiar);
+    }
+
+    /**
+     * Versión del usuario cacheado, sin copiar la entidad
+     * @return Versión o empty si no está en caché
+     */
+    public Optional<Long> versionPorId(Long id) {
+        Usuario usuario = porId.getIfPresent(id);
+        return usuario == null ? Optional.empty() : Optional.ofNullable(usuario.getVersion());
+    }
+
+    /**
+     * Busca un usuario por email
+     * @param emailNormalizado Email ya normalizado
+     * @return Copia del usuario cacheado o empty si no está en caché
+     */
+    public Optional<Usuario> obtenerPorEmail(String emailNormalizado) {
+        Long id = idPorEmail.getIfPresent(emailNormalizado);
+        if (id == null) {
+            return Optional.empty();
+        }
+        Usuario usuario = porId.getIfPresent(id);
+        if (usuario == null || !emailNormalizado.equals(usuario.getEmail())) {
+            return Optional.empty();
+        }
+        return Optional.of(copiar(usuario));
+    }
+
+    /**
+     * Generación actual; debe leerse antes de consultar la base de datos y pasarse a guardar()
+     */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    /**
+     * Guarda un usuario leído de la base de datos
+     * @param usuario Usuario leído
+     * @param generacionLeida Valor de generacion() obtenido antes de la consulta
+     */
+    public void guardar(Usuario usuario, long generacionLeida) {
+        porId.put(usuario.getId(), copiar(usuario));
+        idPorEmail.put(usuario.getEmail(), usuario.getId());
+        // Si hubo una invalidación mientras se leía, el valor puede ser anterior a ella
+        if (generacion.get() != generacionLeida) {
+            porId.invalidate(usuario.getId());
+        }
+    }
+
+    /**
+     * Invalida un usuario ahora y, si hay una transacción activa, de nuevo al terminar,
+     * para que ninguna lectura concurrente deje en caché el estado previo al commit
+     */
+    public void invalidar(Long id) {
+        generacion.incrementAndGet();
+        porId.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generacion.incrementAndGet();
+                    porId.invalidate(id);
+                    reinvalidar(() -> porId.invalidate(id));
+                }
+            });
+        } else {
+            reinvalidar(() -> porId.invalidate(id));
+        }
+    }
+
+    /**
+     * Vacía por completo la caché
+     */
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        porId.invalidateAll();
+        idPorEmail.invalidateAll();
+        reinvalidar(porId::invalidateAll);
+    }
+
+    private void reinvalidar(Runnable invalidacion) {
+        if (reinvalidacion != null) {
+            reinvalidacion.execute(() -> {
+                generacion.incrementAndGet();
+                invalidacion.run();
+            });
+        }
+    }
+
+    /**
+     * Contadores de la caché por ID
+     */
+    public EstadisticasCache estadisticasPorId() {
+        return estadisticas(porId);
+    }
+
+    /**
+     * Contadores del índice por email
+     */
+    public EstadisticasCache estadisticasPorEmail() {
+        return estadisticas(idPorEmail);
+    }
+
+    private static EstadisticasCache estadisticas(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new EstadisticasCache(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                cache.estimatedSize());
+    }
+
+    /**
+     * Las entidades son mutables: la caché nunca comparte su instancia con quien la usa
+     */
+    static Usuario copiar(Usuario usuario) {
+        Usuario copia = new Usuario(usuario.getNombre(), usuario.getEmail(), usuario.getTelefono());
+        copia.setId(usuario.getId());
+        copia.setVersion(usuario.getVersion());
+        return copia;
+    }
+}
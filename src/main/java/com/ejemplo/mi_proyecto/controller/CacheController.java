@@ -0,0 +1,95 @@
+package com.ejemplo.mi_proyecto.controller;
+
+import com.ejemplo.mi_proyecto.cache.CoalescedorConsultasUsuario;
+import com.ejemplo.mi_proyecto.cache.FiltroEmails;
+import com.ejemplo.mi_proyecto.cache.IndiceTypeaheadEmails;
+import com.ejemplo.mi_proyecto.cache.UsuarioCache;
+import com.ejemplo.mi_proyecto.dto.EstadisticasCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Controlador REST de consulta para las cachés en memoria
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final UsuarioCache usuarioCache;
+    private final CoalescedorConsultasUsuario coalescedor;
+    // No existen en el modo fragmentado
+    private final ObjectProvider<FiltroEmails> filtroEmails;
+    private final ObjectProvider<IndiceTypeaheadEmails> indiceTypeahead;
+
+    @Autowired
+    public CacheController(UsuarioCache usuarioCache, CoalescedorConsultasUsuario coalescedor,
+                           ObjectProvider<FiltroEmails> filtroEmails, ObjectProvider<IndiceTypeaheadEmails> indiceTypeahead) {
+        this.usuarioCache = usuarioCache;
+        this.coalescedor = coalescedor;
+        this.filtroEmails = filtroEmails;
+        this.indiceTypeahead = indiceTypeahead;
+    }
+
+    /**
+     * GET /api/cache/usuarios - Aciertos, fallos y expulsiones de la caché de usuarios
+     */
+    @GetMapping("/usuarios")
+    public ResponseEntity<Map<String, EstadisticasCache>> obtenerEstadisticasUsuarios() {
+        Map<String, EstadisticasCache> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("porId", usuarioCache.estadisticasPorId());
+        estadisticas.put("porEmail", usuarioCache.estadisticasPorEmail());
+        return ResponseEntity.ok(estadisticas);
+    }
+
+    /**
+     * GET /api/cache/usuarios/coalescidas - Llamadas que reutilizaron una consulta ya en curso
+     */
+    @GetMapping("/usuarios/coalescidas")
+    public ResponseEntity<Map<String, Long>> obtenerConsultasCoalescidas() {
+        Map<String, Long> coalescidas = new LinkedHashMap<>();
+        coalescidas.put("porId", coalescedor.coalescidasPorId());
+        coalescidas.put("porEmail", coalescedor.coalescidasPorEmail());
+        return ResponseEntity.ok(coalescidas);
+    }
+
+    /**
+     * GET /api/cache/emails - Estado del filtro de Bloom de emails (404 en el modo fragmentado)
+     */
+    @GetMapping("/emails")
+    public ResponseEntity<Map<String, Object>> obtenerEstadoFiltroEmails() {
+        FiltroEmails filtroEmails = this.filtroEmails.getIfAvailable();
+        if (filtroEmails == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("listo", filtroEmails.listo());
+        estado.put("elementos", filtroEmails.elementos());
+        estado.put("tamanoBytes", filtroEmails.tamanoBytes());
+        estado.put("consultasEvitadas", filtroEmails.consultasEvitadas());
+        return ResponseEntity.ok(estado);
+    }
+
+    /**
+     * GET /api/cache/typeahead - Estado del índice de autocompletado de emails (404 en el modo fragmentado)
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<Map<String, Object>> obtenerEstadoTypeahead() {
+        IndiceTypeaheadEmails indiceTypeahead = this.indiceTypeahead.getIfAvailable();
+        if (indiceTypeahead == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("listo", indiceTypeahead.listo());
+        estado.put("elementos", indiceTypeahead.elementos());
+        estado.put("tamanoBytes", indiceTypeahead.tamanoBytes());
+        estado.put("cambiosPendientes", indiceTypeahead.cambiosPendientes());
+        return ResponseEntity.ok(estado);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ejemplo.mi_proyecto.controller;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+
+import java.util.List;
+
+/**
+ * ETags fuertes de usuarios y páginas de usuarios, derivados de la columna version
+ *
+ * El JSON de un usuario depende solo de su estado, y cada cambio incrementa su versión,
+ * así que "id-version" identifica la representación sin tener que serializarla.
+ */
+final class EtagsUsuario {
+
+    private EtagsUsuario() {
+    }
+
+    /**
+     * ETag de un usuario (incluye el ID: /email/{email} puede pasar a devolver otro usuario)
+     */
+    static String deUsuario(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static String deUsuario(Usuario usuario) {
+        return deUsuario(usuario.getId(), usuario.getVersion());
+    }
+
+    /**
+     * ETag de una lista o página: hash de los pares ID/versión en orden y del cursor siguiente
+     */
+    static String deLista(List<Usuario> usuarios, String siguienteCursor) {
+        long hash = 0xcbf29ce484222325L;
+        for (Usuario usuario : usuarios) {
+            hash = mezclar(hash, usuario.getId() == null ? -1 : usuario.getId());
+            hash = mezclar(hash, usuario.getVersion() == null ? -1 : usuario.getVersion());
+        }
+        hash = mezclar(hash, siguienteCursor == null ? 0 : siguienteCursor.hashCode());
+        return "\"l" + usuarios.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Indica si la cabecera If-None-Match incluye el ETag (comparación débil, como exige RFC 9110)
+     * @param ifNoneMatch Valor de la cabecera (puede ser null)
+     */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versión que exige la cabecera If-Match para el usuario indicado
+     * If-Match usa comparación fuerte: los ETag débiles (W/) no cuentan
+     * @return Versión del primer ETag de ese usuario, o null si no hay ninguno
+     */
+    static Long versionDeIfMatch(String ifMatch, Long id) {
+        String prefijo = "\"" + id + "-";
+        for (String candidato : ifMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith(prefijo) && valor.endsWith("\"") && valor.length() > prefijo.length() + 1) {
+                try {
+                    return Long.parseLong(valor.substring(prefijo.length(), valor.length() - 1));
+                } catch (NumberFormatException e) {
+                    // No es un ETag de este servicio: se sigue buscando
+                }
+            }
+        }
+        return null;
+    }
+
+    // FNV-1a sobre los 8 bytes del valor
+    private static long mezclar(long hash, long valor) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (valor >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -1,12 +1,42 @@
 package com.ejemplo.mi_proyecto.controller;
 
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoConsultaLote;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.dto.ResultadoEliminacionLote;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
 import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.ejemplo.mi_proyecto.exception.CodigoError;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
 import com.ejemplo.mi_proyecto.service.UsuarioService;
+import com.ejemplo.mi_proyecto.service.impl.LimitesLote;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,28 +49,120 @@ import java.util.Optional;
 public class UsuarioController {
 
     private final UsuarioService usuarioService;
+    private final ObjectWriter usuarioWriter;
+    private final ObjectReader usuarioReader;
+    private final LimitesLote limitesLote;
+    // Exportaciones en hilos propios: no ocupan el applicationTaskExecutor compartido del resto de peticiones
+    // asíncronas y como mucho se leen a la vez usuarios.exportacion.hilos (las demás esperan en cola)
+    private final ThreadPoolTaskExecutor ejecutorExportacion;
+    private final Duration timeoutExportacion;
 
     @Autowired
-    public UsuarioController(UsuarioService usuarioService) {
+    public UsuarioController(UsuarioService usuarioService, ObjectMapper objectMapper, LimitesLote limitesLote,
+                             @Value("${usuarios.exportacion.hilos:4}") int hilosExportacion,
+                             @Value("${usuarios.exportacion.timeout:PT30M}") Duration timeoutExportacion) {
         this.usuarioService = usuarioService;
+        this.limitesLote = limitesLote;
+        this.timeoutExportacion = timeoutExportacion;
+        // No se publica como bean: un Executor más haría que Spring Boot no creara el applicationTaskExecutor
+        this.ejecutorExportacion = new ThreadPoolTaskExecutor();
+        ejecutorExportacion.setCorePoolSize(hilosExportacion);
+        ejecutorExportacion.setMaxPoolSize(hilosExportacion);
+        ejecutorExportacion.setThreadNamePrefix("usuarios-exportacion-");
+        ejecutorExportacion.initialize();
+        // Para NDJSON: no cerrar ni vaciar la salida tras cada fila, el buffer decide
+        this.usuarioWriter = objectMapper.writerFor(Usuario.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.usuarioReader = objectMapper.readerFor(Usuario.class);
     }
 
     /**
      * GET /api/usuarios - Obtener todos los usuarios
+     * Con If-None-Match igual al ETag se responde 304 sin serializar la lista
      */
     @GetMapping
     public ResponseEntity<List<Usuario>> obtenerTodosLosUsuarios() {
         List<Usuario> usuarios = usuarioService.obtenerTodosLosUsuarios();
-        return ResponseEntity.ok(usuarios);
+        return ResponseEntity.ok()
+                .eTag(EtagsUsuario.deLista(usuarios, null))
+                .body(usuarios);
+    }
+
+    /**
+     * GET /api/usuarios?limit=N&after={cursor} - Obtener una página de usuarios ordenada por ID
+     * El cursor de la siguiente página viene en "siguienteCursor" (null en la última página)
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PaginaUsuarios> obtenerUsuariosPaginados(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit") int limit) {
+        PaginaUsuarios pagina = usuarioService.obtenerUsuariosPaginados(after, limit);
+        return ResponseEntity.ok()
+                .eTag(EtagsUsuario.deLista(pagina.getUsuarios(), pagina.getSiguienteCursor()))
+                .body(pagina);
+    }
+
+    /**
+     * GET /api/usuarios/search?q=texto&offset=M&limit=N - Buscar por parte del nombre o del email
+     * Devuelve como mucho N usuarios (20 por defecto), los más relevantes primero, saltando los M primeros
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Usuario>> buscarUsuarios(
+            @RequestParam(name = "q", required = false) String q,
+            @RequestParam(name = "offset", defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(usuarioService.buscarUsuarios(q, offset, limit));
+    }
+
+    /**
+     * GET /api/usuarios/typeahead?prefix=texto&limit=N - Autocompletado de emails por prefijo
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<SugerenciaEmail>> sugerirEmails(
+            @RequestParam(name = "prefix", required = false) String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(usuarioService.sugerirEmails(prefix, limit));
+    }
+
+    /**
+     * GET /api/usuarios/export - Exportar todos los usuarios en formato NDJSON
+     * Las filas se escriben a medida que se leen, con memoria constante. Se responde de forma asíncrona con
+     * el timeout usuarios.exportacion.timeout en lugar del general de Spring MVC (30 s en Tomcat), que
+     * cortaría las exportaciones largas
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportarUsuarios(HttpServletResponse respuesta) {
+        respuesta.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return new WebAsyncTask<>(timeoutExportacion.toMillis(), ejecutorExportacion, () -> {
+            OutputStream buffer = new BufferedOutputStream(respuesta.getOutputStream(), 64 * 1024);
+            usuarioService.exportarUsuarios(usuario -> escribirLinea(buffer, usuario));
+            buffer.flush();
+            return null;
+        });
     }
 
     /**
      * GET /api/usuarios/{id} - Obtener usuario por ID
+     * Responde con ETag; si If-None-Match coincide, 304 sin cuerpo
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Usuario> obtenerUsuarioPorId(@PathVariable Long id) {
+    public ResponseEntity<Usuario> obtenerUsuarioPorId(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Con la versión en caché se responde 304 sin copiar ni serializar la entidad
+        if (ifNoneMatch != null) {
+            Optional<Long> version = usuarioService.obtenerVersionEnCache(id);
+            if (version.isPresent()) {
+                String etag = EtagsUsuario.deUsuario(id, version.get());
+                if (EtagsUsuario.coincide(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+        }
         Optional<Usuario> usuario = usuarioService.obtenerUsuarioPorId(id);
-        return usuario.map(ResponseEntity::ok)
+        // Sin caché, Spring compara el ETag con If-None-Match y responde 304 sin serializar
+        return usuario.map(UsuarioController::conEtag)
                      .orElse(ResponseEntity.notFound().build());
     }
 
@@ -50,7 +172,7 @@ public class UsuarioController {
     @GetMapping("/email/{email}")
     public ResponseEntity<Usuario> obtenerUsuarioPorEmail(@PathVariable String email) {
         Optional<Usuario> usuario = usuarioService.obtenerUsuarioPorEmail(email);
-        return usuario.map(ResponseEntity::ok)
+        return usuario.map(UsuarioController::conEtag)
                      .orElse(ResponseEntity.notFound().build());
     }
 
@@ -60,17 +182,97 @@ public class UsuarioController {
     @PostMapping
     public ResponseEntity<Usuario> crearUsuario(@RequestBody Usuario usuario) {
         Usuario usuarioCreado = usuarioService.crearUsuario(usuario);
-        return ResponseEntity.status(HttpStatus.CREATED).body(usuarioCreado);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(EtagsUsuario.deUsuario(usuarioCreado))
+                .body(usuarioCreado);
+    }
+
+    /**
+     * POST /api/usuarios/batch - Crear varios usuarios a partir de un array JSON
+     * Devuelve un resultado por elemento (201, 400 o 409) en el mismo orden
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<ResultadoCreacion>> crearUsuarios(@RequestBody List<Usuario> usuarios) {
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(usuarios);
+        return ResponseEntity.ok(resultados);
+    }
+
+    /**
+     * POST /api/usuarios/batch - Crear usuarios a partir de un cuerpo NDJSON (un usuario por línea)
+     * El cuerpo se lee por partes y cada bloque se confirma en su propia transacción,
+     * por lo que admite importaciones de cualquier tamaño. Una línea que no es JSON válido detiene la
+     * importación: se crean las anteriores y esa línea recibe un resultado 400, así el cliente sabe
+     * exactamente qué se guardó y desde dónde reintentar
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<ResultadoCreacion>> crearUsuariosNdjson(InputStream cuerpo) throws IOException {
+        int maximoBloque = limitesLote.maximoCreacion();
+        List<ResultadoCreacion> resultados = new ArrayList<>();
+        List<Usuario> bloque = new ArrayList<>(maximoBloque);
+        try (MappingIterator<Usuario> lineas = usuarioReader.readValues(cuerpo)) {
+            while (lineas.hasNextValue()) {
+                bloque.add(lineas.nextValue());
+                if (bloque.size() == maximoBloque) {
+                    crearBloque(bloque, resultados);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            crearBloque(bloque, resultados);
+            resultados.add(new ResultadoCreacion(resultados.size(), HttpStatus.BAD_REQUEST.value(), null,
+                    CodigoError.NDJSON_LINEA_INVALIDA.mensaje()));
+            return ResponseEntity.ok(resultados);
+        }
+        crearBloque(bloque, resultados);
+        return ResponseEntity.ok(resultados);
+    }
+
+    /**
+     * POST /api/usuarios/bulk-get - Obtener varios usuarios a partir de un array JSON de IDs
+     */
+    @PostMapping(value = "/bulk-get", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoConsultaLote> obtenerUsuariosPorIds(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(usuarioService.obtenerUsuariosPorIds(ids));
+    }
+
+    /**
+     * POST /api/usuarios/bulk-delete - Eliminar varios usuarios a partir de un array JSON de IDs
+     * Responde qué IDs se eliminaron y cuáles no existían
+     */
+    @PostMapping(value = "/bulk-delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoEliminacionLote> eliminarUsuarios(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(usuarioService.eliminarUsuarios(ids));
     }
 
     /**
      * PUT /api/usuarios/{id} - Actualizar usuario existente
+     * Con If-Match (el ETag leído antes) solo se actualiza si nadie lo modificó entretanto;
+     * si no, 412. Sin If-Match, una modificación concurrente se detecta igualmente (409)
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Usuario> actualizarUsuario(@PathVariable Long id, 
-                                                   @RequestBody Usuario usuarioActualizado) {
-        Usuario usuario = usuarioService.actualizarUsuario(id, usuarioActualizado);
-        return ResponseEntity.ok(usuario);
+    public ResponseEntity<Usuario> actualizarUsuario(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Usuario usuarioActualizado) {
+        Usuario usuario;
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            usuario = usuarioService.actualizarUsuario(id, usuarioActualizado);
+        } else {
+            Long versionEsperada = EtagsUsuario.versionDeIfMatch(ifMatch, id);
+            if (versionEsperada == null) {
+                throw new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, id);
+            }
+            usuario = usuarioService.actualizarUsuario(id, usuarioActualizado, versionEsperada);
+        }
+        return conEtag(usuario);
+    }
+
+    /**
+     * PATCH /api/usuarios/{id} - Actualizar solo algunos campos (JSON Merge Patch)
+     * Los campos ausentes no cambian; un campo con null se borra
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Usuario> actualizarParcialmente(@PathVariable Long id, @RequestBody ParcheUsuario parche) {
+        return conEtag(usuarioService.actualizarParcialmente(id, parche));
     }
 
     /**
@@ -81,4 +283,48 @@ public class UsuarioController {
         usuarioService.eliminarUsuario(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * 200 con el usuario y su ETag
+     */
+    private static ResponseEntity<Usuario> conEtag(Usuario usuario) {
+        return ResponseEntity.ok()
+                .eTag(EtagsUsuario.deUsuario(usuario))
+                .body(usuario);
+    }
+
+    /**
+     * Al cerrar la aplicación interrumpe las exportaciones en curso: el cliente recibe un NDJSON incompleto
+     */
+    @PreDestroy
+    void cerrarEjecutorExportacion() {
+        ejecutorExportacion.shutdown();
+    }
+
+    /**
+     * Crea un bloque de la importación NDJSON y ajusta los índices a la posición global
+     */
+    private void crearBloque(List<Usuario> bloque, List<ResultadoCreacion> resultados) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        int desplazamiento = resultados.size();
+        for (ResultadoCreacion resultado : usuarioService.crearUsuarios(bloque)) {
+            resultado.setIndice(resultado.getIndice() + desplazamiento);
+            resultados.add(resultado);
+        }
+        bloque.clear();
+    }
+
+    /**
+     * Escribe un usuario como una línea JSON
+     */
+    private void escribirLinea(OutputStream salida, Usuario usuario) {
+        try {
+            usuarioWriter.writeValue(salida, usuario);
+            salida.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
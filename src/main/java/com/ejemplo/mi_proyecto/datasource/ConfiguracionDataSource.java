@@ -0,0 +1,204 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuración del DataSource de la aplicación
+ */
+@Configuration
+public class ConfiguracionDataSource {
+
+    private static final Logger logger = LogManager.getLogger(ConfiguracionDataSource.class);
+
+    /**
+     * Limita las conexiones en uso al tamaño del pool y rechaza con 503 lo que no cabe
+     * Pensado para usarse junto con spring.threads.virtual.enabled=true (Java 21)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.bd.limitador.habilitado", havingValue = "true")
+    static BeanPostProcessor limitadorConexiones(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof LimitadorConexionesDataSource) {
+                    return bean;
+                }
+                int permisos = bean instanceof HikariDataSource hikari
+                        ? hikari.getMaximumPoolSize()
+                        : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                Duration espera = environment.getProperty("usuarios.bd.limitador.espera-maxima", Duration.class,
+                        Duration.ofMillis(100));
+                logger.info("DataSource '{}' limitado a {} conexiones en uso (espera máxima {} ms)",
+                        beanName, permisos, espera.toMillis());
+                return new LimitadorConexionesDataSource(dataSource, permisos, espera);
+            }
+        };
+    }
+
+    /**
+     * Registro de consultas lentas (umbral, muestreo del log, tamaño de la vista de las más lentas
+     * y si se guardan los valores de los parámetros)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.sql.lentas.habilitado", havingValue = "true", matchIfMissing = true)
+    RegistroConsultasLentas registroConsultasLentas(
+            @Value("${usuarios.sql.lentas.umbral:200ms}") Duration umbral,
+            @Value("${usuarios.sql.lentas.muestreo:1.0}") double muestreo,
+            @Value("${usuarios.sql.lentas.top:20}") int top,
+            @Value("${usuarios.sql.lentas.valores-parametros:false}") boolean valoresParametros) {
+        return new RegistroConsultasLentas(umbral, muestreo, top, valoresParametros);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.sql.lentas.habilitado", havingValue = "true", matchIfMissing = true)
+    ConsultasLentasEndpoint consultasLentasEndpoint(RegistroConsultasLentas registro) {
+        return new ConsultasLentasEndpoint(registro);
+    }
+
+    /**
+     * Mide cada sentencia SQL ejecutada a través del DataSource
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.sql.lentas.habilitado", havingValue = "true", matchIfMissing = true)
+    static BeanPostProcessor medidorConsultas(ObjectProvider<RegistroConsultasLentas> registro) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof MedidorConsultasDataSource) {
+                    return bean;
+                }
+                return new MedidorConsultasDataSource(dataSource, registro::getObject);
+            }
+        };
+    }
+
+    /**
+     * Pools del primario y de cada réplica (métricas de Hikari etiquetadas con el nombre del pool)
+     * Las réplicas heredan la configuración spring.datasource.hikari del primario
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "usuarios.bd.replicas.habilitado", havingValue = "true")
+    EnrutadorReplicas enrutadorReplicas(DataSourceProperties propiedades, Environment environment,
+                                        MeterRegistry registry,
+                                        @Value("${usuarios.bd.replicas.urls}") List<String> urls,
+                                        @Value("${usuarios.bd.replicas.retraso-maximo:PT10S}") Duration retrasoMaximo,
+                                        @Value("${usuarios.bd.replicas.espera-conexion:PT1S}") Duration esperaConexion) {
+        HikariDataSource primario = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        if (primario.getPoolName() == null) {
+            primario.setPoolName("usuarios-primario");
+        }
+        primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            primario.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("usuarios-replica-" + (replicas.size() + 1));
+            config.setReadOnly(true);
+            // Sin conexión pronto se lee del primario, en lugar de esperar el connectionTimeout del primario
+            config.setConnectionTimeout(esperaConexion.toMillis());
+            // Una réplica caída no impide arrancar: queda fuera hasta que la comprobación la vea sana
+            config.setInitializationFailTimeout(-1);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        logger.info("Lecturas repartidas entre {} réplica(s); retraso máximo tolerado {} ms",
+                replicas.size(), retrasoMaximo.toMillis());
+        return new EnrutadorReplicas(primario.getPoolName(), primario, replicas, retrasoMaximo, registry);
+    }
+
+    /**
+     * DataSource de la aplicación con réplicas: la conexión física se pide al ejecutar la primera
+     * sentencia, cuando ya se sabe si la transacción es de solo lectura (Hibernate llama antes a
+     * Connection.setReadOnly(true)); las de solo lectura van a una réplica y el resto al primario
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.bd.replicas.habilitado", havingValue = "true")
+    DataSource dataSource(EnrutadorReplicas enrutador) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(enrutador.primario());
+        dataSource.setReadOnlyDataSource(enrutador.lectura());
+        return dataSource;
+    }
+
+    /**
+     * Tras una escritura, las lecturas del mismo cliente van al primario durante la ventana indicada
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.bd.replicas.habilitado", havingValue = "true")
+    FiltroLecturaPropia filtroLecturaPropia(
+            @Value("${usuarios.bd.replicas.lectura-propia:PT5S}") Duration ventana) {
+        return new FiltroLecturaPropia(ventana);
+    }
+
+    /**
+     * Fragmentos del modo fragmentado: el 0 es el DataSource de la aplicación (spring.datasource) y cada
+     * URL de usuarios.bd.fragmentos.urls añade uno con la configuración spring.datasource.hikari del primero.
+     * Las migraciones de Flyway se aplican también a los fragmentos adicionales
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "true")
+    Fragmentos fragmentos(DataSource dataSource, DataSourceProperties propiedades, Environment environment,
+                          MeterRegistry registry, ObjectProvider<Flyway> flyway,
+                          @Value("${usuarios.bd.fragmentos.urls}") List<String> urls,
+                          @Value("${usuarios.bd.fragmentos.hilos:16}") int hilos) {
+        HikariConfig base = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(base));
+        base.setDriverClassName(propiedades.determineDriverClassName());
+        base.setUsername(propiedades.determineUsername());
+        base.setPassword(propiedades.determinePassword());
+        base.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSources.add(dataSource);
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            base.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("usuarios-fragmento-" + dataSources.size());
+            HikariDataSource fragmento = new HikariDataSource(config);
+            flyway.ifAvailable(principal -> Flyway.configure().configuration(principal.getConfiguration())
+                    .dataSource(fragmento).load().migrate());
+            dataSources.add(fragmento);
+        }
+        CustomizableThreadFactory hilosFragmentos = new CustomizableThreadFactory("usuarios-fragmentos-");
+        hilosFragmentos.setDaemon(true);
+        logger.info("Usuarios repartidos entre {} fragmento(s); {} hilos para consultarlos en paralelo",
+                dataSources.size(), hilos);
+        return new Fragmentos(dataSources, Executors.newFixedThreadPool(hilos, hilosFragmentos));
+    }
+
+    /**
+     * IDs de usuario del modo fragmentado; cada instancia de la aplicación necesita un nodo distinto (0-63)
+     * Sin valor por defecto: si falta usuarios.bd.fragmentos.nodo la aplicación no arranca
+     */
+    @Bean
+    @ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "true")
+    GeneradorIdsFragmentados generadorIdsFragmentados(@Value("${usuarios.bd.fragmentos.nodo}") int nodo) {
+        return new GeneradorIdsFragmentados(nodo);
+    }
+}
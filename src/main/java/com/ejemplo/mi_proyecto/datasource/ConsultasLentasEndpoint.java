@@ -0,0 +1,31 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.ejemplo.mi_proyecto.dto.ConsultaLenta;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Endpoint /actuator/consultaslentas: sentencias SQL más lentas desde el arranque o el último reinicio
+ */
+@Endpoint(id = "consultaslentas")
+public class ConsultasLentasEndpoint {
+
+    private final RegistroConsultasLentas registro;
+
+    public ConsultasLentasEndpoint(RegistroConsultasLentas registro) {
+        this.registro = registro;
+    }
+
+    @ReadOperation
+    public List<ConsultaLenta> masLentas() {
+        return registro.masLentas();
+    }
+
+    @DeleteOperation
+    public void reiniciar() {
+        registro.reiniciar();
+    }
+}
@@ -0,0 +1,223 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reparte las lecturas entre las réplicas disponibles y deja las escrituras en el primario
+ *
+ * lectura() es el DataSource de las transacciones de solo lectura (ver ConfiguracionReplicas): elige
+ * por turnos una réplica disponible y, si no hay ninguna, si falla al conectar o si el hilo pide leer
+ * sus propias escrituras (LecturaPrimario), usa el primario. Una comprobación periódica marca como no
+ * disponibles las réplicas que no responden o cuyo retraso de replicación supera el máximo tolerado.
+ */
+public class EnrutadorReplicas implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(EnrutadorReplicas.class);
+
+    private static final int ESPERA_VALIDACION_S = 2;
+    // Sin WAL pendiente de aplicar el retraso es 0 aunque la última transacción sea antigua (primario
+    // sin escrituras), pero solo si el WAL receiver sigue en streaming: sin conexión con el primario
+    // tampoco queda WAL por aplicar. Ver el estado exige pg_read_all_stats (sin él se lee NULL)
+    private static final String CONSULTA_RETRASO_POSTGRESQL =
+            "SELECT pg_is_in_recovery(), (SELECT status FROM pg_stat_wal_receiver),"
+            + " CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+    private static final String WAL_RECEIVER_STREAMING = "streaming";
+
+    private final DataSource primario;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double retrasoMaximoSegundos;
+    private final AtomicInteger turno = new AtomicInteger();
+    private final DataSource lectura = new DataSourceLectura();
+    private final Counter lecturasPropias;
+    private final Counter lecturasSinReplica;
+
+    /**
+     * @param replicas DataSource de cada réplica por nombre (el del pool, que etiqueta sus métricas)
+     */
+    public EnrutadorReplicas(String nombrePrimario, DataSource primario, Map<String, DataSource> replicas,
+                             Duration retrasoMaximo, MeterRegistry registry) {
+        this.primario = primario;
+        this.retrasoMaximoSegundos = retrasoMaximo.toMillis() / 1000.0;
+        this.lecturasPropias = contadorLecturas(registry, nombrePrimario, "lectura-propia");
+        this.lecturasSinReplica = contadorLecturas(registry, nombrePrimario, "sin-replica");
+        replicas.forEach((nombre, dataSource) -> {
+            Replica replica = new Replica(nombre, dataSource, contadorLecturas(registry, nombre, "replica"));
+            Gauge.builder("usuarios.bd.replica.disponible", replica, r -> r.disponible ? 1 : 0)
+                    .description("1 si la réplica recibe lecturas").tag("replica", nombre).register(registry);
+            Gauge.builder("usuarios.bd.replica.retraso", replica, r -> r.retrasoSegundos)
+                    .description("Retraso de replicación en la última comprobación").baseUnit("seconds")
+                    .tag("replica", nombre).register(registry);
+            this.replicas.add(replica);
+        });
+    }
+
+    /**
+     * DataSource de escritura (y de lectura cuando no hay réplica)
+     */
+    public DataSource primario() {
+        return primario;
+    }
+
+    /**
+     * DataSource de las transacciones de solo lectura
+     */
+    public DataSource lectura() {
+        return lectura;
+    }
+
+    /**
+     * Comprueba cada réplica: conexión válida y retraso de replicación dentro del máximo
+     * Hasta la primera comprobación ninguna réplica recibe lecturas
+     */
+    @Scheduled(initialDelayString = "${usuarios.bd.replicas.retraso-inicial:PT0S}",
+               fixedDelayString = "${usuarios.bd.replicas.comprobacion:PT5S}")
+    public void comprobarReplicas() {
+        for (Replica replica : replicas) {
+            comprobar(replica);
+        }
+    }
+
+    /**
+     * Número de réplicas que reciben lecturas
+     */
+    public int replicasDisponibles() {
+        return (int) replicas.stream().filter(replica -> replica.disponible).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable cerrable) {
+                cerrable.close();
+            }
+        }
+        if (primario instanceof AutoCloseable cerrable) {
+            cerrable.close();
+        }
+    }
+
+    private Connection conexionLectura() throws SQLException {
+        if (LecturaPrimario.activa()) {
+            lecturasPropias.increment();
+            return primario.getConnection();
+        }
+        int total = replicas.size();
+        int inicio = Math.floorMod(turno.getAndIncrement(), Math.max(total, 1));
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get((inicio + i) % total);
+            if (!replica.disponible) {
+                continue;
+            }
+            try {
+                Connection conexion = replica.dataSource.getConnection();
+                replica.lecturas.increment();
+                return conexion;
+            } catch (SQLException e) {
+                // Fuera hasta que la comprobación periódica vuelva a verla sana
+                replica.disponible = false;
+                logger.warn("Réplica {} no disponible al conectar: {}. Se lee de otra o del primario",
+                        replica.nombre, e.getMessage());
+            }
+        }
+        lecturasSinReplica.increment();
+        return primario.getConnection();
+    }
+
+    private void comprobar(Replica replica) {
+        boolean disponible;
+        String motivo;
+        try (Connection conexion = replica.dataSource.getConnection()) {
+            replica.retrasoSegundos = medirRetraso(conexion);
+            disponible = replica.retrasoSegundos <= retrasoMaximoSegundos;
+            motivo = "retraso de " + replica.retrasoSegundos + " s";
+        } catch (SQLException | RuntimeException e) {
+            disponible = false;
+            motivo = e.getMessage();
+        }
+        if (disponible != replica.disponible) {
+            if (disponible) {
+                logger.info("Réplica {} disponible ({})", replica.nombre, motivo);
+            } else {
+                logger.warn("Réplica {} fuera de servicio: {}", replica.nombre, motivo);
+            }
+        }
+        replica.disponible = disponible;
+    }
+
+    private static double medirRetraso(Connection conexion) throws SQLException {
+        if (!conexion.isValid(ESPERA_VALIDACION_S)) {
+            throw new SQLException("La conexión no responde");
+        }
+        if (!"PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName())) {
+            return 0;
+        }
+        try (Statement statement = conexion.createStatement();
+             ResultSet resultado = statement.executeQuery(CONSULTA_RETRASO_POSTGRESQL)) {
+            resultado.next();
+            // Un servidor que no está en recuperación no tiene retraso
+            if (!resultado.getBoolean(1)) {
+                return 0;
+            }
+            String estado = resultado.getString(2);
+            if (!WAL_RECEIVER_STREAMING.equals(estado)) {
+                throw new SQLException(estado == null
+                        ? "WAL receiver parado (o sin permiso pg_read_all_stats para ver su estado)"
+                        : "WAL receiver en estado " + estado);
+            }
+            double retraso = resultado.getDouble(3);
+            return resultado.wasNull() ? 0 : retraso;
+        }
+    }
+
+    private static Counter contadorLecturas(MeterRegistry registry, String destino, String motivo) {
+        return Counter.builder("usuarios.bd.lecturas")
+                .description("Conexiones de transacciones de solo lectura por destino")
+                .tag("destino", destino).tag("motivo", motivo).register(registry);
+    }
+
+    private static final class Replica {
+
+        private final String nombre;
+        private final DataSource dataSource;
+        private final Counter lecturas;
+        private volatile boolean disponible;
+        private volatile double retrasoSegundos;
+
+        private Replica(String nombre, DataSource dataSource, Counter lecturas) {
+            this.nombre = nombre;
+            this.dataSource = dataSource;
+            this.lecturas = lecturas;
+        }
+    }
+
+    private final class DataSourceLectura extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conexionLectura();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            throw new UnsupportedOperationException("Las réplicas usan las credenciales de su pool");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Lectura de las propias escrituras con réplicas: tras una petición de escritura, las lecturas del
+ * mismo cliente van al primario durante una ventana en la que la réplica podría no tenerla aún
+ *
+ * El momento de la última escritura viaja en una cookie, así que funciona con cualquier nodo detrás
+ * del balanceador y sin estado en el servidor. Se marca al recibir la petición (antes de saber si
+ * tiene éxito): una escritura fallida solo hace que el cliente lea del primario unos segundos.
+ */
+public class FiltroLecturaPropia extends OncePerRequestFilter {
+
+    static final String COOKIE = "usuarios-escritura";
+
+    private static final Set<String> METODOS_SEGUROS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long ventanaMs;
+
+    public FiltroLecturaPropia(Duration ventana) {
+        this.ventanaMs = ventana.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long ahora = System.currentTimeMillis();
+        boolean leerDelPrimario;
+        if (METODOS_SEGUROS.contains(request.getMethod())) {
+            leerDelPrimario = escrituraReciente(request, ahora);
+        } else {
+            Cookie cookie = new Cookie(COOKIE, Long.toString(ahora));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (ventanaMs + 999) / 1000));
+            response.addCookie(cookie);
+            leerDelPrimario = true;
+        }
+        if (!leerDelPrimario) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean anterior = LecturaPrimario.activar();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LecturaPrimario.restaurar(anterior);
+        }
+    }
+
+    private boolean escrituraReciente(HttpServletRequest request, long ahora) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    long escritura = Long.parseLong(cookie.getValue());
+                    // Un valor futuro (manipulado) no alarga la ventana
+                    return escritura <= ahora && ahora - escritura < ventanaMs;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
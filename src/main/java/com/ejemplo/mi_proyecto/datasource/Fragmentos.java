@@ -0,0 +1,129 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+
+/**
+ * Bases de datos entre las que se reparten los usuarios en el modo fragmentado
+ *
+ * Cada usuario vive en el fragmento de la ranura de su ID (ranura % número de fragmentos) y cada email
+ * se reserva en el fragmento de la ranura del email; al crear un usuario ambas coinciden. Las consultas
+ * que no dependen de un ID o un email se lanzan en paralelo a todos los fragmentos (enTodos) y quien
+ * llama combina los resultados. Cambiar el número de fragmentos con datos exige mover las ranuras afectadas.
+ */
+public class Fragmentos implements AutoCloseable {
+
+    private final List<Fragmento> fragmentos = new ArrayList<>();
+    private final ExecutorService ejecutor;
+
+    /**
+     * @param dataSources DataSource de cada fragmento, en orden (el 0 es el de la aplicación)
+     * @param ejecutor Hilos para consultar los fragmentos en paralelo
+     */
+    public Fragmentos(List<DataSource> dataSources, ExecutorService ejecutor) {
+        if (dataSources.isEmpty() || dataSources.size() > GeneradorIdsFragmentados.RANURAS) {
+            throw new IllegalArgumentException("Entre 1 y " + GeneradorIdsFragmentados.RANURAS + " fragmentos");
+        }
+        for (DataSource dataSource : dataSources) {
+            fragmentos.add(new Fragmento(dataSource));
+        }
+        this.ejecutor = ejecutor;
+    }
+
+    public int cantidad() {
+        return fragmentos.size();
+    }
+
+    /**
+     * Fragmento de una ranura (el que guarda sus usuarios y sus emails)
+     */
+    public int fragmentoDeRanura(int ranura) {
+        return ranura % fragmentos.size();
+    }
+
+    /**
+     * Fragmento en el que vive el usuario con este ID
+     */
+    public int fragmentoDeId(long id) {
+        return fragmentoDeRanura(GeneradorIdsFragmentados.ranura(id));
+    }
+
+    /**
+     * Fragmento en el que se reserva este email (normalizado)
+     */
+    public int fragmentoDeEmail(String emailNormalizado) {
+        return fragmentoDeRanura(GeneradorIdsFragmentados.ranuraDeEmail(emailNormalizado));
+    }
+
+    public JdbcTemplate jdbc(int fragmento) {
+        return fragmentos.get(fragmento).jdbc;
+    }
+
+    /**
+     * Ejecuta la acción en una transacción local del fragmento
+     */
+    public <T> T enTransaccion(int fragmento, TransactionCallback<T> accion) {
+        return fragmentos.get(fragmento).transaccion.execute(accion);
+    }
+
+    /**
+     * Ejecuta la consulta en todos los fragmentos a la vez (el 0 en el hilo que llama)
+     * @return Resultado de cada fragmento, en orden
+     */
+    public <T> List<T> enTodos(IntFunction<T> consulta) {
+        List<CompletableFuture<T>> pendientes = new ArrayList<>(fragmentos.size() - 1);
+        for (int i = 1; i < fragmentos.size(); i++) {
+            int fragmento = i;
+            pendientes.add(CompletableFuture.supplyAsync(() -> consulta.apply(fragmento), ejecutor));
+        }
+        List<T> resultados = new ArrayList<>(fragmentos.size());
+        resultados.add(consulta.apply(0));
+        try {
+            for (CompletableFuture<T> pendiente : pendientes) {
+                resultados.add(pendiente.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        return resultados;
+    }
+
+    /**
+     * Cierra los hilos y los pools creados para los fragmentos adicionales (el 0 es un bean de la aplicación)
+     */
+    @Override
+    public void close() throws Exception {
+        ejecutor.shutdown();
+        for (int i = 1; i < fragmentos.size(); i++) {
+            if (fragmentos.get(i).dataSource instanceof AutoCloseable cerrable) {
+                cerrable.close();
+            }
+        }
+    }
+
+    private static final class Fragmento {
+
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transaccion;
+
+        private Fragmento(DataSource dataSource) {
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transaccion = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+    }
+}
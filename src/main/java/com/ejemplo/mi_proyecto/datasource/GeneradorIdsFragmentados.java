@@ -0,0 +1,94 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * IDs de usuario al estilo Snowflake para el modo fragmentado, generados sin consultar la base de datos
+ *
+ * 63 bits: 41 de milisegundos desde 2024-01-01 (hasta 2093) | 8 de ranura | 6 de nodo | 8 de secuencia.
+ * La ranura (0-255) es el hash del email con el que se creó el usuario y decide su fragmento para siempre
+ * (ranura % número de fragmentos); el nodo distingue las instancias que generan IDs a la vez. Los IDs
+ * crecen con el tiempo, así que ordenar por ID sigue siendo ordenar por fecha de creación.
+ */
+public class GeneradorIdsFragmentados {
+
+    /** Número de ranuras de hash (agrupaciones de usuarios que se asignan a un fragmento) */
+    public static final int RANURAS = 256;
+
+    /** Número máximo de nodos que generan IDs a la vez */
+    public static final int NODOS = 64;
+
+    static final long EPOCA_MS = 1_704_067_200_000L;
+
+    private static final int BITS_SECUENCIA = 8;
+    private static final int BITS_NODO = 6;
+    private static final int DESPLAZAMIENTO_NODO = BITS_SECUENCIA;
+    private static final int DESPLAZAMIENTO_RANURA = BITS_SECUENCIA + BITS_NODO;
+    private static final int DESPLAZAMIENTO_TIEMPO = DESPLAZAMIENTO_RANURA + 8;
+    private static final int MAXIMO_SECUENCIA = (1 << BITS_SECUENCIA) - 1;
+
+    private final int nodo;
+    private final LongSupplier reloj;
+    private long ultimoMs;
+    private int secuencia;
+
+    public GeneradorIdsFragmentados(int nodo) {
+        this(nodo, System::currentTimeMillis);
+    }
+
+    GeneradorIdsFragmentados(int nodo, LongSupplier reloj) {
+        if (nodo < 0 || nodo >= NODOS) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + (NODOS - 1) + ": " + nodo);
+        }
+        this.nodo = nodo;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Genera un ID nuevo en la ranura indicada (hasta 256 por milisegundo y nodo; más allá se adelanta
+     * el milisegundo sin esperar al reloj)
+     */
+    public synchronized long generar(int ranura) {
+        if (ranura < 0 || ranura >= RANURAS) {
+            throw new IllegalArgumentException("Ranura fuera de rango: " + ranura);
+        }
+        // Si el reloj retrocede se sigue con el último milisegundo usado: los IDs nunca se repiten
+        long ahora = Math.max(reloj.getAsLong(), ultimoMs);
+        if (ahora == ultimoMs) {
+            if (secuencia == MAXIMO_SECUENCIA) {
+                // Secuencia agotada en este milisegundo: se toma prestado el siguiente en lugar de esperar
+                // al reloj con el monitor tomado (tras un retroceso serían segundos). Los IDs se adelantan
+                // al reloj hasta que este los alcanza
+                ahora = ultimoMs + 1;
+                secuencia = 0;
+            } else {
+                secuencia++;
+            }
+        } else {
+            secuencia = 0;
+        }
+        ultimoMs = ahora;
+        return (ahora - EPOCA_MS) << DESPLAZAMIENTO_TIEMPO
+                | (long) ranura << DESPLAZAMIENTO_RANURA
+                | (long) nodo << DESPLAZAMIENTO_NODO
+                | secuencia;
+    }
+
+    /**
+     * Ranura codificada en un ID generado por esta clase
+     */
+    public static int ranura(long id) {
+        return (int) (id >>> DESPLAZAMIENTO_RANURA) & (RANURAS - 1);
+    }
+
+    /**
+     * Ranura de un email normalizado: CRC32 de sus bytes UTF-8 (estable entre versiones de Java y nodos)
+     */
+    public static int ranuraDeEmail(String emailNormalizado) {
+        CRC32 crc = new CRC32();
+        crc.update(emailNormalizado.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() & (RANURAS - 1));
+    }
+}
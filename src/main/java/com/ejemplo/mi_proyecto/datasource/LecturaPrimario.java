@@ -0,0 +1,52 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Marca del hilo actual para que sus transacciones de solo lectura usen el primario y no una réplica
+ *
+ * La activa FiltroLecturaPropia en las peticiones de un cliente que acaba de escribir (lee sus propias
+ * escrituras) y quien no puede tolerar el retraso de replicación. Sin réplicas configuradas no tiene efecto.
+ */
+public final class LecturaPrimario {
+
+    private static final ThreadLocal<Boolean> ACTIVA = new ThreadLocal<>();
+
+    private LecturaPrimario() {
+    }
+
+    /**
+     * Indica si las lecturas del hilo actual deben ir al primario
+     */
+    public static boolean activa() {
+        return ACTIVA.get() != null;
+    }
+
+    /**
+     * Ejecuta la acción con las lecturas dirigidas al primario
+     * La conexión se elige al ejecutar la primera sentencia: la transacción debe empezar dentro de la acción
+     */
+    public static <T> T ejecutar(Supplier<T> accion) {
+        boolean anterior = activar();
+        try {
+            return accion.get();
+        } finally {
+            restaurar(anterior);
+        }
+    }
+
+    /**
+     * @return Si ya estaba activa (para restaurar())
+     */
+    static boolean activar() {
+        boolean anterior = activa();
+        ACTIVA.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    static void restaurar(boolean anterior) {
+        if (!anterior) {
+            ACTIVA.remove();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.ejemplo.mi_proyecto.exception.ServicioSaturadoException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource que limita con un semáforo las conexiones en uso al tamaño del pool
+ *
+ * Cada conexión obtenida ocupa un permiso hasta que se cierra. Si no hay permiso libre en el
+ * tiempo de espera configurado se lanza ServicioSaturadoException (503) en lugar de esperar
+ * en la cola del pool hasta su connectionTimeout. Con hilos virtuales, miles de peticiones
+ * pueden esperar aquí sin coste; el semáforo es justo (FIFO) para no dejar ninguna sin turno.
+ */
+public class LimitadorConexionesDataSource extends DelegatingDataSource {
+
+    private final Semaphore permisos;
+    private final int totalPermisos;
+    private final long esperaMaximaNanos;
+
+    public LimitadorConexionesDataSource(DataSource destino, int totalPermisos, Duration esperaMaxima) {
+        super(destino);
+        if (totalPermisos <= 0) {
+            throw new IllegalArgumentException("El número de permisos debe ser positivo");
+        }
+        this.permisos = new Semaphore(totalPermisos, true);
+        this.totalPermisos = totalPermisos;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirirPermiso();
+        try {
+            return conPermiso(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirirPermiso();
+        try {
+            return conPermiso(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Conexiones obtenidas a través de este DataSource y aún sin cerrar
+     */
+    public int conexionesEnUso() {
+        return totalPermisos - permisos.availablePermits();
+    }
+
+    /**
+     * Peticiones esperando un permiso (estimación)
+     */
+    public int enEspera() {
+        return permisos.getQueueLength();
+    }
+
+    private void adquirirPermiso() {
+        boolean adquirido;
+        try {
+            adquirido = permisos.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException("Interrumpido esperando una conexión a la base de datos", e);
+        }
+        if (!adquirido) {
+            throw new ServicioSaturadoException("Todas las conexiones a la base de datos están en uso");
+        }
+    }
+
+    /**
+     * Envuelve la conexión para devolver el permiso al cerrarla (una sola vez)
+     */
+    private Connection conPermiso(Connection conexion) {
+        AtomicBoolean liberado = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, metodo, argumentos) -> {
+                    if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            if (liberado.compareAndSet(false, true)) {
+                                permisos.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,183 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que mide la duración de cada sentencia y la pasa a RegistroConsultasLentas
+ *
+ * Envuelve conexiones y sentencias para retener los parámetros asignados (setXxx) y
+ * cronometrar las llamadas execute*. En executeQuery se mide hasta obtener el ResultSet,
+ * no el recorrido de las filas.
+ */
+public class MedidorConsultasDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EJECUCIONES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final int LONGITUD_MAXIMA_PARAMETRO = 100;
+
+    private final Supplier<RegistroConsultasLentas> proveedorRegistro;
+    private volatile RegistroConsultasLentas registro;
+
+    /**
+     * @param proveedorRegistro Se consulta al obtener la primera conexión
+     */
+    public MedidorConsultasDataSource(DataSource destino, Supplier<RegistroConsultasLentas> proveedorRegistro) {
+        super(destino);
+        this.proveedorRegistro = proveedorRegistro;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conexion(super.getConnection(username, password));
+    }
+
+    private Connection conexion(Connection real) {
+        if (registro == null) {
+            registro = proveedorRegistro.get();
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, metodo, argumentos) -> {
+                    Object resultado = invocar(real, metodo, argumentos);
+                    String nombre = metodo.getName();
+                    if (resultado instanceof CallableStatement llamada && "prepareCall".equals(nombre)) {
+                        return sentencia(llamada, CallableStatement.class, (String) argumentos[0]);
+                    }
+                    if (resultado instanceof PreparedStatement preparada && "prepareStatement".equals(nombre)) {
+                        return sentencia(preparada, PreparedStatement.class, (String) argumentos[0]);
+                    }
+                    if (resultado instanceof Statement sentencia && "createStatement".equals(nombre)) {
+                        return sentencia(sentencia, Statement.class, null);
+                    }
+                    return resultado;
+                });
+    }
+
+    private Object sentencia(Statement real, Class<? extends Statement> tipo, String sqlPreparada) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {tipo},
+                new MedidorSentencia(real, sqlPreparada));
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(destino, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class MedidorSentencia implements InvocationHandler {
+
+        private final Statement real;
+        private String sql;
+        private final List<Object> parametros = new ArrayList<>();
+        private int filasLote;
+
+        MedidorSentencia(Statement real, String sqlPreparada) {
+            this.real = real;
+            this.sql = sqlPreparada;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] argumentos) throws Throwable {
+            String nombre = metodo.getName();
+            if (EJECUCIONES.contains(nombre)) {
+                return ejecutar(metodo, argumentos);
+            }
+            if (nombre.startsWith("set") && argumentos != null && argumentos.length >= 2
+                    && argumentos[0] instanceof Integer indice) {
+                asignar(indice, "setNull".equals(nombre) ? null : argumentos[1]);
+            } else if ("clearParameters".equals(nombre)) {
+                parametros.clear();
+            } else if ("addBatch".equals(nombre)) {
+                filasLote++;
+                if (argumentos != null && argumentos.length == 1 && argumentos[0] instanceof String sqlLote) {
+                    sql = sqlLote;
+                }
+            }
+            return invocar(real, metodo, argumentos);
+        }
+
+        private Object ejecutar(Method metodo, Object[] argumentos) throws Throwable {
+            String sentencia = argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String texto
+                    ? texto : sql;
+            int lote = filasLote;
+            long inicio = System.nanoTime();
+            try {
+                return invocar(real, metodo, argumentos);
+            } finally {
+                long duracion = System.nanoTime() - inicio;
+                if (metodo.getName().endsWith("Batch")) {
+                    filasLote = 0;
+                }
+                if (sentencia != null) {
+                    List<Object> valores = parametros;
+                    registro.registrar(sentencia, duracion, conValores -> describir(valores, lote, conValores));
+                }
+            }
+        }
+
+        private void asignar(int indice, Object valor) {
+            while (parametros.size() < indice) {
+                parametros.add(null);
+            }
+            parametros.set(indice - 1, valor);
+        }
+    }
+
+    /**
+     * Parámetros en formato [1=valor, 2=valor] (los valores largos se recortan)
+     * o, sin valores, [1=String(15), 2=Long]
+     */
+    static String describir(List<Object> parametros, int filasLote, boolean conValores) {
+        StringBuilder texto = new StringBuilder("[");
+        for (int i = 0; i < parametros.size(); i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            texto.append(i + 1).append('=').append(conValores ? valor(parametros.get(i)) : tipo(parametros.get(i)));
+        }
+        texto.append(']');
+        if (filasLote > 0) {
+            texto.append(" (lote de ").append(filasLote).append(" filas, parámetros de la última)");
+        }
+        return texto.toString();
+    }
+
+    private static String valor(Object parametro) {
+        String valor = String.valueOf(parametro);
+        return valor.length() > LONGITUD_MAXIMA_PARAMETRO ? valor.substring(0, LONGITUD_MAXIMA_PARAMETRO) + "..." : valor;
+    }
+
+    private static String tipo(Object parametro) {
+        if (parametro == null) {
+            return "null";
+        }
+        if (parametro instanceof CharSequence cadena) {
+            return "String(" + cadena.length() + ")";
+        }
+        if (parametro instanceof byte[] bytes) {
+            return "byte[](" + bytes.length + ")";
+        }
+        return parametro.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.ejemplo.mi_proyecto.dto.ConsultaLenta;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de sentencias SQL que superan un umbral de duración
+ *
+ * Todas las consultas lentas se acumulan por texto SQL para la vista de las más lentas;
+ * solo una muestra de ellas se escribe en el log (logger "com.ejemplo.mi_proyecto.sql.lentas",
+ * asíncrono como el resto). Por debajo del umbral el coste es una comparación.
+ *
+ * Los parámetros pueden contener datos personales (emails, teléfonos): por defecto solo se guardan
+ * su tipo y longitud; los valores, únicamente con usuarios.sql.lentas.valores-parametros=true.
+ */
+public class RegistroConsultasLentas {
+
+    private static final Logger logger = LogManager.getLogger("com.ejemplo.mi_proyecto.sql.lentas");
+
+    // Límite de sentencias distintas acumuladas, para acotar la memoria
+    private static final int MAXIMO_SENTENCIAS = 1000;
+
+    private final long umbralNanos;
+    private final double muestreo;
+    private final int top;
+    private final boolean valoresParametros;
+    private final ConcurrentHashMap<String, Estadistica> porSentencia = new ConcurrentHashMap<>();
+
+    /**
+     * @param umbral Duración a partir de la cual una sentencia es lenta
+     * @param muestreo Fracción (0-1) de las consultas lentas que se escriben en el log
+     * @param top Número de sentencias que devuelve masLentas()
+     * @param valoresParametros Guardar los valores de los parámetros y no solo su tipo y longitud
+     */
+    public RegistroConsultasLentas(Duration umbral, double muestreo, int top, boolean valoresParametros) {
+        if (muestreo < 0 || muestreo > 1) {
+            throw new IllegalArgumentException("El muestreo debe estar entre 0 y 1");
+        }
+        this.umbralNanos = umbral.toNanos();
+        this.muestreo = muestreo;
+        this.top = top;
+        this.valoresParametros = valoresParametros;
+    }
+
+    /**
+     * Registra una ejecución
+     * @param parametros Se evalúa solo si la sentencia es lenta
+     */
+    public void registrar(String sql, long duracionNanos, Parametros parametros) {
+        if (duracionNanos < umbralNanos) {
+            return;
+        }
+        String valores = parametros.describir(valoresParametros);
+        Estadistica estadistica = porSentencia.get(sql);
+        if (estadistica == null) {
+            if (porSentencia.size() >= MAXIMO_SENTENCIAS) {
+                descartarMenosLenta();
+            }
+            estadistica = porSentencia.computeIfAbsent(sql, s -> new Estadistica());
+        }
+        estadistica.registrar(duracionNanos, valores);
+        if (muestreo >= 1 || ThreadLocalRandom.current().nextDouble() < muestreo) {
+            logger.warn("Consulta lenta ({} ms): {} | parámetros: {}", duracionNanos / 1_000_000, sql, valores);
+        }
+    }
+
+    /**
+     * Sentencias más lentas (por duración máxima), de mayor a menor
+     */
+    public List<ConsultaLenta> masLentas() {
+        return porSentencia.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Estadistica> e) -> e.getValue().maximoNanos.get())
+                        .reversed())
+                .limit(top)
+                .map(e -> e.getValue().resumen(e.getKey()))
+                .toList();
+    }
+
+    /**
+     * Olvida las estadísticas acumuladas
+     */
+    public void reiniciar() {
+        porSentencia.clear();
+    }
+
+    private void descartarMenosLenta() {
+        porSentencia.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().maximoNanos.get()))
+                .ifPresent(e -> porSentencia.remove(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Parámetros de una sentencia, descritos solo cuando hace falta
+     */
+    @FunctionalInterface
+    public interface Parametros {
+        /**
+         * @param conValores true para incluir los valores; false, solo el tipo y la longitud de cada uno
+         */
+        String describir(boolean conValores);
+    }
+
+    private static final class Estadistica {
+
+        private final LongAdder ejecuciones = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maximoNanos = new AtomicLong();
+        private volatile String parametrosMaximo;
+
+        void registrar(long duracionNanos, String parametros) {
+            ejecuciones.increment();
+            totalNanos.add(duracionNanos);
+            long maximo;
+            while (duracionNanos > (maximo = maximoNanos.get())) {
+                if (maximoNanos.compareAndSet(maximo, duracionNanos)) {
+                    parametrosMaximo = parametros;
+                    break;
+                }
+            }
+        }
+
+        ConsultaLenta resumen(String sql) {
+            long n = Math.max(1, ejecuciones.sum());
+            return new ConsultaLenta(sql, ejecuciones.sum(), maximoNanos.get() / 1e6,
+                    Math.round(totalNanos.sum() / n / 1000) / 1000.0, parametrosMaximo);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ejemplo.mi_proyecto.dto;
+
+/**
+ * DTO con las estadísticas de una sentencia SQL que superó el umbral de consulta lenta
+ */
+public class ConsultaLenta {
+
+    private String sql;
+    private long ejecuciones;
+    private double maximoMs;
+    private double mediaMs;
+    private String parametrosMaximo;
+
+    public ConsultaLenta() {
+    }
+
+    public ConsultaLenta(String sql, long ejecuciones, double maximoMs, double mediaMs, String parametrosMaximo) {
+        this.sql = sql;
+        this.ejecuciones = ejecuciones;
+        this.maximoMs = maximoMs;
+        this.mediaMs = mediaMs;
+        this.parametrosMaximo = parametrosMaximo;
+    }
+
+    // Getters y Setters
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public long getEjecuciones() {
+        return ejecuciones;
+    }
+
+    public void setEjecuciones(long ejecuciones) {
+        this.ejecuciones = ejecuciones;
+    }
+
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    public void setMaximoMs(double maximoMs) {
+        this.maximoMs = maximoMs;
+    }
+
+    public double getMediaMs() {
+        return mediaMs;
+    }
+
+    public void setMediaMs(double mediaMs) {
+        this.mediaMs = mediaMs;
+    }
+
+    public String getParametrosMaximo() {
+        return parametrosMaximo;
+    }
+
+    public void setParametrosMaximo(String parametrosMaximo) {
+        this.parametrosMaximo = parametrosMaximo;
+    }
+}
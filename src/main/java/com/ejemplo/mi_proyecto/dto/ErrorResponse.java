@@ -1,14 +1,16 @@
 package com.ejemplo.mi_proyecto.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.time.LocalDateTime;
 
 /**
  * DTO para respuestas de error estandarizadas
+ * Se serializa con SerializadorErrorResponse (mismo JSON, partes fijas precodificadas)
  */
+@JsonSerialize(using = SerializadorErrorResponse.class)
 public class ErrorResponse {
     
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+    // El formato (yyyy-MM-dd HH:mm:ss) lo define RelojErrores.FORMATO
     private LocalDateTime timestamp;
     
     private int status;
@@ -28,6 +30,17 @@ public class ErrorResponse {
         this.path = path;
     }
     
+    /**
+     * @param timestamp Marca de tiempo ya obtenida (ej: RelojErrores.ahora())
+     */
+    public ErrorResponse(LocalDateTime timestamp, int status, String error, String message, String path) {
+        this.timestamp = timestamp;
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.path = path;
+    }
+    
     // Getters y Setters
     public LocalDateTime getTimestamp() {
         return timestamp;
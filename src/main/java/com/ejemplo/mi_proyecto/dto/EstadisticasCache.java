@@ -0,0 +1,55 @@
+package com.ejemplo.mi_proyecto.dto;
+
+/**
+ * DTO con los contadores de una caché en memoria
+ */
+public class EstadisticasCache {
+
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long tamano;
+
+    public EstadisticasCache() {
+    }
+
+    public EstadisticasCache(long aciertos, long fallos, long expulsiones, long tamano) {
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.expulsiones = expulsiones;
+        this.tamano = tamano;
+    }
+
+    // Getters y Setters
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    public void setAciertos(long aciertos) {
+        this.aciertos = aciertos;
+    }
+
+    public long getFallos() {
+        return fallos;
+    }
+
+    public void setFallos(long fallos) {
+        this.fallos = fallos;
+    }
+
+    public long getExpulsiones() {
+        return expulsiones;
+    }
+
+    public void setExpulsiones(long expulsiones) {
+        this.expulsiones = expulsiones;
+    }
+
+    public long getTamano() {
+        return tamano;
+    }
+
+    public void setTamano(long tamano) {
+        this.tamano = tamano;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+
+import java.util.List;
+
+/**
+ * DTO para una página de usuarios obtenida mediante paginación por cursor
+ * El cursor es opaco para el cliente: solo debe reenviarse en el parámetro "after"
+ */
+public class PaginaUsuarios {
+
+    private List<Usuario> usuarios;
+    private String siguienteCursor;
+    private int limite;
+
+    public PaginaUsuarios() {
+    }
+
+    public PaginaUsuarios(List<Usuario> usuarios, String siguienteCursor, int limite) {
+        this.usuarios = usuarios;
+        this.siguienteCursor = siguienteCursor;
+        this.limite = limite;
+    }
+
+    // Getters y Setters
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<Usuario> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ejemplo.mi_proyecto.dto;
+
+/**
+ * DTO de un PATCH de usuario con semántica JSON Merge Patch (RFC 7396)
+ * Distingue un campo ausente (no se modifica) de uno presente con null (se borra):
+ * Jackson solo llama al setter de los campos que vienen en el cuerpo
+ */
+public class ParcheUsuario {
+
+    private String nombre;
+    private String email;
+    private String telefono;
+
+    private boolean nombrePresente;
+    private boolean emailPresente;
+    private boolean telefonoPresente;
+
+    public ParcheUsuario() {
+    }
+
+    // Getters y Setters
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+        this.nombrePresente = true;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailPresente = true;
+    }
+
+    public String getTelefono() {
+        return telefono;
+    }
+
+    public void setTelefono(String telefono) {
+        this.telefono = telefono;
+        this.telefonoPresente = true;
+    }
+
+    // Sin prefijo "is": no son propiedades JSON y el cliente no puede fijarlas
+    public boolean nombrePresente() {
+        return nombrePresente;
+    }
+
+    public boolean emailPresente() {
+        return emailPresente;
+    }
+
+    public boolean telefonoPresente() {
+        return telefonoPresente;
+    }
+}
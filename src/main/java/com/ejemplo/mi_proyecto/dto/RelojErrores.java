@@ -0,0 +1,62 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Reloj con resolución de segundos para las marcas de tiempo de las respuestas de error
+ *
+ * Dentro del mismo segundo todas las respuestas comparten el mismo LocalDateTime y su texto
+ * ya formateado (y codificado en UTF-8 por Jackson), en lugar de crearlo y formatearlo en cada una.
+ */
+public final class RelojErrores {
+
+    static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static volatile Segundo actual = nuevo(System.currentTimeMillis() / 1000);
+
+    private RelojErrores() {
+    }
+
+    /**
+     * Fecha y hora actual, truncada al segundo
+     */
+    public static LocalDateTime ahora() {
+        return segundoActual().fecha;
+    }
+
+    /**
+     * Texto JSON de la marca de tiempo; reutiliza el del segundo actual si coincide
+     */
+    static SerializedString texto(LocalDateTime fecha) {
+        Segundo segundo = actual;
+        if (segundo.fecha == fecha) {
+            return segundo.texto;
+        }
+        return new SerializedString(FORMATO.format(fecha));
+    }
+
+    private static Segundo segundoActual() {
+        long epocaSegundos = System.currentTimeMillis() / 1000;
+        Segundo segundo = actual;
+        if (segundo.epocaSegundos != epocaSegundos) {
+            // Carrera benigna: varios hilos pueden crear el mismo segundo a la vez
+            segundo = nuevo(epocaSegundos);
+            actual = segundo;
+        }
+        return segundo;
+    }
+
+    private static Segundo nuevo(long epocaSegundos) {
+        LocalDateTime fecha = LocalDateTime.ofEpochSecond(epocaSegundos, 0,
+                ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochSecond(epocaSegundos)));
+        return new Segundo(epocaSegundos, fecha, new SerializedString(FORMATO.format(fecha)));
+    }
+
+    private record Segundo(long epocaSegundos, LocalDateTime fecha, SerializedString texto) {
+    }
+}
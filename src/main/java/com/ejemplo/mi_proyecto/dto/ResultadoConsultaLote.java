@@ -0,0 +1,40 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de consultar varios usuarios por ID
+ * Los usuarios siguen el orden de los IDs pedidos; los IDs sin usuario van en "noEncontrados"
+ */
+public class ResultadoConsultaLote {
+
+    private List<Usuario> usuarios;
+    private List<Long> noEncontrados;
+
+    public ResultadoConsultaLote() {
+    }
+
+    public ResultadoConsultaLote(List<Usuario> usuarios, List<Long> noEncontrados) {
+        this.usuarios = usuarios;
+        this.noEncontrados = noEncontrados;
+    }
+
+    // Getters y Setters
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<Usuario> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public List<Long> getNoEncontrados() {
+        return noEncontrados;
+    }
+
+    public void setNoEncontrados(List<Long> noEncontrados) {
+        this.noEncontrados = noEncontrados;
+    }
+}
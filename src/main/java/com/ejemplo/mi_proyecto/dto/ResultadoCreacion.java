@@ -0,0 +1,56 @@
+package com.ejemplo.mi_proyecto.dto;
+
+/**
+ * DTO con el resultado de crear un usuario dentro de una carga masiva
+ * Indica la posición del usuario en la petición y el estado HTTP equivalente
+ */
+public class ResultadoCreacion {
+
+    private int indice;
+    private int status;
+    private Long id;
+    private String error;
+
+    public ResultadoCreacion() {
+    }
+
+    public ResultadoCreacion(int indice, int status, Long id, String error) {
+        this.indice = indice;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    // Getters y Setters
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
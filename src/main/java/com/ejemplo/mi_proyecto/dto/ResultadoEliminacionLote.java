@@ -0,0 +1,38 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de eliminar varios usuarios por ID
+ * Indica qué IDs se eliminaron y cuáles no existían, en el orden en que se pidieron
+ */
+public class ResultadoEliminacionLote {
+
+    private List<Long> eliminados;
+    private List<Long> noEncontrados;
+
+    public ResultadoEliminacionLote() {
+    }
+
+    public ResultadoEliminacionLote(List<Long> eliminados, List<Long> noEncontrados) {
+        this.eliminados = eliminados;
+        this.noEncontrados = noEncontrados;
+    }
+
+    // Getters y Setters
+    public List<Long> getEliminados() {
+        return eliminados;
+    }
+
+    public void setEliminados(List<Long> eliminados) {
+        this.eliminados = eliminados;
+    }
+
+    public List<Long> getNoEncontrados() {
+        return noEncontrados;
+    }
+
+    public void setNoEncontrados(List<Long> noEncontrados) {
+        this.noEncontrados = noEncontrados;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Serializador de ErrorResponse con las partes fijas ya codificadas
+ *
+ * Produce el mismo JSON que la serialización por defecto (mismo orden de campos), con la fecha
+ * en el formato de RelojErrores.FORMATO. Los nombres de campo, la marca de tiempo del segundo actual y el par
+ * status/error de las respuestas habituales se escriben como bytes UTF-8 precalculados.
+ */
+public class SerializadorErrorResponse extends StdSerializer<ErrorResponse> {
+
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString ERROR = new SerializedString("error");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString PATH = new SerializedString("path");
+
+    // Pares status/error que usa GlobalExceptionHandler
+    private static final Plantilla[] PLANTILLAS = {
+            new Plantilla(400, "Invalid Request"),
+            new Plantilla(404, "NOT_FOUND"),
+            new Plantilla(409, "CONFLICT"),
+            new Plantilla(412, "PRECONDITION_FAILED"),
+            new Plantilla(500, "Internal Server Error"),
+            new Plantilla(503, "SERVICE_UNAVAILABLE")
+    };
+
+    public SerializadorErrorResponse() {
+        super(ErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ErrorResponse respuesta, JsonGenerator generador, SerializerProvider proveedor)
+            throws IOException {
+        generador.writeStartObject(respuesta);
+        generador.writeFieldName(TIMESTAMP);
+        if (respuesta.getTimestamp() == null) {
+            generador.writeNull();
+        } else {
+            generador.writeString(RelojErrores.texto(respuesta.getTimestamp()));
+        }
+        Plantilla plantilla = generador.getPrettyPrinter() == null ? buscar(respuesta) : null;
+        if (plantilla != null) {
+            // Fragmento crudo que empieza por la coma: el generador sigue colocando bien la siguiente
+            generador.writeRaw(plantilla.fragmento);
+        } else {
+            generador.writeFieldName(STATUS);
+            generador.writeNumber(respuesta.getStatus());
+            generador.writeFieldName(ERROR);
+            generador.writeString(respuesta.getError());
+        }
+        escribirTexto(generador, MESSAGE, respuesta.getMessage());
+        escribirTexto(generador, PATH, respuesta.getPath());
+        generador.writeEndObject();
+    }
+
+    private static void escribirTexto(JsonGenerator generador, SerializableString campo, String valor)
+            throws IOException {
+        generador.writeFieldName(campo);
+        if (valor == null) {
+            generador.writeNull();
+        } else {
+            generador.writeString(valor);
+        }
+    }
+
+    private static Plantilla buscar(ErrorResponse respuesta) {
+        String error = respuesta.getError();
+        if (error == null) {
+            return null;
+        }
+        for (Plantilla plantilla : PLANTILLAS) {
+            if (plantilla.status == respuesta.getStatus() && plantilla.error.equals(error)) {
+                return plantilla;
+            }
+        }
+        return null;
+    }
+
+    private static final class Plantilla {
+
+        private final int status;
+        private final String error;
+        private final SerializedString fragmento;
+
+        Plantilla(int status, String error) {
+            this.status = status;
+            this.error = error;
+            this.fragmento = new SerializedString(",\"status\":" + status + ",\"error\":\"" + error + "\"");
+        }
+    }
+}
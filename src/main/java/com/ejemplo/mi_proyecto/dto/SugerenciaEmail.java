@@ -0,0 +1,35 @@
+package com.ejemplo.mi_proyecto.dto;
+
+/**
+ * DTO de una sugerencia de autocompletado: el email y el ID del usuario al que pertenece
+ */
+public class SugerenciaEmail {
+
+    private Long id;
+    private String email;
+
+    public SugerenciaEmail() {
+    }
+
+    public SugerenciaEmail(Long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+}
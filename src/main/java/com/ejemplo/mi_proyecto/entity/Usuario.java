@@ -1,13 +1,20 @@
 package com.ejemplo.mi_proyecto.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
+// UPDATE solo con las columnas modificadas (PATCH de un campo no reescribe el resto)
 @Entity
+@DynamicUpdate
 @Table(name = "usuarios")
 public class Usuario {
 
+    // Secuencia con asignación en bloques (pooled): evita un round-trip por INSERT
+    // y permite a Hibernate agrupar las inserciones en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -18,6 +25,12 @@ public class Usuario {
 
     private String telefono;
 
+    // Bloqueo optimista; también es la base de los ETag. No va en el JSON: viaja en la cabecera ETag.
+    // Null hasta que se inserta (Spring Data lo usa para distinguir las entidades nuevas)
+    @Version
+    @JsonIgnore
+    private Long version;
+
     // Constructor vacío (requerido por JPA)
     public Usuario() {}
 
@@ -61,6 +74,14 @@ public class Usuario {
         this.telefono = telefono;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Usuario{" +
@@ -0,0 +1,51 @@
+package com.ejemplo.mi_proyecto.exception;
+
+/**
+ * Códigos de los errores de dominio y plantilla de su mensaje
+ *
+ * El mensaje se compone solo cuando alguien lo pide (getMessage), no al lanzar la excepción.
+ */
+public enum CodigoError {
+
+    // 404
+    USUARIO_NO_ENCONTRADO("Usuario no encontrado con ID: %s"),
+
+    // 409
+    EMAIL_DUPLICADO("Ya existe un usuario con el email: %s"),
+
+    // 412
+    VERSION_NO_COINCIDE("El usuario %s fue modificado: la versión indicada en If-Match ya no es la actual"),
+
+    // 400
+    USUARIO_NULO("El usuario no puede ser null"),
+    NOMBRE_OBLIGATORIO("El nombre del usuario es obligatorio"),
+    EMAIL_OBLIGATORIO("El email del usuario es obligatorio"),
+    EMAIL_FORMATO_INVALIDO("El formato del email no es válido"),
+    NOMBRE_DEMASIADO_CORTO("El nombre debe tener al menos 2 caracteres"),
+    NOMBRE_DEMASIADO_LARGO("El nombre no puede tener más de 100 caracteres"),
+    ID_INVALIDO("El ID del usuario debe ser un número positivo"),
+    EMAIL_VACIO("El email no puede estar vacío"),
+    LIMITE_INVALIDO("El límite debe ser un número positivo"),
+    DESPLAZAMIENTO_INVALIDO("El desplazamiento debe estar entre 0 y %s"),
+    CURSOR_INVALIDO("El cursor de paginación no es válido"),
+    LOTE_VACIO("La lista de usuarios no puede estar vacía"),
+    LOTE_DEMASIADO_GRANDE("No se pueden crear más de %s usuarios por petición"),
+    NDJSON_LINEA_INVALIDA("La línea no es un usuario JSON válido; las líneas siguientes no se procesaron"),
+    IDS_VACIOS("La lista de IDs no puede estar vacía"),
+    IDS_DEMASIADOS("No se pueden indicar más de %s IDs por petición"),
+    BUSQUEDA_DEMASIADO_CORTA("El texto de búsqueda debe tener al menos %s caracteres"),
+    PREFIJO_VACIO("El prefijo no puede estar vacío");
+
+    private final String plantilla;
+
+    CodigoError(String plantilla) {
+        this.plantilla = plantilla;
+    }
+
+    /**
+     * Mensaje con los argumentos sustituidos en la plantilla
+     */
+    public String mensaje(Object... argumentos) {
+        return argumentos.length == 0 ? plantilla : String.format(plantilla, argumentos);
+    }
+}
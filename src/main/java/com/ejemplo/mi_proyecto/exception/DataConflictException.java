@@ -3,7 +3,7 @@ package com.ejemplo.mi_proyecto.exception;
 /**
  * Excepción lanzada cuando hay un conflicto en los datos (ej: email duplicado)
  */
-public class DataConflictException extends RuntimeException {
+public class DataConflictException extends ExcepcionConCodigo {
     
     public DataConflictException(String message) {
         super(message);
@@ -12,4 +12,8 @@ public class DataConflictException extends RuntimeException {
     public DataConflictException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+    
+    public DataConflictException(CodigoError codigo, Throwable cause, Object... argumentos) {
+        super(codigo, cause, argumentos);
+    }
+}
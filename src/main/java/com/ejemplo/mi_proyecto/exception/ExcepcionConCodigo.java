@@ -0,0 +1,53 @@
+package com.ejemplo.mi_proyecto.exception;
+
+/**
+ * Base de las excepciones de negocio que pueden crearse con un CodigoError
+ *
+ * Las creadas con un código no capturan el stack trace (la causa, si la hay, conserva el suyo)
+ * y componen el mensaje solo si se pide. Las creadas con un mensaje libre se comportan como
+ * cualquier RuntimeException.
+ */
+public abstract class ExcepcionConCodigo extends RuntimeException {
+    
+    private final CodigoError codigo;
+    private final Object[] argumentos;
+    private String mensaje;
+    
+    protected ExcepcionConCodigo(String message) {
+        super(message);
+        this.codigo = null;
+        this.argumentos = null;
+        this.mensaje = message;
+    }
+    
+    protected ExcepcionConCodigo(String message, Throwable cause) {
+        super(message, cause);
+        this.codigo = null;
+        this.argumentos = null;
+        this.mensaje = message;
+    }
+    
+    /**
+     * Variante ligera: sin stack trace y con el mensaje compuesto solo si se pide
+     */
+    protected ExcepcionConCodigo(CodigoError codigo, Throwable cause, Object... argumentos) {
+        super(null, cause, false, false);
+        this.codigo = codigo;
+        this.argumentos = argumentos;
+    }
+    
+    /**
+     * Código del error (null si se creó con un mensaje libre)
+     */
+    public CodigoError getCodigo() {
+        return codigo;
+    }
+    
+    @Override
+    public String getMessage() {
+        if (mensaje == null && codigo != null) {
+            mensaje = codigo.mensaje(argumentos);
+        }
+        return mensaje;
+    }
+}
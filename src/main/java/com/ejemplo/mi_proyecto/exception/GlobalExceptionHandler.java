@@ -1,14 +1,24 @@
 package com.ejemplo.mi_proyecto.exception;
 
 import com.ejemplo.mi_proyecto.dto.ErrorResponse;
+import com.ejemplo.mi_proyecto.dto.RelojErrores;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+
 /**
  * Manejador global de excepciones para la aplicación
  * Centraliza el manejo de errores y proporciona respuestas consistentes
@@ -18,6 +28,20 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LogManager.getLogger(GlobalExceptionHandler.class);
 
+    // Valor de Retry-After en las respuestas 503
+    private static final String SEGUNDOS_REINTENTO = "1";
+
+    private final RegistroErroresLimitado registroErrores;
+
+    public GlobalExceptionHandler() {
+        this(Duration.ofMinutes(1));
+    }
+
+    @Autowired
+    public GlobalExceptionHandler(@Value("${usuarios.errores.intervalo-traza:PT1M}") Duration intervaloTraza) {
+        this.registroErrores = new RegistroErroresLimitado(logger, intervaloTraza);
+    }
+
     /**
      * Maneja excepciones cuando no se encuentra un recurso
      */
@@ -25,13 +49,15 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
             ResourceNotFoundException ex, WebRequest request) {
         
-        logger.warn("Recurso no encontrado: {} - Path: {}", ex.getMessage(), request.getDescription(false));
+        String ruta = ruta(request);
+        logger.warn("Recurso no encontrado: {} - Path: {}", ex.getMessage(), ruta);
         
         ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
                 HttpStatus.NOT_FOUND.value(),
                 "NOT_FOUND",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
@@ -44,18 +70,123 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleDataConflictException(
             DataConflictException ex, WebRequest request) {
         
-        logger.warn("Conflicto de datos: {} - Path: {}", ex.getMessage(), request.getDescription(false));
+        String ruta = ruta(request);
+        logger.warn("Conflicto de datos: {} - Path: {}", ex.getMessage(), ruta);
         
         ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
                 HttpStatus.CONFLICT.value(),
                 "CONFLICT",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las peticiones condicionales cuya precondición no se cumple (If-Match con otra versión)
+     */
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallidaException(
+            PrecondicionFallidaException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                "PRECONDITION_FAILED",
+                ex.getMessage(),
+                ruta(request)
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Maneja las escrituras concurrentes detectadas por el bloqueo optimista (@Version)
+     * sin If-Match: otra petición modificó el recurso entre la lectura y la escritura
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        
+        String ruta = ruta(request);
+        logger.warn("Modificación concurrente: {} - Path: {}", ex.getMessage(), ruta);
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
+                HttpStatus.CONFLICT.value(),
+                "CONFLICT",
+                "El recurso fue modificado por otra petición. Vuelva a leerlo e inténtelo de nuevo.",
+                ruta
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja violaciones de restricciones de la base de datos no traducidas por el service
+     * (ej: una carga masiva que compite con otra petición por el mismo email)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex, WebRequest request) {
+        
+        String ruta = ruta(request);
+        logger.warn("Violación de integridad de datos: {} - Path: {}",
+                ex.getMostSpecificCause().getMessage(), ruta);
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
+                HttpStatus.CONFLICT.value(),
+                "CONFLICT",
+                "Los datos enviados entran en conflicto con otro registro",
+                ruta
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Maneja la falta de capacidad (ej: sin conexiones libres a la base de datos)
+     * Se responde enseguida con 503 para que el cliente reintente, en lugar de hacerle esperar
+     */
+    @ExceptionHandler(ServicioSaturadoException.class)
+    public ResponseEntity<ErrorResponse> handleServicioSaturadoException(
+            ServicioSaturadoException ex, WebRequest request) {
+        
+        String ruta = ruta(request);
+        logger.warn("Servicio saturado: {} - Path: {}", ex.getMessage(), ruta);
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "SERVICE_UNAVAILABLE",
+                "El servicio está saturado. Por favor reintente en unos instantes.",
+                ruta
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO)
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja los fallos al abrir una transacción: si la causa es la falta de conexiones
+     * libres se responde 503; cualquier otra causa es un error interno
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleCannotCreateTransactionException(
+            CannotCreateTransactionException ex, WebRequest request) {
+        
+        for (Throwable causa = ex.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof ServicioSaturadoException saturado) {
+                return handleServicioSaturadoException(saturado, request);
+            }
+        }
+        return handleGenericException(ex, request);
+    }
+
     /**
      * Maneja excepciones de argumentos inválidos
      */
@@ -64,10 +195,11 @@ public class GlobalExceptionHandler {
             IllegalArgumentException ex, WebRequest request) {
         
         ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
                 HttpStatus.BAD_REQUEST.value(),
                 "Invalid Request",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
@@ -81,15 +213,26 @@ public class GlobalExceptionHandler {
             Exception ex, WebRequest request) {
         
         ErrorResponse errorResponse = new ErrorResponse(
+                RelojErrores.ahora(),
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 "Internal Server Error",
                 "Ha ocurrido un error interno. Por favor contacte al administrador.",
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
-        // Log del error real para debugging
-        logger.error("Error interno en la aplicación: {}", ex.getMessage(), ex);
+        // Log del error real para debugging (una traza por tipo de error y intervalo)
+        registroErrores.registrar(ex, errorResponse.getPath());
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    /**
+     * Ruta de la petición: directamente del servlet, sin componer y recortar getDescription
+     */
+    private static String ruta(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+}
@@ -0,0 +1,12 @@
+package com.ejemplo.mi_proyecto.exception;
+
+/**
+ * Excepción lanzada cuando no se cumple la precondición de una petición condicional
+ * (ej: la versión de If-Match ya no es la actual)
+ */
+public class PrecondicionFallidaException extends ExcepcionConCodigo {
+    
+    public PrecondicionFallidaException(CodigoError codigo, Object... argumentos) {
+        super(codigo, null, argumentos);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ejemplo.mi_proyecto.exception;
+
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Log de errores con deduplicación por firma y límite de trazas
+ *
+ * La firma de un error es su tipo, el de su causa raíz y la primera línea de la traza de esta.
+ * Cada firma se cuenta siempre, pero su traza se escribe como mucho una vez por intervalo,
+ * con las repeticiones omitidas desde la anterior. Una ráfaga del mismo error cuesta
+ * así un par de operaciones atómicas por petición en lugar de una traza completa.
+ */
+public class RegistroErroresLimitado {
+
+    // Límite de firmas distintas; a partir de ahí se agrupan en una sola
+    private static final int MAXIMO_FIRMAS = 500;
+    private static final String FIRMA_DESBORDE = "(otras)";
+    private static final long NUNCA = Long.MIN_VALUE;
+
+    private final Logger logger;
+    private final long intervaloNanos;
+    private final LongSupplier reloj;
+    private final ConcurrentHashMap<String, Contador> porFirma = new ConcurrentHashMap<>();
+
+    public RegistroErroresLimitado(Logger logger, Duration intervalo) {
+        this(logger, intervalo, System::nanoTime);
+    }
+
+    RegistroErroresLimitado(Logger logger, Duration intervalo, LongSupplier reloj) {
+        this.logger = logger;
+        this.intervaloNanos = intervalo.toNanos();
+        this.reloj = reloj;
+    }
+
+    /**
+     * Cuenta el error y escribe su traza si no se escribió otra de la misma firma en el intervalo
+     * @return true si se escribió la traza
+     */
+    public boolean registrar(Throwable error, String ruta) {
+        String firma = firma(error);
+        Contador contador = porFirma.get(firma);
+        if (contador == null) {
+            if (porFirma.size() >= MAXIMO_FIRMAS) {
+                firma = FIRMA_DESBORDE;
+            }
+            contador = porFirma.computeIfAbsent(firma, f -> new Contador());
+        }
+        contador.total.increment();
+
+        long ahora = reloj.getAsLong();
+        long ultima = contador.ultimaTraza.get();
+        if ((ultima != NUNCA && ahora - ultima < intervaloNanos) || !contador.ultimaTraza.compareAndSet(ultima, ahora)) {
+            contador.omitidas.increment();
+            return false;
+        }
+        logger.error("Error interno en {}: {} [firma: {}, {} en total, {} trazas omitidas desde la anterior]",
+                ruta, error.getMessage(), firma, contador.total.sum(), contador.omitidas.sumThenReset(), error);
+        return true;
+    }
+
+    /**
+     * Número de errores por firma desde el arranque
+     */
+    public Map<String, Long> contadores() {
+        Map<String, Long> contadores = new TreeMap<>();
+        porFirma.forEach((firma, contador) -> contadores.put(firma, contador.total.sum()));
+        return contadores;
+    }
+
+    static String firma(Throwable error) {
+        Throwable raiz = error;
+        while (raiz.getCause() != null && raiz.getCause() != raiz) {
+            raiz = raiz.getCause();
+        }
+        StringBuilder firma = new StringBuilder(error.getClass().getName());
+        if (raiz != error) {
+            firma.append(" <- ").append(raiz.getClass().getName());
+        }
+        StackTraceElement[] traza = raiz.getStackTrace();
+        if (traza.length > 0) {
+            firma.append(" @ ").append(traza[0].getClassName()).append('.').append(traza[0].getMethodName())
+                    .append(':').append(traza[0].getLineNumber());
+        }
+        return firma.toString();
+    }
+
+    private static final class Contador {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder omitidas = new LongAdder();
+        private final AtomicLong ultimaTraza = new AtomicLong(NUNCA);
+    }
+}
@@ -2,8 +2,11 @@ package com.ejemplo.mi_proyecto.exception;
 
 /**
  * Excepción lanzada cuando no se encuentra un recurso solicitado
+ *
+ * Las creadas con un CodigoError no capturan el stack trace: son un resultado esperado
+ * (ej: sondeos masivos de IDs) y su traza no aporta nada.
  */
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends ExcepcionConCodigo {
     
     public ResourceNotFoundException(String message) {
         super(message);
@@ -12,4 +15,8 @@ public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+    
+    public ResourceNotFoundException(CodigoError codigo, Object... argumentos) {
+        super(codigo, null, argumentos);
+    }
+}
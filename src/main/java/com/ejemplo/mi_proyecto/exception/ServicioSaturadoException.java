@@ -0,0 +1,16 @@
+package com.ejemplo.mi_proyecto.exception;
+
+/**
+ * Excepción lanzada cuando no hay capacidad para atender la petición (ej: todas las conexiones
+ * a la base de datos en uso durante más tiempo del permitido)
+ */
+public class ServicioSaturadoException extends RuntimeException {
+    
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+    
+    public ServicioSaturadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
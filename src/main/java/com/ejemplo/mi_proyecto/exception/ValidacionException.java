@@ -0,0 +1,39 @@
+package com.ejemplo.mi_proyecto.exception;
+
+/**
+ * Error de validación de datos de entrada, sin stack trace
+ *
+ * Extiende IllegalArgumentException, así que se sigue respondiendo con 400 y la capturan los
+ * mismos catch que a las demás validaciones; por eso no puede heredar de ExcepcionConCodigo.
+ * No se reutilizan instancias: IllegalArgumentException no permite desactivar las excepciones
+ * suprimidas y una instancia compartida acumularía las de todos los hilos.
+ */
+public class ValidacionException extends IllegalArgumentException {
+
+    private final CodigoError codigo;
+    private final Object[] argumentos;
+    private String mensaje;
+
+    public ValidacionException(CodigoError codigo, Object... argumentos) {
+        this.codigo = codigo;
+        this.argumentos = argumentos;
+    }
+
+    public CodigoError getCodigo() {
+        return codigo;
+    }
+
+    @Override
+    public String getMessage() {
+        if (mensaje == null) {
+            mensaje = codigo.mensaje(argumentos);
+        }
+        return mensaje;
+    }
+
+    // IllegalArgumentException no expone el constructor que desactiva la traza
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,55 @@
+package com.ejemplo.mi_proyecto.metricas;
+
+import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
+import com.ejemplo.mi_proyecto.service.UsuarioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+
+/**
+ * Timers por método para UsuarioService y UsuarioRepository
+ *
+ * Los advisors son de infraestructura, como el de @Transactional, para que el mismo
+ * auto-proxy que aplica las transacciones los aplique sin necesidad de AspectJ.
+ * Se ejecutan fuera de la transacción, así que el tiempo medido incluye el commit.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConfiguracionMetricas {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor metricasUsuarioService(ObjectProvider<MeterRegistry> registry) {
+        return advisor(UsuarioService.class, new TemporizadorMetodos(registry::getObject,
+                "usuarios.servicio", "Duración de las operaciones de UsuarioService"));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor metricasUsuarioRepository(ObjectProvider<MeterRegistry> registry) {
+        return advisor(UsuarioRepository.class, new TemporizadorMetodos(registry::getObject,
+                "usuarios.repositorio", "Duración de las consultas de UsuarioRepository"));
+    }
+
+    private static Advisor advisor(Class<?> tipo, TemporizadorMetodos temporizador) {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() != Object.class;
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(tipo));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, temporizador);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ejemplo.mi_proyecto.metricas;
+
+import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
+import com.ejemplo.mi_proyecto.exception.ResourceNotFoundException;
+import com.ejemplo.mi_proyecto.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Interceptor que mide cada llamada con un Timer etiquetado por método y resultado
+ *
+ * Los Timers se crean una vez por método y resultado y se reutilizan: el coste por llamada
+ * es una lectura de reloj y un registro en el histograma, sin búsquedas en el registro
+ * de métricas ni reserva de memoria. Un Optional vacío cuenta como not_found; en los métodos
+ * que devuelven un Stream solo se mide la apertura, no su recorrido.
+ */
+public class TemporizadorMetodos implements MethodInterceptor {
+
+    /** Valores de la etiqueta outcome */
+    enum Resultado {
+        OK("ok"),
+        NOT_FOUND("not_found"),
+        CONFLICT("conflict"),
+        PRECONDITION_FAILED("precondition_failed"),
+        BAD_REQUEST("bad_request"),
+        UNAVAILABLE("unavailable"),
+        ERROR("error");
+
+        private final String etiqueta;
+
+        Resultado(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private final Supplier<MeterRegistry> proveedorRegistry;
+    private volatile MeterRegistry registry;
+    private final String nombreMetrica;
+    private final String descripcion;
+    private final ConcurrentHashMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param proveedorRegistry Se consulta en la primera llamada, no al crear el interceptor
+     * @param nombreMetrica Nombre del Timer (ej: usuarios.servicio)
+     * @param descripcion Descripción publicada con la métrica
+     */
+    public TemporizadorMetodos(Supplier<MeterRegistry> proveedorRegistry, String nombreMetrica, String descripcion) {
+        this.proveedorRegistry = proveedorRegistry;
+        this.nombreMetrica = nombreMetrica;
+        this.descripcion = descripcion;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long inicio = System.nanoTime();
+        Resultado resultado = Resultado.ERROR;
+        try {
+            Object valor = invocation.proceed();
+            resultado = valor instanceof Optional<?> opcional && opcional.isEmpty() ? Resultado.NOT_FOUND : Resultado.OK;
+            return valor;
+        } catch (Throwable e) {
+            resultado = clasificar(e);
+            throw e;
+        } finally {
+            timer(invocation.getMethod(), resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Resultado que corresponde a una excepción (el mismo criterio que GlobalExceptionHandler)
+     */
+    static Resultado clasificar(Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
+            return Resultado.NOT_FOUND;
+        }
+        if (e instanceof PrecondicionFallidaException) {
+            return Resultado.PRECONDITION_FAILED;
+        }
+        if (e instanceof DataConflictException || e instanceof DataIntegrityViolationException
+                || e instanceof OptimisticLockingFailureException) {
+            return Resultado.CONFLICT;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return Resultado.BAD_REQUEST;
+        }
+        if (e instanceof ServicioSaturadoException
+                || e instanceof CannotCreateTransactionException && e.getCause() instanceof ServicioSaturadoException) {
+            return Resultado.UNAVAILABLE;
+        }
+        return Resultado.ERROR;
+    }
+
+    private Timer timer(Method metodo, Resultado resultado) {
+        Timer[] porResultado = timers.computeIfAbsent(metodo, m -> new Timer[Resultado.values().length]);
+        Timer timer = porResultado[resultado.ordinal()];
+        if (timer == null) {
+            if (registry == null) {
+                registry = proveedorRegistry.get();
+            }
+            // Carrera benigna: Micrometer devuelve el mismo Timer para el mismo nombre y etiquetas
+            timer = Timer.builder(nombreMetrica)
+                    .description(descripcion)
+                    .tag("method", metodo.getName())
+                    .tag("outcome", resultado.etiqueta)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            porResultado[resultado.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
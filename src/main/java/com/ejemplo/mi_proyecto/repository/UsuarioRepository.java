@@ -1,17 +1,76 @@
 package com.ejemplo.mi_proyecto.repository;
 
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
 import com.ejemplo.mi_proyecto.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryPersonalizado {
+    
+    // Filas que el driver trae por viaje al leer con cursor del servidor
+    String TAMANO_FETCH_STREAM = "500";
     
     // Método personalizado para buscar por email
     Optional<Usuario> findByEmail(String email);
     
     // Método personalizado para verificar si existe un email
     boolean existsByEmail(String email);
+
+    // Devuelve cuáles de los emails dados ya existen (una sola consulta para un lote)
+    @Query("select u.email from Usuario u where u.email in :emails")
+    List<String> findEmailsExistentes(@Param("emails") Collection<String> emails);
+
+    // Actualización condicional en una sola sentencia: UPDATE ... WHERE id = ? AND version = ?
+    // Devuelve 0 si el usuario no existe o su versión ya no es la indicada
+    @Modifying
+    @Query("update Usuario u set u.nombre = :nombre, u.email = :email, u.telefono = :telefono, "
+            + "u.version = u.version + 1 where u.id = :id and u.version = :version")
+    int actualizarSiVersion(@Param("id") Long id, @Param("version") Long version, @Param("nombre") String nombre,
+                            @Param("email") String email, @Param("telefono") String telefono);
+
+    // Paginación por cursor (keyset): WHERE id > ? ORDER BY id LIMIT ?
+    // Usa el índice de la clave primaria, por lo que cada página cuesta lo mismo
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Recorre toda la tabla con un cursor del servidor (requiere transacción activa
+    // y cerrar el Stream). Las entidades son de solo lectura: no se guardan snapshots
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_STREAM),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<Usuario> streamAllByOrderByIdAsc();
+
+    // Recorre solo la columna email (para construir índices en memoria sin cargar entidades)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_STREAM))
+    @Query("select u.email from Usuario u")
+    Stream<String> streamEmails();
+
+    // Recorre los pares ID/email (para el índice de autocompletado en memoria)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH_STREAM))
+    @Query("select new com.ejemplo.mi_proyecto.dto.SugerenciaEmail(u.id, u.email) from Usuario u")
+    Stream<SugerenciaEmail> streamIdsYEmails();
+
+    // Autocompletado desde la base de datos mientras el índice en memoria no está disponible
+    @Query("select new com.ejemplo.mi_proyecto.dto.SugerenciaEmail(u.id, u.email) from Usuario u "
+            + "where u.email like :prefijo escape '\\' order by u.email")
+    List<SugerenciaEmail> findSugerenciasPorPrefijo(@Param("prefijo") String prefijoLike, Limit limit);
+
+    // El prefijo se busca literalmente (sus comodines de LIKE se escapan)
+    default List<SugerenciaEmail> sugerirPorPrefijo(String prefijo, int limite) {
+        return findSugerenciasPorPrefijo(UsuarioRepositoryPersonalizado.escaparLike(prefijo) + "%", Limit.of(limite));
+    }
 }
\ No newline at end of file
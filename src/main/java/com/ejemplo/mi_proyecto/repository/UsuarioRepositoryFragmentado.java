@@ -0,0 +1,482 @@
+package com.ejemplo.mi_proyecto.repository;
+
+import com.ejemplo.mi_proyecto.datasource.Fragmentos;
+import com.ejemplo.mi_proyecto.datasource.GeneradorIdsFragmentados;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Repositorio de usuarios del modo fragmentado: JDBC sobre varias bases de datos (ver Fragmentos)
+ *
+ * La unicidad del email la garantiza la tabla usuarios_emails del fragmento del email (clave primaria
+ * email): un email solo pertenece al usuario si la reserva y la fila del usuario coinciden. Crear un
+ * usuario es una transacción local (su ID se genera en la ranura del email). Cambiar el email o borrar
+ * puede tocar dos fragmentos sin transacción distribuida: primero se reserva el email nuevo, luego se
+ * actualiza el usuario con la reserva bloqueada y al final se libera el anterior. Si algo falla a medias
+ * queda una reserva huérfana, que no da el email por existente y que otro usuario puede ocupar pasada la
+ * gracia. Ocuparla solo es posible si su usuario no tiene el email, comprobado con la reserva bloqueada,
+ * así que la unicidad no depende de la gracia ni de los relojes.
+ */
+@Repository
+@ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "true")
+public class UsuarioRepositoryFragmentado {
+
+    private static final Logger logger = LogManager.getLogger(UsuarioRepositoryFragmentado.class);
+
+    // Filas que se leen de cada fragmento por viaje al exportar
+    static final int TAMANO_PAGINA_EXPORTACION = 500;
+
+    private static final String COLUMNAS = "id, nombre, email, telefono, version";
+
+    private static final String BUSCAR_POR_EMAIL = """
+            SELECT u.id, u.nombre, u.email, u.telefono, u.version
+            FROM usuarios_emails e JOIN usuarios u ON u.id = e.usuario_id AND u.email = e.email
+            WHERE e.email = ?""";
+
+    // Mismo filtro que UsuarioRepositoryPersonalizadoImpl. Cada fragmento toma los primeros por ID de los que
+    // empiezan por el texto y de todas las coincidencias (recorriendo la clave primaria, sin ordenarlas
+    // todas) y devuelve los primeros de la unión; el orden entre fragmentos se rehace en memoria
+    private static final String BUSCAR = """
+            SELECT id, nombre, email, telefono, version FROM (
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE ? ESCAPE '\\' OR email LIKE ? ESCAPE '\\' ORDER BY id LIMIT ?)
+                UNION
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE ? ESCAPE '\\' OR email LIKE ? ESCAPE '\\' ORDER BY id LIMIT ?)
+            ) candidatos
+            ORDER BY CASE WHEN lower(nombre) LIKE ? ESCAPE '\\' OR email LIKE ? ESCAPE '\\' THEN 0 ELSE 1 END, id
+            LIMIT ?""";
+
+    private static final RowMapper<Usuario> MAPEO = (fila, numero) -> {
+        Usuario usuario = new Usuario(fila.getString("nombre"), fila.getString("email"), fila.getString("telefono"));
+        usuario.setId(fila.getLong("id"));
+        usuario.setVersion(fila.getLong("version"));
+        return usuario;
+    };
+
+    private static final Comparator<Usuario> POR_ID = Comparator.comparing(Usuario::getId);
+
+    private final Fragmentos fragmentos;
+    private final GeneradorIdsFragmentados generadorIds;
+    private final long graciaReservasMs;
+
+    public UsuarioRepositoryFragmentado(Fragmentos fragmentos, GeneradorIdsFragmentados generadorIds,
+                                        @Value("${usuarios.bd.fragmentos.gracia-reservas:PT1M}") Duration graciaReservas) {
+        this.fragmentos = fragmentos;
+        this.generadorIds = generadorIds;
+        this.graciaReservasMs = graciaReservas.toMillis();
+    }
+
+    public Optional<Usuario> buscarPorId(long id) {
+        return fragmentos.jdbc(fragmentos.fragmentoDeId(id))
+                .query("SELECT " + COLUMNAS + " FROM usuarios WHERE id = ?", MAPEO, id)
+                .stream().findFirst();
+    }
+
+    /**
+     * Lee los usuarios de cada fragmento con una consulta IN, todos los fragmentos a la vez
+     * @return Usuarios encontrados, sin orden definido
+     */
+    public List<Usuario> buscarPorIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> porFragmento = agruparPorFragmento(ids);
+        List<List<Usuario>> resultados = fragmentos.enTodos(fragmento -> {
+            List<Long> delFragmento = porFragmento.get(fragmento);
+            if (delFragmento == null) {
+                return List.of();
+            }
+            return fragmentos.jdbc(fragmento).query("SELECT " + COLUMNAS + " FROM usuarios WHERE id IN ("
+                    + marcadores(delFragmento.size()) + ")", MAPEO, delFragmento.toArray());
+        });
+        return resultados.stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Busca por email (normalizado) a través de su reserva
+     * Una consulta si el usuario sigue en el fragmento de su email; dos si cambió de email
+     */
+    public Optional<Usuario> buscarPorEmail(String email) {
+        int fragmentoEmail = fragmentos.fragmentoDeEmail(email);
+        List<Usuario> encontrados = fragmentos.jdbc(fragmentoEmail).query(BUSCAR_POR_EMAIL, MAPEO, email);
+        if (!encontrados.isEmpty()) {
+            return Optional.of(encontrados.get(0));
+        }
+        Optional<Long> reservadoPor = usuarioDeReserva(fragmentoEmail, email);
+        if (reservadoPor.isEmpty() || fragmentos.fragmentoDeId(reservadoPor.get()) == fragmentoEmail) {
+            return Optional.empty();
+        }
+        return buscarPorId(reservadoPor.get()).filter(usuario -> email.equals(usuario.getEmail()));
+    }
+
+    /**
+     * Inserta un usuario nuevo con el email ya normalizado; le asigna el ID y la versión 0
+     * @throws DuplicateKeyException si el email pertenece a otro usuario
+     */
+    public Usuario crear(Usuario usuario) {
+        int ranura = GeneradorIdsFragmentados.ranuraDeEmail(usuario.getEmail());
+        long id = generadorIds.generar(ranura);
+        int fragmento = fragmentos.fragmentoDeRanura(ranura);
+        fragmentos.enTransaccion(fragmento, estado -> {
+            reservar(fragmento, usuario.getEmail(), id);
+            fragmentos.jdbc(fragmento).update(
+                    "INSERT INTO usuarios (id, nombre, email, telefono, version) VALUES (?, ?, ?, ?, 0)",
+                    id, usuario.getNombre(), usuario.getEmail(), usuario.getTelefono());
+            return null;
+        });
+        usuario.setId(id);
+        usuario.setVersion(0L);
+        return usuario;
+    }
+
+    /**
+     * Actualiza un usuario si su versión sigue siendo la de la lectura anterior (UPDATE ... AND version = ?)
+     * @param anterior Usuario tal como se leyó (ID, email y versión)
+     * @return Usuario actualizado, o empty si ya no existe o su versión cambió
+     * @throws DuplicateKeyException si el email nuevo pertenece a otro usuario
+     */
+    public Optional<Usuario> actualizar(Usuario anterior, String nombre, String email, String telefono) {
+        long id = anterior.getId();
+        int fragmentoUsuario = fragmentos.fragmentoDeId(id);
+        boolean cambiaEmail = !email.equals(anterior.getEmail());
+        int fragmentoEmailNuevo = fragmentos.fragmentoDeEmail(email);
+        int fragmentoEmailAnterior = fragmentos.fragmentoDeEmail(anterior.getEmail());
+        // Email nuevo reservado en otro fragmento: confirmado antes de tocar el usuario, así que si el
+        // proceso cae después de actualizarlo el email sigue reservado
+        boolean reservaAparte = cambiaEmail && fragmentoEmailNuevo != fragmentoUsuario;
+        if (reservaAparte) {
+            fragmentos.enTransaccion(fragmentoEmailNuevo, estado -> {
+                reservar(fragmentoEmailNuevo, email, id);
+                return null;
+            });
+        }
+        TransactionCallback<Boolean> actualizacion = estado -> {
+            if (cambiaEmail && !reservaAparte) {
+                reservar(fragmentoUsuario, email, id);
+            }
+            int filas = fragmentos.jdbc(fragmentoUsuario).update("UPDATE usuarios SET nombre = ?, email = ?,"
+                            + " telefono = ?, version = version + 1 WHERE id = ? AND version = ?",
+                    nombre, email, telefono, id, anterior.getVersion());
+            if (filas == 0) {
+                estado.setRollbackOnly();
+                return false;
+            }
+            if (cambiaEmail && fragmentoEmailAnterior == fragmentoUsuario) {
+                liberar(fragmentoUsuario, anterior.getEmail(), id);
+            }
+            return true;
+        };
+        boolean actualizado;
+        try {
+            if (reservaAparte) {
+                // La reserva sigue bloqueada hasta confirmar el usuario: quien intente ocuparla espera y
+                // después ve que el usuario ya tiene el email
+                actualizado = fragmentos.enTransaccion(fragmentoEmailNuevo, estado -> {
+                    bloquearReserva(fragmentoEmailNuevo, email, id);
+                    return fragmentos.enTransaccion(fragmentoUsuario, actualizacion);
+                });
+            } else {
+                actualizado = fragmentos.enTransaccion(fragmentoUsuario, actualizacion);
+            }
+        } catch (RuntimeException e) {
+            if (reservaAparte) {
+                liberarSinFallar(fragmentoEmailNuevo, email, id);
+            }
+            throw e;
+        }
+        if (!actualizado) {
+            if (reservaAparte) {
+                liberarSinFallar(fragmentoEmailNuevo, email, id);
+            }
+            return Optional.empty();
+        }
+        if (cambiaEmail && fragmentoEmailAnterior != fragmentoUsuario) {
+            liberarSinFallar(fragmentoEmailAnterior, anterior.getEmail(), id);
+        }
+        Usuario usuario = new Usuario(nombre, email, telefono);
+        usuario.setId(id);
+        usuario.setVersion(anterior.getVersion() + 1);
+        return Optional.of(usuario);
+    }
+
+    /**
+     * Elimina un usuario y libera su email
+     * @return Usuario eliminado, o empty si no existía
+     */
+    public Optional<Usuario> eliminar(long id) {
+        int fragmento = fragmentos.fragmentoDeId(id);
+        Optional<Usuario> eliminado = fragmentos.enTransaccion(fragmento, estado -> {
+            Optional<Usuario> usuario = fragmentos.jdbc(fragmento)
+                    .query("SELECT " + COLUMNAS + " FROM usuarios WHERE id = ? FOR UPDATE", MAPEO, id)
+                    .stream().findFirst();
+            usuario.ifPresent(u -> {
+                fragmentos.jdbc(fragmento).update("DELETE FROM usuarios WHERE id = ?", id);
+                if (fragmentos.fragmentoDeEmail(u.getEmail()) == fragmento) {
+                    liberar(fragmento, u.getEmail(), id);
+                }
+            });
+            return usuario;
+        });
+        eliminado.filter(u -> fragmentos.fragmentoDeEmail(u.getEmail()) != fragmento)
+                .ifPresent(u -> liberarSinFallar(fragmentos.fragmentoDeEmail(u.getEmail()), u.getEmail(), id));
+        return eliminado;
+    }
+
+    /**
+     * Elimina los usuarios indicados: una transacción por fragmento, todos los fragmentos a la vez
+     * @return IDs que existían y se eliminaron
+     */
+    public List<Long> eliminarPorIds(Collection<Long> ids) {
+        Map<Integer, List<Long>> porFragmento = agruparPorFragmento(ids);
+        List<List<Usuario>> resultados = fragmentos.enTodos(fragmento -> {
+            List<Long> delFragmento = porFragmento.get(fragmento);
+            if (delFragmento == null) {
+                return List.<Usuario>of();
+            }
+            return fragmentos.enTransaccion(fragmento, estado -> {
+                String enLista = " WHERE id IN (" + marcadores(delFragmento.size()) + ")";
+                List<Usuario> existentes = fragmentos.jdbc(fragmento).query(
+                        "SELECT " + COLUMNAS + " FROM usuarios" + enLista + " FOR UPDATE", MAPEO, delFragmento.toArray());
+                if (!existentes.isEmpty()) {
+                    fragmentos.jdbc(fragmento).update("DELETE FROM usuarios" + enLista, delFragmento.toArray());
+                    for (Usuario usuario : existentes) {
+                        if (fragmentos.fragmentoDeEmail(usuario.getEmail()) == fragmento) {
+                            liberar(fragmento, usuario.getEmail(), usuario.getId());
+                        }
+                    }
+                }
+                return existentes;
+            });
+        });
+        List<Long> eliminados = new ArrayList<>();
+        for (int fragmento = 0; fragmento < resultados.size(); fragmento++) {
+            for (Usuario usuario : resultados.get(fragmento)) {
+                int fragmentoEmail = fragmentos.fragmentoDeEmail(usuario.getEmail());
+                if (fragmentoEmail != fragmento) {
+                    liberarSinFallar(fragmentoEmail, usuario.getEmail(), usuario.getId());
+                }
+                eliminados.add(usuario.getId());
+            }
+        }
+        return eliminados;
+    }
+
+    /**
+     * Todos los usuarios de todos los fragmentos, ordenados por ID
+     */
+    public List<Usuario> buscarTodos() {
+        List<List<Usuario>> resultados = fragmentos.enTodos(fragmento -> fragmentos.jdbc(fragmento)
+                .query("SELECT " + COLUMNAS + " FROM usuarios ORDER BY id", MAPEO));
+        return mezclar(resultados, POR_ID, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Página por cursor (keyset) entre todos los fragmentos: cada uno devuelve sus primeros
+     * limite usuarios con ID mayor y se mezclan por ID
+     */
+    public List<Usuario> buscarPagina(long despuesDe, int limite) {
+        return mezclar(paginasDeFragmentos(despuesDe, limite), POR_ID, limite);
+    }
+
+    /**
+     * Recorre todos los usuarios ordenados por ID leyendo cada fragmento por páginas:
+     * en memoria solo hay una página por fragmento y cada fila se lee una vez
+     * @return Número de usuarios recorridos
+     */
+    public long recorrer(Consumer<Usuario> consumidor) {
+        int cantidad = fragmentos.cantidad();
+        List<List<Usuario>> paginas = paginasDeFragmentos(0L, TAMANO_PAGINA_EXPORTACION);
+        int[] posiciones = new int[cantidad];
+        PriorityQueue<Integer> siguientes = new PriorityQueue<>(cantidad,
+                Comparator.comparing(fragmento -> paginas.get(fragmento).get(posiciones[fragmento]).getId()));
+        for (int fragmento = 0; fragmento < cantidad; fragmento++) {
+            if (!paginas.get(fragmento).isEmpty()) {
+                siguientes.add(fragmento);
+            }
+        }
+        long total = 0;
+        while (!siguientes.isEmpty()) {
+            int fragmento = siguientes.poll();
+            List<Usuario> pagina = paginas.get(fragmento);
+            Usuario usuario = pagina.get(posiciones[fragmento]++);
+            consumidor.accept(usuario);
+            total++;
+            if (posiciones[fragmento] == pagina.size()) {
+                // Página agotada: la siguiente solo si la actual venía llena
+                if (pagina.size() < TAMANO_PAGINA_EXPORTACION) {
+                    continue;
+                }
+                paginas.set(fragmento, paginaDeFragmento(fragmento, usuario.getId(), TAMANO_PAGINA_EXPORTACION));
+                posiciones[fragmento] = 0;
+                if (paginas.get(fragmento).isEmpty()) {
+                    continue;
+                }
+            }
+            siguientes.add(fragmento);
+        }
+        return total;
+    }
+
+    /**
+     * Busca por parte del nombre o del email en todos los fragmentos: primero los que empiezan
+     * por el texto y después el resto, por ID (sin ordenar por similitud entre fragmentos)
+     * Cada fragmento devuelve sus desplazamiento + límite primeros; la página se corta tras mezclar
+     * @param texto Texto en minúsculas (los comodines de LIKE se escapan aquí)
+     */
+    public List<Usuario> buscarPorNombreOEmail(String texto, int desplazamiento, int limite) {
+        String escapado = UsuarioRepositoryPersonalizado.escaparLike(texto);
+        String patron = "%" + escapado + "%";
+        String prefijo = escapado + "%";
+        int hasta = desplazamiento + limite;
+        List<List<Usuario>> resultados = fragmentos.enTodos(fragmento -> fragmentos.jdbc(fragmento).query(BUSCAR,
+                MAPEO, prefijo, prefijo, hasta, patron, patron, hasta, prefijo, prefijo, hasta));
+        Comparator<Usuario> relevancia = Comparator
+                .comparing((Usuario u) -> !(u.getNombre().toLowerCase().startsWith(texto) || u.getEmail().startsWith(texto)))
+                .thenComparing(POR_ID);
+        List<Usuario> mezcla = mezclar(resultados, relevancia, hasta);
+        return mezcla.subList(Math.min(desplazamiento, mezcla.size()), mezcla.size());
+    }
+
+    /**
+     * Emails que empiezan por el prefijo (normalizado), de todos los fragmentos y ordenados por email
+     * Se reordenan en memoria: la intercalación de la base de datos no tiene por qué coincidir con la de Java
+     */
+    public List<SugerenciaEmail> sugerirPorPrefijo(String prefijo, int limite) {
+        String patron = UsuarioRepositoryPersonalizado.escaparLike(prefijo) + "%";
+        List<List<SugerenciaEmail>> resultados = fragmentos.enTodos(fragmento -> fragmentos.jdbc(fragmento).query(
+                "SELECT id, email FROM usuarios WHERE email LIKE ? ESCAPE '\\' ORDER BY email LIMIT ?",
+                (fila, numero) -> new SugerenciaEmail(fila.getLong("id"), fila.getString("email")), patron, limite));
+        return resultados.stream().flatMap(List::stream)
+                .sorted(Comparator.comparing(SugerenciaEmail::getEmail)).limit(limite).toList();
+    }
+
+    private List<List<Usuario>> paginasDeFragmentos(long despuesDe, int limite) {
+        return fragmentos.enTodos(fragmento -> paginaDeFragmento(fragmento, despuesDe, limite));
+    }
+
+    private List<Usuario> paginaDeFragmento(int fragmento, long despuesDe, int limite) {
+        return fragmentos.jdbc(fragmento).query(
+                "SELECT " + COLUMNAS + " FROM usuarios WHERE id > ? ORDER BY id LIMIT ?", MAPEO, despuesDe, limite);
+    }
+
+    /**
+     * Reserva el email para el usuario dentro de la transacción del fragmento del email
+     * Una reserva existente solo se ocupa si es huérfana: su usuario no tiene ese email y pasó la gracia
+     * (una reserva más reciente puede ser de un cambio de email que aún no ha actualizado al usuario).
+     * Las horas son las de la base de datos del fragmento, no las de cada nodo
+     * @throws DuplicateKeyException si el email pertenece a otro usuario
+     */
+    private void reservar(int fragmento, String email, long id) {
+        List<Object[]> reservas = fragmentos.jdbc(fragmento).query(
+                "SELECT usuario_id, reservado_en, CURRENT_TIMESTAMP FROM usuarios_emails WHERE email = ? FOR UPDATE",
+                (fila, numero) -> new Object[] {fila.getLong(1), fila.getTimestamp(2), fila.getTimestamp(3)}, email);
+        if (reservas.isEmpty()) {
+            // Dos reservas simultáneas del mismo email: la segunda falla con DuplicateKeyException
+            fragmentos.jdbc(fragmento).update("INSERT INTO usuarios_emails (email, usuario_id, reservado_en)"
+                    + " VALUES (?, ?, CURRENT_TIMESTAMP)", email, id);
+            return;
+        }
+        long reservadoPor = (Long) reservas.get(0)[0];
+        Timestamp reservadoEn = (Timestamp) reservas.get(0)[1];
+        Timestamp ahora = (Timestamp) reservas.get(0)[2];
+        if (reservadoPor != id) {
+            boolean enGracia = ahora.getTime() - reservadoEn.getTime() < graciaReservasMs;
+            if (enGracia || buscarPorId(reservadoPor).filter(u -> email.equals(u.getEmail())).isPresent()) {
+                throw new DuplicateKeyException("El email ya está reservado por el usuario " + reservadoPor);
+            }
+            logger.info("Reserva huérfana del email (usuario {}) ocupada por el usuario {}", reservadoPor, id);
+        }
+        fragmentos.jdbc(fragmento).update(
+                "UPDATE usuarios_emails SET usuario_id = ?, reservado_en = CURRENT_TIMESTAMP WHERE email = ?", id, email);
+    }
+
+    /**
+     * Bloquea la reserva del usuario hasta el fin de la transacción del fragmento del email
+     * @throws DuplicateKeyException si otro usuario la ocupó desde que se hizo
+     */
+    private void bloquearReserva(int fragmento, String email, long id) {
+        List<Long> reservadoPor = fragmentos.jdbc(fragmento).queryForList(
+                "SELECT usuario_id FROM usuarios_emails WHERE email = ? FOR UPDATE", Long.class, email);
+        if (!reservadoPor.equals(List.of(id))) {
+            throw new DuplicateKeyException("La reserva del email ya no es del usuario " + id);
+        }
+    }
+
+    private void liberar(int fragmento, String email, long id) {
+        fragmentos.jdbc(fragmento).update("DELETE FROM usuarios_emails WHERE email = ? AND usuario_id = ?", email, id);
+    }
+
+    /**
+     * Libera una reserva de otro fragmento después de confirmar el cambio del usuario
+     * Si falla queda huérfana: no impide nada salvo ocupar el email durante la gracia
+     */
+    private void liberarSinFallar(int fragmento, String email, long id) {
+        try {
+            liberar(fragmento, email, id);
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo liberar la reserva de email del usuario {} en el fragmento {}: {}",
+                    id, fragmento, e.getMessage());
+        }
+    }
+
+    private Optional<Long> usuarioDeReserva(int fragmento, String email) {
+        return fragmentos.jdbc(fragmento).queryForList(
+                "SELECT usuario_id FROM usuarios_emails WHERE email = ?", Long.class, email).stream().findFirst();
+    }
+
+    private Map<Integer, List<Long>> agruparPorFragmento(Collection<Long> ids) {
+        Map<Integer, List<Long>> porFragmento = new HashMap<>();
+        for (Long id : ids) {
+            porFragmento.computeIfAbsent(fragmentos.fragmentoDeId(id), f -> new ArrayList<>()).add(id);
+        }
+        return porFragmento;
+    }
+
+    private static String marcadores(int cantidad) {
+        return String.join(",", Collections.nCopies(cantidad, "?"));
+    }
+
+    /**
+     * Mezcla listas ya ordenadas por el comparador y se queda con las primeras
+     */
+    static <T> List<T> mezclar(List<List<T>> listas, Comparator<? super T> orden, int limite) {
+        int total = listas.stream().mapToInt(List::size).sum();
+        List<T> mezcla = new ArrayList<>(Math.min(total, limite));
+        int[] posiciones = new int[listas.size()];
+        PriorityQueue<Integer> siguientes = new PriorityQueue<>(Math.max(1, listas.size()),
+                (a, b) -> orden.compare(listas.get(a).get(posiciones[a]), listas.get(b).get(posiciones[b])));
+        for (int i = 0; i < listas.size(); i++) {
+            if (!listas.get(i).isEmpty()) {
+                siguientes.add(i);
+            }
+        }
+        while (!siguientes.isEmpty() && mezcla.size() < limite) {
+            int i = siguientes.poll();
+            mezcla.add(listas.get(i).get(posiciones[i]++));
+            if (posiciones[i] < listas.get(i).size()) {
+                siguientes.add(i);
+            }
+        }
+        return mezcla;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ejemplo.mi_proyecto.repository;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operaciones del repositorio de usuarios que no se pueden expresar con consultas derivadas ni JPQL
+ */
+public interface UsuarioRepositoryPersonalizado {
+
+    /**
+     * Elimina los usuarios indicados en una sola sentencia
+     * En PostgreSQL: DELETE FROM usuarios WHERE id = ANY(?) RETURNING id
+     * @param ids IDs a eliminar (sin repetidos)
+     * @return IDs que existían y se eliminaron
+     */
+    List<Long> eliminarPorIds(Collection<Long> ids);
+
+    /**
+     * Busca usuarios cuyo nombre o email contienen el texto, primero los que empiezan por él
+     * En PostgreSQL usa los índices de trigramas (pg_trgm) y ordena por similitud
+     * @param texto Texto en minúsculas (los comodines de LIKE se escapan aquí)
+     * @param desplazamiento Resultados que se saltan (paginación)
+     * @param limite Número máximo de resultados
+     * @return Usuarios ordenados por relevancia
+     */
+    List<Usuario> buscarPorNombreOEmail(String texto, int desplazamiento, int limite);
+
+    /**
+     * Escapa los comodines de LIKE (el carácter de escape por defecto es la barra invertida)
+     */
+    static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,161 @@
+package com.ejemplo.mi_proyecto.repository;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementación de UsuarioRepositoryPersonalizado con JDBC sobre la conexión de la transacción actual
+ * Las entidades afectadas que estuvieran en el contexto de persistencia no se actualizan
+ */
+public class UsuarioRepositoryPersonalizadoImpl implements UsuarioRepositoryPersonalizado {
+
+    // Un único parámetro de tipo array: el texto de la sentencia no depende del número de IDs
+    private static final String ELIMINAR_POSTGRESQL = "DELETE FROM usuarios WHERE id = ANY(?) RETURNING id";
+
+    // Candidatos acotados: por cada columna, las :hasta (desplazamiento + límite) coincidencias más parecidas
+    // al texto, primero entre las que empiezan por él y después entre todas. Los índices GiST de V5 las
+    // recorren por distancia (KNN, <->) y paran al llegar a :hasta; con pocas coincidencias el planificador
+    // prefiere los GIN de V2 y ordenarlas. No se pierde ninguna de la página: si una fila no está entre las
+    // :hasta más parecidas de la columna en la que más se parece, hay :hasta filas de su grupo por delante
+    private static final String BUSCAR_POSTGRESQL = """
+            WITH candidatos AS (
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE :prefijo OR email LIKE :prefijo
+                 ORDER BY lower(nombre) <-> :texto LIMIT :hasta)
+                UNION
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE :prefijo OR email LIKE :prefijo
+                 ORDER BY email <-> :texto LIMIT :hasta)
+                UNION
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE :patron OR email LIKE :patron
+                 ORDER BY lower(nombre) <-> :texto LIMIT :hasta)
+                UNION
+                (SELECT id, nombre, email, telefono, version FROM usuarios
+                 WHERE lower(nombre) LIKE :patron OR email LIKE :patron
+                 ORDER BY email <-> :texto LIMIT :hasta)
+            )
+            SELECT id, nombre, email, telefono, version FROM candidatos
+            ORDER BY (lower(nombre) LIKE :prefijo OR email LIKE :prefijo) DESC,
+                     greatest(similarity(lower(nombre), :texto), similarity(email, :texto)) DESC,
+                     id
+            OFFSET :desplazamiento LIMIT :limite""";
+
+    private static final String BUSCAR_JPQL = """
+            select u from Usuario u
+            where lower(u.nombre) like :patron escape '\\' or u.email like :patron escape '\\'
+            order by case when lower(u.nombre) like :prefijo escape '\\' or u.email like :prefijo escape '\\'
+                          then 0 else 1 end, u.id""";
+
+    private final EntityManager entityManager;
+    // La base de datos no cambia en caliente: se averigua una vez
+    private volatile Boolean postgreSQL;
+
+    public UsuarioRepositoryPersonalizadoImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Long> eliminarPorIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        boolean returning = esPostgreSQL();
+        return entityManager.unwrap(Session.class).doReturningWork(conexion ->
+                returning ? eliminarConReturning(conexion, ids) : eliminarConConsultaPrevia(conexion, ids));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Usuario> buscarPorNombreOEmail(String texto, int desplazamiento, int limite) {
+        String escapado = UsuarioRepositoryPersonalizado.escaparLike(texto);
+        if (esPostgreSQL()) {
+            return entityManager.createNativeQuery(BUSCAR_POSTGRESQL, Usuario.class)
+                    .setParameter("patron", "%" + escapado + "%")
+                    .setParameter("prefijo", escapado + "%")
+                    .setParameter("texto", texto)
+                    .setParameter("hasta", desplazamiento + limite)
+                    .setParameter("desplazamiento", desplazamiento)
+                    .setParameter("limite", limite)
+                    .getResultList();
+        }
+        // Otras bases de datos (H2 en los tests): mismo filtro, orden solo por prefijo e ID
+        return entityManager.createQuery(BUSCAR_JPQL, Usuario.class)
+                .setParameter("patron", "%" + escapado + "%")
+                .setParameter("prefijo", escapado + "%")
+                .setFirstResult(desplazamiento)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    private static List<Long> eliminarConReturning(Connection conexion, Collection<Long> ids) throws SQLException {
+        Array array = conexion.createArrayOf("bigint", ids.toArray());
+        try (PreparedStatement sentencia = conexion.prepareStatement(ELIMINAR_POSTGRESQL)) {
+            sentencia.setArray(1, array);
+            try (ResultSet filas = sentencia.executeQuery()) {
+                return leerIds(filas, ids.size());
+            }
+        } finally {
+            array.free();
+        }
+    }
+
+    /**
+     * Otras bases de datos (H2 en los tests): SELECT de los IDs existentes y DELETE, ambos con IN
+     */
+    private static List<Long> eliminarConConsultaPrevia(Connection conexion, Collection<Long> ids) throws SQLException {
+        String marcadores = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Long> existentes;
+        try (PreparedStatement consulta = conexion.prepareStatement(
+                "SELECT id FROM usuarios WHERE id IN (" + marcadores + ") FOR UPDATE")) {
+            asignar(consulta, ids);
+            try (ResultSet filas = consulta.executeQuery()) {
+                existentes = leerIds(filas, ids.size());
+            }
+        }
+        if (!existentes.isEmpty()) {
+            try (PreparedStatement borrado = conexion.prepareStatement(
+                    "DELETE FROM usuarios WHERE id IN (" + marcadores + ")")) {
+                asignar(borrado, ids);
+                borrado.executeUpdate();
+            }
+        }
+        return existentes;
+    }
+
+    private static void asignar(PreparedStatement sentencia, Collection<Long> ids) throws SQLException {
+        int i = 1;
+        for (Long id : ids) {
+            sentencia.setLong(i++, id);
+        }
+    }
+
+    private static List<Long> leerIds(ResultSet filas, int capacidad) throws SQLException {
+        List<Long> ids = new ArrayList<>(capacidad);
+        while (filas.next()) {
+            ids.add(filas.getLong(1));
+        }
+        return ids;
+    }
+
+    private boolean esPostgreSQL() {
+        Boolean actual = postgreSQL;
+        if (actual == null) {
+            actual = entityManager.unwrap(Session.class).doReturningWork(conexion ->
+                    "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName()));
+            postgreSQL = actual;
+        }
+        return actual;
+    }
+}
@@ -1,8 +1,15 @@
 package com.ejemplo.mi_proyecto.service;
 
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoConsultaLote;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.dto.ResultadoEliminacionLote;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
 import com.ejemplo.mi_proyecto.entity.Usuario;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz del servicio de usuarios que define las operaciones de negocio
@@ -15,6 +22,43 @@ public interface UsuarioService {
      */
     List<Usuario> obtenerTodosLosUsuarios();
     
+    /**
+     * Obtiene una página de usuarios ordenados por ID usando paginación por cursor
+     * @param cursor Cursor opaco devuelto en la página anterior, o null para la primera página
+     * @param limite Número máximo de usuarios por página
+     * @return Página de usuarios con el cursor de la siguiente página (null si no hay más)
+     * @throws IllegalArgumentException si el cursor o el límite no son válidos
+     */
+    PaginaUsuarios obtenerUsuariosPaginados(String cursor, int limite);
+    
+    /**
+     * Busca usuarios por parte del nombre o del email (sin distinguir mayúsculas)
+     * Primero los que empiezan por el texto y después el resto, por similitud
+     * @param texto Texto a buscar (al menos MINIMO_CARACTERES_BUSQUEDA caracteres)
+     * @param desplazamiento Resultados que se saltan (como mucho DESPLAZAMIENTO_MAXIMO_BUSQUEDA)
+     * @param limite Número máximo de resultados (se acota a LIMITE_MAXIMO_BUSQUEDA)
+     * @return Usuarios encontrados, ordenados por relevancia
+     * @throws IllegalArgumentException si el texto es demasiado corto o el desplazamiento o el límite no son válidos
+     */
+    List<Usuario> buscarUsuarios(String texto, int desplazamiento, int limite);
+    
+    /**
+     * Sugerencias de autocompletado: emails que empiezan por el prefijo
+     * Se sirven del índice en memoria si está habilitado y construido; si no, de la base de datos
+     * @param prefijo Inicio del email (se normaliza como el email)
+     * @param limite Número máximo de sugerencias (se acota a LIMITE_MAXIMO_SUGERENCIAS)
+     * @return Sugerencias (ID y email) ordenadas por email
+     * @throws IllegalArgumentException si el prefijo está vacío o el límite no es válido
+     */
+    List<SugerenciaEmail> sugerirEmails(String prefijo, int limite);
+    
+    /**
+     * Recorre todos los usuarios ordenados por ID sin cargarlos en memoria a la vez
+     * @param consumidor Recibe cada usuario (ya desacoplado del contexto de persistencia)
+     * @return Número de usuarios exportados
+     */
+    long exportarUsuarios(Consumer<Usuario> consumidor);
+    
     /**
      * Busca un usuario por su ID
      * @param id ID del usuario
@@ -22,6 +66,21 @@ public interface UsuarioService {
      */
     Optional<Usuario> obtenerUsuarioPorId(Long id);
     
+    /**
+     * Busca varios usuarios por ID: los que no están en caché se leen con una sola consulta
+     * @param ids IDs a buscar (los repetidos se ignoran; como máximo usuarios.lote.maximo-consulta)
+     * @return Usuarios encontrados en el orden pedido y los IDs que no existen
+     * @throws IllegalArgumentException si la lista está vacía, supera el máximo o contiene IDs no válidos
+     */
+    ResultadoConsultaLote obtenerUsuariosPorIds(List<Long> ids);
+    
+    /**
+     * Versión de un usuario si está en la caché local (para responder 304 sin leer la entidad)
+     * @param id ID del usuario
+     * @return Versión cacheada o empty si no está en caché
+     */
+    Optional<Long> obtenerVersionEnCache(Long id);
+    
     /**
      * Busca un usuario por su email
      * @param email Email del usuario
@@ -37,6 +96,16 @@ public interface UsuarioService {
      */
     Usuario crearUsuario(Usuario usuario);
     
+    /**
+     * Crea varios usuarios en una sola transacción usando inserciones en lote
+     * Aplica las mismas validaciones y normalizaciones que crearUsuario. Si el lote choca con un email
+     * creado entretanto, se reintenta usuario a usuario y los que pierden reciben un 409
+     * @param usuarios Usuarios a crear (como máximo usuarios.lote.maximo-creacion)
+     * @return Resultado por cada usuario, en el mismo orden de la lista recibida
+     * @throws IllegalArgumentException si la lista está vacía o supera el máximo
+     */
+    List<ResultadoCreacion> crearUsuarios(List<Usuario> usuarios);
+    
     /**
      * Actualiza un usuario existente
      * @param id ID del usuario a actualizar
@@ -46,6 +115,28 @@ public interface UsuarioService {
      */
     Usuario actualizarUsuario(Long id, Usuario usuarioActualizado);
     
+    /**
+     * Actualiza un usuario solo si su versión actual es la indicada (PUT con If-Match)
+     * Se resuelve con una única sentencia UPDATE ... WHERE id = ? AND version = ?, sin leerlo antes
+     * @param id ID del usuario a actualizar
+     * @param usuarioActualizado Datos actualizados del usuario
+     * @param versionEsperada Versión que debe tener el usuario
+     * @return Usuario actualizado, con la nueva versión
+     * Lanza PrecondicionFallidaException si el usuario tiene otra versión
+     * y ResourceNotFoundException si no existe
+     */
+    Usuario actualizarUsuario(Long id, Usuario usuarioActualizado, long versionEsperada);
+    
+    /**
+     * Actualiza solo los campos presentes en el parche (PATCH con JSON Merge Patch)
+     * Valida únicamente esos campos y escribe solo las columnas cuyo valor cambia
+     * @param id ID del usuario a actualizar
+     * @param parche Campos a modificar; un campo presente con null se borra
+     * @return Usuario actualizado
+     * @throws IllegalArgumentException si algún campo presente no es válido
+     */
+    Usuario actualizarParcialmente(Long id, ParcheUsuario parche);
+    
     /**
      * Elimina un usuario por su ID
      * @param id ID del usuario a eliminar
@@ -53,6 +144,14 @@ public interface UsuarioService {
      */
     void eliminarUsuario(Long id);
     
+    /**
+     * Elimina varios usuarios con una sola sentencia DELETE
+     * @param ids IDs a eliminar (los repetidos se ignoran; como máximo usuarios.lote.maximo-eliminacion)
+     * @return IDs eliminados y los que no existían
+     * @throws IllegalArgumentException si la lista está vacía, supera el máximo o contiene IDs no válidos
+     */
+    ResultadoEliminacionLote eliminarUsuarios(List<Long> ids);
+    
     /**
      * Verifica si existe un usuario con el email dado
      * @param email Email a verificar
@@ -0,0 +1,42 @@
+package com.ejemplo.mi_proyecto.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Número máximo de elementos admitidos por las operaciones masivas de creación, consulta y eliminación
+ * Acotan el tamaño de la sentencia (IN / ANY) y el tiempo que se retienen los bloqueos
+ */
+@Component
+public class LimitesLote {
+
+    private final int maximoCreacion;
+    private final int maximoConsulta;
+    private final int maximoEliminacion;
+
+    public LimitesLote(@Value("${usuarios.lote.maximo-creacion:1000}") int maximoCreacion,
+                       @Value("${usuarios.lote.maximo-consulta:1000}") int maximoConsulta,
+                       @Value("${usuarios.lote.maximo-eliminacion:1000}") int maximoEliminacion) {
+        if (maximoCreacion <= 0 || maximoConsulta <= 0 || maximoEliminacion <= 0) {
+            throw new IllegalArgumentException("Los máximos de las operaciones masivas deben ser positivos");
+        }
+        this.maximoCreacion = maximoCreacion;
+        this.maximoConsulta = maximoConsulta;
+        this.maximoEliminacion = maximoEliminacion;
+    }
+
+    /**
+     * Usuarios por petición en /api/usuarios/batch (y por transacción en la importación NDJSON)
+     */
+    public int maximoCreacion() {
+        return maximoCreacion;
+    }
+
+    public int maximoConsulta() {
+        return maximoConsulta;
+    }
+
+    public int maximoEliminacion() {
+        return maximoEliminacion;
+    }
+}
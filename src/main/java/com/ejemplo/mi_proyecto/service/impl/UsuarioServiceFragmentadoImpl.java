@@ -0,0 +1,388 @@
+package com.ejemplo.mi_proyecto.service.impl;
+
+import com.ejemplo.mi_proyecto.cache.CambioUsuario;
+import com.ejemplo.mi_proyecto.cache.CoalescedorConsultasUsuario;
+import com.ejemplo.mi_proyecto.cache.NotificadorCambiosUsuario;
+import com.ejemplo.mi_proyecto.cache.UsuarioCache;
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoConsultaLote;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.dto.ResultadoEliminacionLote;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.ejemplo.mi_proyecto.exception.CodigoError;
+import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
+import com.ejemplo.mi_proyecto.exception.ResourceNotFoundException;
+import com.ejemplo.mi_proyecto.exception.ValidacionException;
+import com.ejemplo.mi_proyecto.repository.UsuarioRepositoryFragmentado;
+import com.ejemplo.mi_proyecto.service.UsuarioService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Servicio de usuarios del modo fragmentado (usuarios.bd.fragmentos.habilitado=true)
+ *
+ * Mismas reglas de negocio que UsuarioServiceImpl sobre UsuarioRepositoryFragmentado: cada escritura es
+ * una transacción local del fragmento del usuario (más la reserva del email, ver el repositorio) y los
+ * listados consultan todos los fragmentos en paralelo. No usa el filtro de Bloom ni el índice de
+ * autocompletado en memoria, que se construyen desde el repositorio JPA (solo ve el fragmento 0).
+ */
+@Service
+@ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "true")
+public class UsuarioServiceFragmentadoImpl implements UsuarioService {
+
+    private final UsuarioRepositoryFragmentado repositorio;
+    private final UsuarioCache usuarioCache;
+    private final NotificadorCambiosUsuario notificadorCambios;
+    private final CoalescedorConsultasUsuario coalescedor;
+    private final LimitesLote limitesLote;
+
+    public UsuarioServiceFragmentadoImpl(UsuarioRepositoryFragmentado repositorio, UsuarioCache usuarioCache,
+                                         NotificadorCambiosUsuario notificadorCambios,
+                                         CoalescedorConsultasUsuario coalescedor, LimitesLote limitesLote) {
+        this.repositorio = repositorio;
+        this.usuarioCache = usuarioCache;
+        this.notificadorCambios = notificadorCambios;
+        this.coalescedor = coalescedor;
+        this.limitesLote = limitesLote;
+    }
+
+    @Override
+    public List<Usuario> obtenerTodosLosUsuarios() {
+        return repositorio.buscarTodos();
+    }
+
+    @Override
+    public PaginaUsuarios obtenerUsuariosPaginados(String cursor, int limite) {
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        int limiteEfectivo = Math.min(limite, UsuarioServiceImpl.LIMITE_MAXIMO_PAGINA);
+        long despuesDe = cursor == null || cursor.isBlank() ? 0L : UsuarioServiceImpl.decodificarCursor(cursor);
+
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<Usuario> usuarios = repositorio.buscarPagina(despuesDe, limiteEfectivo + 1);
+
+        String siguienteCursor = null;
+        if (usuarios.size() > limiteEfectivo) {
+            usuarios = usuarios.subList(0, limiteEfectivo);
+            siguienteCursor = UsuarioServiceImpl.codificarCursor(usuarios.get(limiteEfectivo - 1).getId());
+        }
+
+        return new PaginaUsuarios(usuarios, siguienteCursor, limiteEfectivo);
+    }
+
+    @Override
+    public List<Usuario> buscarUsuarios(String texto, int desplazamiento, int limite) {
+        String normalizado = texto == null ? "" : texto.trim().toLowerCase();
+        if (normalizado.length() < UsuarioServiceImpl.MINIMO_CARACTERES_BUSQUEDA) {
+            throw new ValidacionException(CodigoError.BUSQUEDA_DEMASIADO_CORTA,
+                    UsuarioServiceImpl.MINIMO_CARACTERES_BUSQUEDA);
+        }
+        if (desplazamiento < 0 || desplazamiento > UsuarioServiceImpl.DESPLAZAMIENTO_MAXIMO_BUSQUEDA) {
+            throw new ValidacionException(CodigoError.DESPLAZAMIENTO_INVALIDO,
+                    UsuarioServiceImpl.DESPLAZAMIENTO_MAXIMO_BUSQUEDA);
+        }
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        return repositorio.buscarPorNombreOEmail(normalizado, desplazamiento,
+                Math.min(limite, UsuarioServiceImpl.LIMITE_MAXIMO_BUSQUEDA));
+    }
+
+    @Override
+    public List<SugerenciaEmail> sugerirEmails(String prefijo, int limite) {
+        String normalizado = prefijo == null ? "" : UsuarioServiceImpl.normalizarEmail(prefijo);
+        if (normalizado.isEmpty()) {
+            throw new ValidacionException(CodigoError.PREFIJO_VACIO);
+        }
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        return repositorio.sugerirPorPrefijo(normalizado,
+                Math.min(limite, UsuarioServiceImpl.LIMITE_MAXIMO_SUGERENCIAS));
+    }
+
+    @Override
+    public long exportarUsuarios(Consumer<Usuario> consumidor) {
+        return repositorio.recorrer(consumidor);
+    }
+
+    @Override
+    public Optional<Usuario> obtenerUsuarioPorId(Long id) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        Optional<Usuario> enCache = usuarioCache.obtenerPorId(id);
+        if (enCache.isPresent()) {
+            return enCache;
+        }
+        return coalescedor.porId(id, () -> leerYCachear(() -> repositorio.buscarPorId(id)));
+    }
+
+    @Override
+    public ResultadoConsultaLote obtenerUsuariosPorIds(List<Long> ids) {
+        Set<Long> pedidos = UsuarioServiceImpl.validarIds(ids, limitesLote.maximoConsulta());
+
+        Map<Long, Usuario> encontrados = new HashMap<>();
+        List<Long> aConsultar = new ArrayList<>();
+        for (Long id : pedidos) {
+            Optional<Usuario> enCache = usuarioCache.obtenerPorId(id);
+            if (enCache.isPresent()) {
+                encontrados.put(id, enCache.get());
+            } else {
+                aConsultar.add(id);
+            }
+        }
+        if (!aConsultar.isEmpty()) {
+            long generacion = usuarioCache.generacion();
+            for (Usuario usuario : repositorio.buscarPorIds(aConsultar)) {
+                usuarioCache.guardar(usuario, generacion);
+                encontrados.put(usuario.getId(), usuario);
+            }
+        }
+
+        List<Usuario> usuarios = new ArrayList<>(encontrados.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : pedidos) {
+            Usuario usuario = encontrados.get(id);
+            if (usuario != null) {
+                usuarios.add(usuario);
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        return new ResultadoConsultaLote(usuarios, noEncontrados);
+    }
+
+    @Override
+    public Optional<Long> obtenerVersionEnCache(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        return usuarioCache.versionPorId(id);
+    }
+
+    @Override
+    public Optional<Usuario> obtenerUsuarioPorEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            throw new ValidacionException(CodigoError.EMAIL_VACIO);
+        }
+        String emailNormalizado = UsuarioServiceImpl.normalizarEmail(email);
+        Optional<Usuario> enCache = usuarioCache.obtenerPorEmail(emailNormalizado);
+        if (enCache.isPresent()) {
+            return enCache;
+        }
+        return coalescedor.porEmail(emailNormalizado,
+                () -> leerYCachear(() -> repositorio.buscarPorEmail(emailNormalizado)));
+    }
+
+    @Override
+    public Usuario crearUsuario(Usuario usuario) {
+        UsuarioServiceImpl.validarUsuario(usuario);
+        usuario.setEmail(UsuarioServiceImpl.normalizarEmail(usuario.getEmail()));
+        usuario.setNombre(usuario.getNombre().trim());
+
+        // Sin notificación: un ID nuevo no está en ninguna caché y este modo no usa el filtro de Bloom
+        // ni el índice de autocompletado, que son los que necesitan conocer las altas
+        return conEmailUnico(usuario.getEmail(), () -> repositorio.crear(usuario));
+    }
+
+    @Override
+    public List<ResultadoCreacion> crearUsuarios(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            throw new ValidacionException(CodigoError.LOTE_VACIO);
+        }
+        if (usuarios.size() > limitesLote.maximoCreacion()) {
+            throw new ValidacionException(CodigoError.LOTE_DEMASIADO_GRANDE, limitesLote.maximoCreacion());
+        }
+
+        // Cada usuario va al fragmento de su email en su propia transacción: uno fallido no afecta a los demás
+        List<ResultadoCreacion> resultados = new ArrayList<>(usuarios.size());
+        Set<String> emailsDelLote = new HashSet<>();
+        for (int i = 0; i < usuarios.size(); i++) {
+            Usuario usuario = usuarios.get(i);
+            try {
+                UsuarioServiceImpl.validarUsuario(usuario);
+            } catch (IllegalArgumentException e) {
+                resultados.add(new ResultadoCreacion(i, HttpStatus.BAD_REQUEST.value(), null, e.getMessage()));
+                continue;
+            }
+            usuario.setEmail(UsuarioServiceImpl.normalizarEmail(usuario.getEmail()));
+            usuario.setNombre(usuario.getNombre().trim());
+            if (!emailsDelLote.add(usuario.getEmail())) {
+                resultados.add(new ResultadoCreacion(i, HttpStatus.CONFLICT.value(), null,
+                        "Email repetido en la petición: " + usuario.getEmail()));
+                continue;
+            }
+            try {
+                repositorio.crear(usuario);
+            } catch (DuplicateKeyException e) {
+                resultados.add(new ResultadoCreacion(i, HttpStatus.CONFLICT.value(), null,
+                        "Ya existe un usuario con el email: " + usuario.getEmail()));
+                continue;
+            }
+            resultados.add(new ResultadoCreacion(i, HttpStatus.CREATED.value(), usuario.getId(), null));
+        }
+        return resultados;
+    }
+
+    @Override
+    public Usuario actualizarUsuario(Long id, Usuario usuarioActualizado) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        Usuario usuarioExistente = repositorio.buscarPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
+        UsuarioServiceImpl.validarUsuario(usuarioActualizado);
+
+        // Si otra petición lo modificó desde la lectura, el UPDATE no encuentra la versión (409, como con JPA)
+        return actualizar(usuarioExistente, usuarioActualizado.getNombre().trim(),
+                UsuarioServiceImpl.normalizarEmail(usuarioActualizado.getEmail()), usuarioActualizado.getTelefono())
+                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(Usuario.class, id));
+    }
+
+    @Override
+    public Usuario actualizarUsuario(Long id, Usuario usuarioActualizado, long versionEsperada) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        UsuarioServiceImpl.validarUsuario(usuarioActualizado);
+
+        // Hace falta leer la fila: el email anterior decide qué reserva liberar
+        Usuario usuarioExistente = repositorio.buscarPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
+        if (usuarioExistente.getVersion() != versionEsperada) {
+            throw new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, id);
+        }
+        Optional<Usuario> actualizado = actualizar(usuarioExistente, usuarioActualizado.getNombre().trim(),
+                UsuarioServiceImpl.normalizarEmail(usuarioActualizado.getEmail()), usuarioActualizado.getTelefono());
+        if (actualizado.isPresent()) {
+            return actualizado.get();
+        }
+        if (repositorio.buscarPorId(id).isPresent()) {
+            throw new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, id);
+        }
+        throw new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id);
+    }
+
+    @Override
+    public Usuario actualizarParcialmente(Long id, ParcheUsuario parche) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        if (parche == null) {
+            throw new ValidacionException(CodigoError.USUARIO_NULO);
+        }
+        if (parche.nombrePresente()) {
+            UsuarioServiceImpl.validarNombre(parche.getNombre());
+        }
+        if (parche.emailPresente()) {
+            UsuarioServiceImpl.validarEmail(parche.getEmail());
+        }
+
+        Usuario usuarioExistente = repositorio.buscarPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
+        String nombre = parche.nombrePresente() ? parche.getNombre().trim() : usuarioExistente.getNombre();
+        String email = parche.emailPresente()
+                ? UsuarioServiceImpl.normalizarEmail(parche.getEmail()) : usuarioExistente.getEmail();
+        String telefono = parche.telefonoPresente() ? parche.getTelefono() : usuarioExistente.getTelefono();
+        if (nombre.equals(usuarioExistente.getNombre()) && email.equals(usuarioExistente.getEmail())
+                && Objects.equals(telefono, usuarioExistente.getTelefono())) {
+            // Nada que escribir: ni UPDATE ni incremento de versión
+            return usuarioExistente;
+        }
+        return actualizar(usuarioExistente, nombre, email, telefono)
+                .orElseThrow(() -> new ObjectOptimisticLockingFailureException(Usuario.class, id));
+    }
+
+    @Override
+    public void eliminarUsuario(Long id) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        Usuario usuario = repositorio.eliminar(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
+        usuarioCache.invalidar(id);
+        notificadorCambios.notificar(new CambioUsuario(id, usuario.getEmail(), null));
+    }
+
+    @Override
+    public ResultadoEliminacionLote eliminarUsuarios(List<Long> ids) {
+        Set<Long> pedidos = UsuarioServiceImpl.validarIds(ids, limitesLote.maximoEliminacion());
+
+        Set<Long> eliminados = new HashSet<>(repositorio.eliminarPorIds(pedidos));
+
+        List<Long> listaEliminados = new ArrayList<>(eliminados.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        List<CambioUsuario> cambios = new ArrayList<>(eliminados.size());
+        for (Long id : pedidos) {
+            if (eliminados.contains(id)) {
+                listaEliminados.add(id);
+                usuarioCache.invalidar(id);
+                cambios.add(new CambioUsuario(id, null, null));
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        notificadorCambios.notificarTodos(cambios);
+        return new ResultadoEliminacionLote(listaEliminados, noEncontrados);
+    }
+
+    @Override
+    public boolean existeUsuarioConEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return false;
+        }
+        return repositorio.buscarPorEmail(UsuarioServiceImpl.normalizarEmail(email)).isPresent();
+    }
+
+    /**
+     * Escribe el cambio, invalida la caché y lo difunde a los demás nodos
+     */
+    private Optional<Usuario> actualizar(Usuario anterior, String nombre, String email, String telefono) {
+        Optional<Usuario> actualizado = conEmailUnico(email,
+                () -> repositorio.actualizar(anterior, nombre, email, telefono));
+        actualizado.ifPresent(usuario -> {
+            usuarioCache.invalidar(usuario.getId());
+            boolean cambiaEmail = !email.equals(anterior.getEmail());
+            notificadorCambios.notificar(
+                    new CambioUsuario(usuario.getId(), cambiaEmail ? anterior.getEmail() : null, email));
+        });
+        return actualizado;
+    }
+
+    private Optional<Usuario> leerYCachear(Supplier<Optional<Usuario>> consulta) {
+        long generacion = usuarioCache.generacion();
+        Optional<Usuario> usuario = consulta.get();
+        usuario.ifPresent(u -> usuarioCache.guardar(u, generacion));
+        return usuario;
+    }
+
+    /**
+     * Traduce la reserva fallida del email (ya pertenece a otro usuario) en un conflicto (409)
+     */
+    private static <T> T conEmailUnico(String email, Supplier<T> escritura) {
+        try {
+            return escritura.get();
+        } catch (DuplicateKeyException e) {
+            throw new DataConflictException(CodigoError.EMAIL_DUPLICADO, e, email);
+        }
+    }
+}
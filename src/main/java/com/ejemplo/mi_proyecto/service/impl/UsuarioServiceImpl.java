@@ -1,16 +1,53 @@
 package com.ejemplo.mi_proyecto.service.impl;
 
+import com.ejemplo.mi_proyecto.cache.CambioUsuario;
+import com.ejemplo.mi_proyecto.cache.CoalescedorConsultasUsuario;
+import com.ejemplo.mi_proyecto.cache.FiltroEmails;
+import com.ejemplo.mi_proyecto.cache.IndiceTypeaheadEmails;
+import com.ejemplo.mi_proyecto.cache.NotificadorCambiosUsuario;
+import com.ejemplo.mi_proyecto.cache.UsuarioCache;
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoConsultaLote;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.dto.ResultadoEliminacionLote;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
 import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.ejemplo.mi_proyecto.exception.CodigoError;
 import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
 import com.ejemplo.mi_proyecto.exception.ResourceNotFoundException;
+import com.ejemplo.mi_proyecto.exception.ValidacionException;
 import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
 import com.ejemplo.mi_proyecto.service.UsuarioService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio de usuarios
@@ -18,13 +55,53 @@ import java.util.Optional;
  */
 @Service
 @Transactional
+@ConditionalOnProperty(name = "usuarios.bd.fragmentos.habilitado", havingValue = "false", matchIfMissing = true)
 public class UsuarioServiceImpl implements UsuarioService {
 
+    /** Tamaño máximo de página permitido en la paginación por cursor */
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+
+    /** Número máximo de resultados de una búsqueda por texto */
+    public static final int LIMITE_MAXIMO_BUSQUEDA = 50;
+
+    /** Desplazamiento máximo de la paginación de la búsqueda (acota la ordenación por relevancia) */
+    public static final int DESPLAZAMIENTO_MAXIMO_BUSQUEDA = 1000;
+
+    /** Longitud mínima del texto de búsqueda (con menos, los trigramas no acotan la búsqueda) */
+    public static final int MINIMO_CARACTERES_BUSQUEDA = 3;
+
+    /** Número máximo de sugerencias del autocompletado de emails */
+    public static final int LIMITE_MAXIMO_SUGERENCIAS = 20;
+
+    /** Tamaño de cada lote JDBC (igual a hibernate.jdbc.batch_size y al allocationSize de la secuencia) */
+    static final int TAMANO_LOTE_JDBC = 50;
+
     private final UsuarioRepository usuarioRepository;
+    private final EntityManager entityManager;
+    private final UsuarioCache usuarioCache;
+    private final NotificadorCambiosUsuario notificadorCambios;
+    private final CoalescedorConsultasUsuario coalescedor;
+    private final FiltroEmails filtroEmails;
+    private final LimitesLote limitesLote;
+    private final IndiceTypeaheadEmails indiceTypeahead;
+    // Transacciones de la creación en lote, que al fallar el lote reintenta usuario a usuario
+    private final TransactionTemplate transaccion;
 
     @Autowired
-    public UsuarioServiceImpl(UsuarioRepository usuarioRepository) {
+    public UsuarioServiceImpl(UsuarioRepository usuarioRepository, EntityManager entityManager,
+                              UsuarioCache usuarioCache, NotificadorCambiosUsuario notificadorCambios,
+                              CoalescedorConsultasUsuario coalescedor, FiltroEmails filtroEmails,
+                              LimitesLote limitesLote, IndiceTypeaheadEmails indiceTypeahead,
+                              PlatformTransactionManager transactionManager) {
         this.usuarioRepository = usuarioRepository;
+        this.entityManager = entityManager;
+        this.usuarioCache = usuarioCache;
+        this.notificadorCambios = notificadorCambios;
+        this.coalescedor = coalescedor;
+        this.filtroEmails = filtroEmails;
+        this.limitesLote = limitesLote;
+        this.indiceTypeahead = indiceTypeahead;
+        this.transaccion = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -35,20 +112,163 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional(readOnly = true)
+    public PaginaUsuarios obtenerUsuariosPaginados(String cursor, int limite) {
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        int limiteEfectivo = Math.min(limite, LIMITE_MAXIMO_PAGINA);
+        long despuesDe = cursor == null || cursor.isBlank() ? 0L : decodificarCursor(cursor);
+        
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<Usuario> usuarios = usuarioRepository.findByIdGreaterThanOrderByIdAsc(
+                despuesDe, Limit.of(limiteEfectivo + 1));
+        
+        String siguienteCursor = null;
+        if (usuarios.size() > limiteEfectivo) {
+            usuarios = usuarios.subList(0, limiteEfectivo);
+            siguienteCursor = codificarCursor(usuarios.get(limiteEfectivo - 1).getId());
+        }
+        
+        return new PaginaUsuarios(usuarios, siguienteCursor, limiteEfectivo);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Usuario> buscarUsuarios(String texto, int desplazamiento, int limite) {
+        String normalizado = texto == null ? "" : texto.trim().toLowerCase();
+        if (normalizado.length() < MINIMO_CARACTERES_BUSQUEDA) {
+            throw new ValidacionException(CodigoError.BUSQUEDA_DEMASIADO_CORTA, MINIMO_CARACTERES_BUSQUEDA);
+        }
+        if (desplazamiento < 0 || desplazamiento > DESPLAZAMIENTO_MAXIMO_BUSQUEDA) {
+            throw new ValidacionException(CodigoError.DESPLAZAMIENTO_INVALIDO, DESPLAZAMIENTO_MAXIMO_BUSQUEDA);
+        }
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        return usuarioRepository.buscarPorNombreOEmail(normalizado, desplazamiento,
+                Math.min(limite, LIMITE_MAXIMO_BUSQUEDA));
+    }
+
+    // SUPPORTS: con el índice en memoria no se abre transacción ni se pide conexión
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<SugerenciaEmail> sugerirEmails(String prefijo, int limite) {
+        String normalizado = prefijo == null ? "" : normalizarEmail(prefijo);
+        if (normalizado.isEmpty()) {
+            throw new ValidacionException(CodigoError.PREFIJO_VACIO);
+        }
+        if (limite <= 0) {
+            throw new ValidacionException(CodigoError.LIMITE_INVALIDO);
+        }
+        int limiteEfectivo = Math.min(limite, LIMITE_MAXIMO_SUGERENCIAS);
+        return indiceTypeahead.sugerir(normalizado, limiteEfectivo)
+                .orElseGet(() -> usuarioRepository.sugerirPorPrefijo(normalizado, limiteEfectivo));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarUsuarios(Consumer<Usuario> consumidor) {
+        long total = 0;
+        try (Stream<Usuario> usuarios = usuarioRepository.streamAllByOrderByIdAsc()) {
+            for (Usuario usuario : (Iterable<Usuario>) usuarios::iterator) {
+                // Desacoplar cada fila para que el contexto de persistencia no crezca
+                entityManager.detach(usuario);
+                consumidor.accept(usuario);
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // SUPPORTS: un acierto de caché no abre transacción ni pide conexión al pool;
+    // en un fallo, el repositorio abre su propia transacción de solo lectura
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Usuario> obtenerUsuarioPorId(Long id) {
         if (id == null || id <= 0) {
-            throw new IllegalArgumentException("El ID del usuario debe ser un número positivo");
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        Optional<Usuario> enCache = usuarioCache.obtenerPorId(id);
+        if (enCache.isPresent()) {
+            return enCache;
         }
-        return usuarioRepository.findById(id);
+        // Las peticiones concurrentes por el mismo ID comparten una única consulta
+        return coalescedor.porId(id, () -> {
+            long generacion = usuarioCache.generacion();
+            Optional<Usuario> usuario = usuarioRepository.findById(id);
+            usuario.ifPresent(u -> usuarioCache.guardar(u, generacion));
+            return usuario;
+        });
     }
 
+    // SUPPORTS: si todos están en caché no se pide conexión; los demás se leen con una sola consulta IN
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ResultadoConsultaLote obtenerUsuariosPorIds(List<Long> ids) {
+        Set<Long> pedidos = validarIds(ids, limitesLote.maximoConsulta());
+        
+        Map<Long, Usuario> encontrados = new HashMap<>();
+        List<Long> aConsultar = new ArrayList<>();
+        for (Long id : pedidos) {
+            Optional<Usuario> enCache = usuarioCache.obtenerPorId(id);
+            if (enCache.isPresent()) {
+                encontrados.put(id, enCache.get());
+            } else {
+                aConsultar.add(id);
+            }
+        }
+        if (!aConsultar.isEmpty()) {
+            long generacion = usuarioCache.generacion();
+            for (Usuario usuario : usuarioRepository.findAllById(aConsultar)) {
+                usuarioCache.guardar(usuario, generacion);
+                encontrados.put(usuario.getId(), usuario);
+            }
+        }
+        
+        List<Usuario> usuarios = new ArrayList<>(encontrados.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : pedidos) {
+            Usuario usuario = encontrados.get(id);
+            if (usuario != null) {
+                usuarios.add(usuario);
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        return new ResultadoConsultaLote(usuarios, noEncontrados);
+    }
+
+    // Solo consulta la caché: sin transacción ni conexión
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Optional<Long> obtenerVersionEnCache(Long id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        return usuarioCache.versionPorId(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Optional<Usuario> obtenerUsuarioPorEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
-            throw new IllegalArgumentException("El email no puede estar vacío");
+            throw new ValidacionException(CodigoError.EMAIL_VACIO);
+        }
+        String emailNormalizado = normalizarEmail(email);
+        Optional<Usuario> enCache = usuarioCache.obtenerPorEmail(emailNormalizado);
+        if (enCache.isPresent()) {
+            return enCache;
         }
-        return usuarioRepository.findByEmail(email.trim().toLowerCase());
+        // El filtro de Bloom descarta sin consulta los emails que seguro no existen
+        if (!filtroEmails.puedeExistir(emailNormalizado)) {
+            return Optional.empty();
+        }
+        return coalescedor.porEmail(emailNormalizado, () -> {
+            long generacion = usuarioCache.generacion();
+            Optional<Usuario> usuario = usuarioRepository.findByEmail(emailNormalizado);
+            usuario.ifPresent(u -> usuarioCache.guardar(u, generacion));
+            return usuario;
+        });
     }
 
     @Override
@@ -57,68 +277,293 @@ public class UsuarioServiceImpl implements UsuarioService {
         validarUsuario(usuario);
         
         // Normalizar email
-        usuario.setEmail(usuario.getEmail().trim().toLowerCase());
-        
-        // Verificar que el email no exista
-        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
-            throw new DataConflictException("Ya existe un usuario con el email: " + usuario.getEmail());
-        }
+        usuario.setEmail(normalizarEmail(usuario.getEmail()));
         
         // Normalizar nombre
         if (usuario.getNombre() != null) {
             usuario.setNombre(usuario.getNombre().trim());
         }
         
-        // Guardar usuario
-        return usuarioRepository.save(usuario);
+        // Guardar usuario: la unicidad del email la garantiza el índice único,
+        // sin consulta previa y sin carrera entre peticiones concurrentes.
+        // No hace falta tocar la caché: el ID es nuevo y el índice por email se verifica al leer
+        Usuario creado = guardarConEmailUnico(usuario);
+        registrarAltas(List.of(creado));
+        return creado;
+    }
+
+    // Sin transacción propia: el lote va en una y, si falla por un email duplicado, cada reintento en otra
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ResultadoCreacion> crearUsuarios(List<Usuario> usuarios) {
+        if (usuarios == null || usuarios.isEmpty()) {
+            throw new ValidacionException(CodigoError.LOTE_VACIO);
+        }
+        if (usuarios.size() > limitesLote.maximoCreacion()) {
+            throw new ValidacionException(CodigoError.LOTE_DEMASIADO_GRANDE, limitesLote.maximoCreacion());
+        }
+        
+        ResultadoCreacion[] resultados = new ResultadoCreacion[usuarios.size()];
+        
+        // Validar y normalizar; los emails repetidos dentro del propio lote son conflicto
+        Map<String, Integer> validos = new LinkedHashMap<>();
+        for (int i = 0; i < usuarios.size(); i++) {
+            Usuario usuario = usuarios.get(i);
+            try {
+                validarUsuario(usuario);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = new ResultadoCreacion(i, HttpStatus.BAD_REQUEST.value(), null, e.getMessage());
+                continue;
+            }
+            usuario.setEmail(normalizarEmail(usuario.getEmail()));
+            usuario.setNombre(usuario.getNombre().trim());
+            if (validos.putIfAbsent(usuario.getEmail(), i) != null) {
+                resultados[i] = new ResultadoCreacion(i, HttpStatus.CONFLICT.value(), null,
+                        "Email repetido en la petición: " + usuario.getEmail());
+            }
+        }
+        
+        List<Integer> creados;
+        try {
+            creados = transaccion.execute(estado -> insertarLote(usuarios, validos, resultados));
+        } catch (DataIntegrityViolationException e) {
+            if (!esViolacionDeUnicidad(e)) {
+                throw e;
+            }
+            // Un email se creó entre la comprobación y el INSERT (o el filtro de Bloom lo descartó por error):
+            // el lote se deshizo entero y se reintenta usuario a usuario
+            creados = insertarUnoAUno(usuarios, validos, resultados);
+        }
+        
+        List<Usuario> altas = new ArrayList<>(creados.size());
+        for (int i : creados) {
+            altas.add(usuarios.get(i));
+            resultados[i] = new ResultadoCreacion(i, HttpStatus.CREATED.value(), usuarios.get(i).getId(), null);
+        }
+        registrarAltas(altas);
+        return List.of(resultados);
+    }
+
+    /**
+     * Comprueba qué emails ya existen e inserta el resto en bloques del tamaño del lote JDBC
+     * @return Índices de los usuarios insertados
+     */
+    private List<Integer> insertarLote(List<Usuario> usuarios, Map<String, Integer> validos,
+                                       ResultadoCreacion[] resultados) {
+        // Verificar en una sola consulta qué emails ya existen; los que el filtro de Bloom
+        // descarta no necesitan comprobarse
+        List<String> aComprobar = validos.keySet().stream().filter(filtroEmails::puedeExistir).toList();
+        if (!aComprobar.isEmpty()) {
+            for (String email : new HashSet<>(usuarioRepository.findEmailsExistentes(aComprobar))) {
+                int i = validos.remove(email);
+                resultados[i] = new ResultadoCreacion(i, HttpStatus.CONFLICT.value(), null,
+                        "Ya existe un usuario con el email: " + email);
+            }
+        }
+        
+        // Insertar en bloques del tamaño del lote JDBC, vaciando el contexto de persistencia
+        List<Usuario> bloque = new ArrayList<>(TAMANO_LOTE_JDBC);
+        for (int i : validos.values()) {
+            bloque.add(usuarios.get(i));
+            if (bloque.size() == TAMANO_LOTE_JDBC) {
+                guardarBloque(bloque);
+            }
+        }
+        guardarBloque(bloque);
+        return new ArrayList<>(validos.values());
+    }
+
+    /**
+     * Inserta cada usuario en su propia transacción; los que chocan con un email existente reciben un 409
+     * @return Índices de los usuarios insertados
+     */
+    private List<Integer> insertarUnoAUno(List<Usuario> usuarios, Map<String, Integer> validos,
+                                          ResultadoCreacion[] resultados) {
+        List<Integer> creados = new ArrayList<>(validos.size());
+        for (int i : validos.values()) {
+            Usuario usuario = usuarios.get(i);
+            // El ID y la versión asignados en el lote deshecho no valen
+            usuario.setId(null);
+            usuario.setVersion(null);
+            try {
+                transaccion.execute(estado -> guardarConEmailUnico(usuario));
+                creados.add(i);
+            } catch (DataConflictException e) {
+                resultados[i] = new ResultadoCreacion(i, HttpStatus.CONFLICT.value(), null, e.getMessage());
+            }
+        }
+        return creados;
     }
 
     @Override
     public Usuario actualizarUsuario(Long id, Usuario usuarioActualizado) {
         // Validar ID
         if (id == null || id <= 0) {
-            throw new IllegalArgumentException("El ID del usuario debe ser un número positivo");
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
         }
         
         // Buscar usuario existente
         Usuario usuarioExistente = usuarioRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
         
         // Validar datos del usuario actualizado
         validarUsuario(usuarioActualizado);
         
         // Normalizar email
-        String emailNormalizado = usuarioActualizado.getEmail().trim().toLowerCase();
-        
-        // Verificar email único (solo si cambió)
-        if (!usuarioExistente.getEmail().equals(emailNormalizado)) {
-            if (usuarioRepository.existsByEmail(emailNormalizado)) {
-                throw new DataConflictException("Ya existe un usuario con el email: " + emailNormalizado);
-            }
-        }
+        String emailNormalizado = normalizarEmail(usuarioActualizado.getEmail());
+        String emailAnterior = usuarioExistente.getEmail();
         
-        // Actualizar campos
+        // Actualizar campos (si el email cambió a uno ya usado, lo detecta el índice único)
         usuarioExistente.setNombre(usuarioActualizado.getNombre().trim());
         usuarioExistente.setEmail(emailNormalizado);
         usuarioExistente.setTelefono(usuarioActualizado.getTelefono());
         
-        return usuarioRepository.save(usuarioExistente);
+        // La entidad está gestionada: basta con el flush (UPDATE ... WHERE id = ? AND version = ?);
+        // si otra petición la modificó desde la lectura, falla con OptimisticLockingFailureException
+        conEmailUnico(emailNormalizado, () -> {
+            usuarioRepository.flush();
+            return usuarioExistente;
+        });
+        filtroEmails.registrar(emailNormalizado);
+        usuarioCache.invalidar(id);
+        publicarCambio(new CambioUsuario(id, emailAnterior, emailNormalizado));
+        return usuarioExistente;
+    }
+
+    @Override
+    public Usuario actualizarUsuario(Long id, Usuario usuarioActualizado, long versionEsperada) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        validarUsuario(usuarioActualizado);
+        String nombre = usuarioActualizado.getNombre().trim();
+        String emailNormalizado = normalizarEmail(usuarioActualizado.getEmail());
+        String telefono = usuarioActualizado.getTelefono();
+        
+        // Un único viaje a la base de datos cuando la versión coincide
+        int filas = conEmailUnico(emailNormalizado, () ->
+                usuarioRepository.actualizarSiVersion(id, versionEsperada, nombre, emailNormalizado, telefono));
+        if (filas == 0) {
+            // Solo en el caso de error se distingue entre versión distinta y usuario inexistente
+            if (usuarioRepository.existsById(id)) {
+                throw new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, id);
+            }
+            throw new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id);
+        }
+        
+        Usuario usuario = new Usuario(nombre, emailNormalizado, telefono);
+        usuario.setId(id);
+        usuario.setVersion(versionEsperada + 1);
+        filtroEmails.registrar(emailNormalizado);
+        usuarioCache.invalidar(id);
+        // El email anterior no se conoce sin leer la fila; los demás nodos solo usan el ID y el nuevo
+        publicarCambio(new CambioUsuario(id, null, emailNormalizado));
+        return usuario;
+    }
+
+    @Override
+    public Usuario actualizarParcialmente(Long id, ParcheUsuario parche) {
+        if (id == null || id <= 0) {
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
+        }
+        if (parche == null) {
+            throw new ValidacionException(CodigoError.USUARIO_NULO);
+        }
+        
+        // Solo se validan los campos que trae el parche
+        if (parche.nombrePresente()) {
+            validarNombre(parche.getNombre());
+        }
+        if (parche.emailPresente()) {
+            validarEmail(parche.getEmail());
+        }
+        
+        Usuario usuarioExistente = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
+        
+        // Se asignan solo los valores que cambian: con @DynamicUpdate el UPDATE incluye solo esas columnas
+        boolean modificado = false;
+        if (parche.nombrePresente()) {
+            String nombre = parche.getNombre().trim();
+            if (!nombre.equals(usuarioExistente.getNombre())) {
+                usuarioExistente.setNombre(nombre);
+                modificado = true;
+            }
+        }
+        String emailAnterior = usuarioExistente.getEmail();
+        String emailNuevo = null;
+        if (parche.emailPresente()) {
+            String emailNormalizado = normalizarEmail(parche.getEmail());
+            if (!emailNormalizado.equals(emailAnterior)) {
+                usuarioExistente.setEmail(emailNormalizado);
+                emailNuevo = emailNormalizado;
+                modificado = true;
+            }
+        }
+        if (parche.telefonoPresente() && !Objects.equals(parche.getTelefono(), usuarioExistente.getTelefono())) {
+            usuarioExistente.setTelefono(parche.getTelefono());
+            modificado = true;
+        }
+        if (!modificado) {
+            // Nada que escribir: ni UPDATE ni incremento de versión
+            return usuarioExistente;
+        }
+        
+        // La violación del índice único solo es posible si el email cambió
+        if (emailNuevo == null) {
+            usuarioRepository.flush();
+        } else {
+            conEmailUnico(emailNuevo, () -> {
+                usuarioRepository.flush();
+                return usuarioExistente;
+            });
+            filtroEmails.registrar(emailNuevo);
+        }
+        usuarioCache.invalidar(id);
+        // emailNuevo siempre informado: null en un cambio significa que el usuario ya no existe
+        publicarCambio(new CambioUsuario(id, emailNuevo == null ? null : emailAnterior, usuarioExistente.getEmail()));
+        return usuarioExistente;
     }
 
     @Override
     public void eliminarUsuario(Long id) {
         // Validar ID
         if (id == null || id <= 0) {
-            throw new IllegalArgumentException("El ID del usuario debe ser un número positivo");
+            throw new ValidacionException(CodigoError.ID_INVALIDO);
         }
         
-        // Verificar que el usuario exista
-        if (!usuarioRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Usuario no encontrado con ID: " + id);
-        }
+        // Buscar el usuario (su email se difunde a los demás nodos)
+        Usuario usuario = usuarioRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, id));
         
         // Eliminar usuario
-        usuarioRepository.deleteById(id);
+        usuarioRepository.delete(usuario);
+        usuarioCache.invalidar(id);
+        publicarCambio(new CambioUsuario(id, usuario.getEmail(), null));
+    }
+
+    @Override
+    public ResultadoEliminacionLote eliminarUsuarios(List<Long> ids) {
+        Set<Long> pedidos = validarIds(ids, limitesLote.maximoEliminacion());
+        
+        // Una sola sentencia para todo el lote, sin leer las entidades
+        Set<Long> eliminados = new HashSet<>(usuarioRepository.eliminarPorIds(pedidos));
+        
+        List<Long> listaEliminados = new ArrayList<>(eliminados.size());
+        List<Long> noEncontrados = new ArrayList<>();
+        List<CambioUsuario> cambios = new ArrayList<>(eliminados.size());
+        for (Long id : pedidos) {
+            if (eliminados.contains(id)) {
+                listaEliminados.add(id);
+                usuarioCache.invalidar(id);
+                cambios.add(new CambioUsuario(id, null, null));
+            } else {
+                noEncontrados.add(id);
+            }
+        }
+        notificadorCambios.notificarTodos(cambios);
+        cambios.forEach(indiceTypeahead::aplicar);
+        return new ResultadoEliminacionLote(listaEliminados, noEncontrados);
     }
 
     @Override
@@ -127,40 +572,180 @@ public class UsuarioServiceImpl implements UsuarioService {
         if (email == null || email.trim().isEmpty()) {
             return false;
         }
-        return usuarioRepository.existsByEmail(email.trim().toLowerCase());
+        String emailNormalizado = normalizarEmail(email);
+        return filtroEmails.puedeExistir(emailNormalizado) && usuarioRepository.existsByEmail(emailNormalizado);
+    }
+
+    /**
+     * Añade los emails de usuarios recién creados al filtro de Bloom y al índice de este nodo, y los
+     * difunde a los demás con una sola sentencia. Un ID nuevo no está en ninguna caché: si el filtro y
+     * el índice están deshabilitados (la misma configuración en todos los nodos) no se notifica nada
+     */
+    private void registrarAltas(List<Usuario> creados) {
+        List<CambioUsuario> cambios = new ArrayList<>(creados.size());
+        for (Usuario usuario : creados) {
+            CambioUsuario cambio = new CambioUsuario(usuario.getId(), null, usuario.getEmail());
+            filtroEmails.registrar(usuario.getEmail());
+            indiceTypeahead.aplicar(cambio);
+            cambios.add(cambio);
+        }
+        if (filtroEmails.habilitado() || indiceTypeahead.habilitado()) {
+            notificadorCambios.notificarTodos(cambios);
+        }
+    }
+
+    /**
+     * Difunde un cambio a los demás nodos y lo aplica al índice de autocompletado de este
+     */
+    private void publicarCambio(CambioUsuario cambio) {
+        notificadorCambios.notificar(cambio);
+        indiceTypeahead.aplicar(cambio);
+    }
+
+    /**
+     * Guarda el usuario y fuerza la escritura para que una violación del índice único
+     * del email se traduzca aquí en un conflicto (409) en lugar de un error genérico
+     * @throws DataConflictException si el email ya pertenece a otro usuario
+     */
+    private Usuario guardarConEmailUnico(Usuario usuario) {
+        return conEmailUnico(usuario.getEmail(), () -> usuarioRepository.saveAndFlush(usuario));
+    }
+
+    /**
+     * Ejecuta una escritura que debe llegar a la base de datos y traduce la violación
+     * del índice único del email en un conflicto (409)
+     */
+    private static <T> T conEmailUnico(String email, Supplier<T> escritura) {
+        try {
+            return escritura.get();
+        } catch (DataIntegrityViolationException e) {
+            if (esViolacionDeUnicidad(e)) {
+                throw new DataConflictException(CodigoError.EMAIL_DUPLICADO, e, email);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si la excepción se debe a una restricción UNIQUE (el email es la única columna única)
+     */
+    private static boolean esViolacionDeUnicidad(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violacion
+                && violacion.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+    }
+
+    /**
+     * Persiste un bloque de usuarios como un lote JDBC y libera el contexto de persistencia
+     */
+    private void guardarBloque(List<Usuario> bloque) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        usuarioRepository.saveAll(bloque);
+        entityManager.flush();
+        entityManager.clear();
+        bloque.clear();
+    }
+
+    /**
+     * Valida una lista de IDs de una operación masiva y elimina los repetidos conservando el orden
+     * @throws ValidacionException si está vacía, supera el máximo o algún ID no es válido
+     */
+    static Set<Long> validarIds(List<Long> ids, int maximo) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidacionException(CodigoError.IDS_VACIOS);
+        }
+        if (ids.size() > maximo) {
+            throw new ValidacionException(CodigoError.IDS_DEMASIADOS, maximo);
+        }
+        Set<Long> unicos = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new ValidacionException(CodigoError.ID_INVALIDO);
+            }
+            unicos.add(id);
+        }
+        return unicos;
+    }
+
+    /**
+     * Normaliza un email para almacenarlo y compararlo (sin espacios y en minúsculas)
+     */
+    static String normalizarEmail(String email) {
+        return email.trim().toLowerCase();
+    }
+
+    /**
+     * Codifica el último ID de una página como cursor opaco (Base64 URL-safe)
+     */
+    static String codificarCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un cursor opaco al ID a partir del cual continuar
+     * @throws ValidacionException si el cursor no es válido
+     */
+    static long decodificarCursor(String cursor) {
+        long id;
+        try {
+            id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+            id = -1;
+        }
+        if (id < 0) {
+            throw new ValidacionException(CodigoError.CURSOR_INVALIDO);
+        }
+        return id;
     }
 
     /**
      * Valida los datos básicos de un usuario
      * @param usuario Usuario a validar
-     * @throws IllegalArgumentException si los datos no son válidos
+     * @throws ValidacionException si los datos no son válidos
      */
-    private void validarUsuario(Usuario usuario) {
+    static void validarUsuario(Usuario usuario) {
         if (usuario == null) {
-            throw new IllegalArgumentException("El usuario no puede ser null");
+            throw new ValidacionException(CodigoError.USUARIO_NULO);
         }
-        
-        if (usuario.getNombre() == null || usuario.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del usuario es obligatorio");
+        validarNombre(usuario.getNombre());
+        validarEmail(usuario.getEmail());
+    }
+
+    /**
+     * Valida el nombre: obligatorio y entre 2 y 100 caracteres sin contar espacios extremos
+     * @throws ValidacionException si no es válido
+     */
+    static void validarNombre(String nombre) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            throw new ValidacionException(CodigoError.NOMBRE_OBLIGATORIO);
         }
         
-        if (usuario.getEmail() == null || usuario.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("El email del usuario es obligatorio");
+        // Validar longitud del nombre
+        if (nombre.trim().length() < 2) {
+            throw new ValidacionException(CodigoError.NOMBRE_DEMASIADO_CORTO);
         }
         
-        // Validación básica de email
-        String email = usuario.getEmail().trim();
-        if (!email.contains("@") || !email.contains(".")) {
-            throw new IllegalArgumentException("El formato del email no es válido");
+        if (nombre.trim().length() > 100) {
+            throw new ValidacionException(CodigoError.NOMBRE_DEMASIADO_LARGO);
         }
-        
-        // Validar longitud del nombre
-        if (usuario.getNombre().trim().length() < 2) {
-            throw new IllegalArgumentException("El nombre debe tener al menos 2 caracteres");
+    }
+
+    /**
+     * Valida el email: obligatorio y con un formato básico
+     * @throws ValidacionException si no es válido
+     */
+    static void validarEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            throw new ValidacionException(CodigoError.EMAIL_OBLIGATORIO);
         }
         
-        if (usuario.getNombre().trim().length() > 100) {
-            throw new IllegalArgumentException("El nombre no puede tener más de 100 caracteres");
+        // Validación básica de email
+        String recortado = email.trim();
+        if (!recortado.contains("@") || !recortado.contains(".")) {
+            throw new ValidacionException(CodigoError.EMAIL_FORMATO_INVALIDO);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+-- Esquema base de usuarios, tal como lo generaba ddl-auto=update
+-- Idempotente: en una base de datos existente se aplica sobre el esquema ya creado (baseline-version=0)
+
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id       bigint       NOT NULL PRIMARY KEY,
+    nombre   varchar(255) NOT NULL,
+    email    varchar(255) NOT NULL UNIQUE,
+    telefono varchar(255),
+    version  bigint       NOT NULL DEFAULT 0
+);
+
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Índices de trigramas para GET /api/usuarios/search (LIKE '%texto%' sobre nombre y email)
+-- CONCURRENTLY no bloquea las escrituras mientras se construyen; requiere ejecutarse fuera
+-- de una transacción (ver el .conf de esta migración)
+-- pg_trgm es una extensión "trusted" desde PostgreSQL 13: basta con ser propietario de la base de datos
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS usuarios_nombre_trgm_idx ON usuarios USING gin (lower(nombre) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS usuarios_email_trgm_idx ON usuarios USING gin (email gin_trgm_ops);
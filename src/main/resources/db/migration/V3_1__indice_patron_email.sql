@@ -0,0 +1,6 @@
+-- Autocompletado sin índice en memoria (email LIKE 'prefijo%'): con una intercalación distinta de "C"
+-- el índice único no sirve para LIKE, varchar_pattern_ops sí
+-- CONCURRENTLY no bloquea las escrituras mientras se construye; requiere ejecutarse fuera
+-- de una transacción (ver el .conf de esta migración)
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS usuarios_email_patron_idx ON usuarios (email varchar_pattern_ops);
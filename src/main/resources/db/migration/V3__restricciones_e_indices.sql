@@ -0,0 +1,61 @@
+-- Esquema determinista en todos los nodos ahora que Hibernate solo lo valida (ddl-auto=validate)
+-- Fuera de una transacción (ver el .conf de esta migración): cada sentencia se confirma por separado y
+-- ninguna retiene el bloqueo de otra. Se puede repetir si falla a medias; un índice que quedó INVALID al
+-- fallar su CREATE INDEX CONCURRENTLY hay que borrarlo antes, porque IF NOT EXISTS lo daría por creado
+
+-- Secuencia de IDs con asignación en bloques de 50 (optimizador pooled de Hibernate). El optimizador
+-- toma nextval - 49 como primer ID del bloque: la secuencia debe ir al menos 50 por delante del ID más
+-- alto (p. ej. si se creó a mano con setval(MAX(id) + 1) o se importaron filas con ID explícito)
+ALTER SEQUENCE usuarios_seq INCREMENT BY 50 OWNED BY usuarios.id;
+
+SELECT setval('usuarios_seq', GREATEST(t.maximo + 50, s.last_value + 50), false)
+FROM (SELECT MAX(id) AS maximo FROM usuarios) t, usuarios_seq s
+WHERE t.maximo IS NOT NULL;
+
+-- El email se guarda normalizado (trim + minúsculas, como UsuarioServiceImpl.normalizarEmail): la
+-- restricción única sobre la columna equivale así a un índice único sobre lower(email) y sigue
+-- sirviendo las búsquedas WHERE email = ?. Si quedan emails antiguos que solo difieren en mayúsculas,
+-- el UPDATE falla por la restricción única y hay que resolver los duplicados antes de migrar
+UPDATE usuarios SET email = lower(btrim(email)) WHERE email <> lower(btrim(email));
+
+-- NOT VALID solo toma el ACCESS EXCLUSIVE un instante, sin recorrer la tabla (las filas nuevas ya se
+-- comprueban); VALIDATE recorre las existentes con SHARE UPDATE EXCLUSIVE, sin bloquear las escrituras
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'usuarios'::regclass AND conname = 'usuarios_email_normalizado_chk') THEN
+        ALTER TABLE usuarios ADD CONSTRAINT usuarios_email_normalizado_chk
+            CHECK (email = lower(btrim(email))) NOT VALID;
+    END IF;
+END $$;
+
+ALTER TABLE usuarios VALIDATE CONSTRAINT usuarios_email_normalizado_chk;
+
+-- ddl-auto=update creó la restricción única con un nombre generado (ukXXXX); V1, con usuarios_email_key.
+-- Se deja solo usuarios_email_key en todas las bases de datos. Su índice se construye antes sin bloquear
+-- las escrituras y ADD CONSTRAINT ... USING INDEX solo lo adopta (y lo renombra a usuarios_email_key);
+-- la otra restricción se borra después para no perder la unicidad en ningún momento
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS usuarios_email_unico_idx ON usuarios (email);
+
+DO $$
+DECLARE
+    restriccion record;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'usuarios'::regclass AND conname = 'usuarios_email_key') THEN
+        ALTER TABLE usuarios ADD CONSTRAINT usuarios_email_key UNIQUE USING INDEX usuarios_email_unico_idx;
+    END IF;
+    FOR restriccion IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'usuarios'::regclass AND contype = 'u' AND conname <> 'usuarios_email_key'
+    LOOP
+        EXECUTE format('ALTER TABLE usuarios DROP CONSTRAINT %I', restriccion.conname);
+    END LOOP;
+END $$;
+
+-- Con usuarios_email_key ya creada por V1 el índice nuevo sobra (en una base de datos nueva, la tabla
+-- está vacía y construirlo no cuesta nada)
+DROP INDEX CONCURRENTLY IF EXISTS usuarios_email_unico_idx;
+
+-- La paginación por cursor (WHERE id > ? ORDER BY id LIMIT ?) y la exportación (ORDER BY id) ya
+-- recorren en orden la clave primaria usuarios_pkey: no necesitan un índice adicional
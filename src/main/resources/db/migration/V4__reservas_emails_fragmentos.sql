@@ -0,0 +1,8 @@
+-- Modo fragmentado (usuarios.bd.fragmentos.habilitado=true): reserva de cada email en el fragmento de
+-- su hash, que garantiza la unicidad entre fragmentos (ver UsuarioRepositoryFragmentado). Sin fragmentos
+-- la tabla queda vacía: la unicidad la garantiza usuarios_email_key
+CREATE TABLE IF NOT EXISTS usuarios_emails (
+    email        varchar(255) NOT NULL PRIMARY KEY,
+    usuario_id   bigint       NOT NULL,
+    reservado_en timestamptz  NOT NULL
+);
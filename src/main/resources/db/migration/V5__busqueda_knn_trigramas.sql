@@ -0,0 +1,8 @@
+-- Índices GiST de trigramas para acotar GET /api/usuarios/search: ORDER BY columna <-> texto LIMIT n
+-- recorre el índice por similitud (KNN) y se detiene tras n coincidencias, en lugar de ordenarlas todas.
+-- Los GIN de V2 se mantienen: son más rápidos cuando hay pocas coincidencias y el planificador los elige
+-- CONCURRENTLY requiere ejecutarse fuera de una transacción (ver el .conf de esta migración)
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS usuarios_nombre_trgm_gist_idx ON usuarios USING gist (lower(nombre) gist_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS usuarios_email_trgm_gist_idx ON usuarios USING gist (email gist_trgm_ops);
@@ -0,0 +1,92 @@
+package com.ejemplo.mi_proyecto;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Aplica las migraciones de db/migration sobre un PostgreSQL real (en H2 Flyway está desactivado)
+ * Sin Docker los tests se omiten
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MigracionesPostgreSQLTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    void testMigrarBaseDeDatosCreadaPorHibernate() {
+        // Given: esquema de ddl-auto=update, con restricción única de nombre generado y emails sin normalizar
+        DataSource dataSource = baseDeDatos("hibernate");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SEQUENCE usuarios_seq START WITH 1 INCREMENT BY 50");
+        jdbc.execute("""
+                CREATE TABLE usuarios (
+                    id bigint NOT NULL PRIMARY KEY, nombre varchar(255) NOT NULL,
+                    email varchar(255) NOT NULL CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE,
+                    telefono varchar(255), version bigint NOT NULL DEFAULT 0)""");
+        jdbc.update("INSERT INTO usuarios (id, nombre, email) VALUES (120, 'Ana', ' Ana@Example.com ')");
+
+        // When
+        migrar(dataSource);
+
+        // Then
+        assertThat(jdbc.queryForObject("SELECT email FROM usuarios WHERE id = 120", String.class))
+            .isEqualTo("ana@example.com");
+        assertThat(jdbc.queryForObject("SELECT nextval('usuarios_seq')", Long.class)).isGreaterThanOrEqualTo(170L);
+        comprobarEsquema(jdbc);
+    }
+
+    @Test
+    void testMigrarBaseDeDatosVacia() {
+        // Given
+        DataSource dataSource = baseDeDatos("vacia");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        // When
+        migrar(dataSource);
+
+        // Then
+        comprobarEsquema(jdbc);
+    }
+
+    private static void comprobarEsquema(JdbcTemplate jdbc) {
+        assertThat(jdbc.queryForList("""
+                SELECT conname FROM pg_constraint
+                WHERE conrelid = 'usuarios'::regclass AND contype = 'u'""", String.class))
+            .containsExactly("usuarios_email_key");
+        assertThat(jdbc.queryForObject("""
+                SELECT convalidated FROM pg_constraint
+                WHERE conrelid = 'usuarios'::regclass AND conname = 'usuarios_email_normalizado_chk'""",
+                Boolean.class)).isTrue();
+        // Todos los índices construidos con CONCURRENTLY terminaron válidos y no sobra ninguno
+        assertThat(jdbc.queryForList("""
+                SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE i.indrelid = 'usuarios'::regclass AND i.indisvalid""", String.class))
+            .containsExactlyInAnyOrder("usuarios_pkey", "usuarios_email_key", "usuarios_email_patron_idx",
+                    "usuarios_nombre_trgm_idx", "usuarios_email_trgm_idx",
+                    "usuarios_nombre_trgm_gist_idx", "usuarios_email_trgm_gist_idx");
+        assertThatThrownBy(() -> jdbc.update("INSERT INTO usuarios (id, nombre, email) VALUES (1, 'X', 'X@example.com')"))
+            .hasMessageContaining("usuarios_email_normalizado_chk");
+    }
+
+    private static DataSource baseDeDatos(String nombre) {
+        new JdbcTemplate(new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword())).execute("CREATE DATABASE " + nombre);
+        return new DriverManagerDataSource(postgres.getJdbcUrl().replace("/" + postgres.getDatabaseName(),
+                "/" + nombre), postgres.getUsername(), postgres.getPassword());
+    }
+
+    // Misma configuración que spring.flyway.* en application.properties
+    private static void migrar(DataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+    }
+}
@@ -0,0 +1,160 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CoalescedorConsultasUsuarioTest {
+
+    private UsuarioCache usuarioCache;
+    private CoalescedorConsultasUsuario coalescedor;
+    private ExecutorService executor;
+    private Usuario usuarioTest;
+
+    @BeforeEach
+    void setUp() {
+        usuarioCache = new UsuarioCache(100, Duration.ofMinutes(1));
+        coalescedor = new CoalescedorConsultasUsuario(usuarioCache);
+        executor = Executors.newFixedThreadPool(8);
+        usuarioTest = new Usuario("Test User", "test@example.com", "555-1234");
+        usuarioTest.setId(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConsultasConcurrentesCompartenResultado() throws Exception {
+        // Given: una consulta lenta que no termina hasta que todas las llamadas han llegado
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger consultas = new AtomicInteger();
+        List<Future<Optional<Usuario>>> resultados = new ArrayList<>();
+        
+        // When
+        for (int i = 0; i < 8; i++) {
+            resultados.add(executor.submit(() -> coalescedor.porId(1L, () -> {
+                consultas.incrementAndGet();
+                esperar(liberar);
+                return Optional.of(usuarioTest);
+            })));
+        }
+        while (coalescedor.coalescidasPorId() < 7) {
+            Thread.onSpinWait();
+        }
+        liberar.countDown();
+        
+        // Then: cada llamada recibe su propia instancia
+        Set<Usuario> instancias = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Optional<Usuario>> resultado : resultados) {
+            Usuario usuario = resultado.get(5, TimeUnit.SECONDS).orElseThrow();
+            assertThat(usuario).isEqualTo(usuarioTest);
+            instancias.add(usuario);
+        }
+        assertThat(instancias).hasSize(8);
+        assertThat(consultas).hasValue(1);
+        assertThat(coalescedor.coalescidasPorId()).isEqualTo(7);
+    }
+
+    @Test
+    void testContadoresComoMetricas() throws Exception {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        coalescedor.bindTo(registry);
+        List<Future<Optional<Usuario>>> esperando = new ArrayList<>();
+
+        // When: otra llamada por el mismo email llega mientras la consulta está en curso
+        coalescedor.porEmail("test@example.com", () -> {
+            esperando.add(executor.submit(() -> coalescedor.porEmail("test@example.com", Optional::empty)));
+            while (coalescedor.coalescidasPorEmail() < 1) {
+                Thread.onSpinWait();
+            }
+            return Optional.of(usuarioTest);
+        });
+
+        // Then
+        assertThat(esperando.get(0).get(5, TimeUnit.SECONDS)).contains(usuarioTest);
+        assertThat(registry.get("usuarios.consultas.coalescidas").tag("por", "email").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("usuarios.consultas.coalescidas").tag("por", "id").functionCounter().count())
+                .isZero();
+    }
+
+    @Test
+    void testExcepcionSePropagaATodos() throws Exception {
+        // Given
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch empezada = new CountDownLatch(1);
+        Future<Optional<Usuario>> primera = executor.submit(() -> coalescedor.porEmail("test@example.com", () -> {
+            empezada.countDown();
+            esperar(liberar);
+            throw new IllegalStateException("BD caída");
+        }));
+        empezada.await(5, TimeUnit.SECONDS);
+        Future<Optional<Usuario>> segunda = executor.submit(() ->
+                coalescedor.porEmail("test@example.com", Optional::empty));
+        while (coalescedor.coalescidasPorEmail() < 1) {
+            Thread.onSpinWait();
+        }
+        
+        // When
+        liberar.countDown();
+        
+        // Then
+        assertThatThrownBy(() -> primera.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> segunda.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(IllegalStateException.class)
+            .hasRootCauseMessage("BD caída");
+    }
+
+    @Test
+    void testNoSeUneAConsultaAnteriorAUnaInvalidacion() throws Exception {
+        // Given: una consulta en curso empezada antes de una escritura
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch empezada = new CountDownLatch(1);
+        Future<Optional<Usuario>> antigua = executor.submit(() -> coalescedor.porId(1L, () -> {
+            empezada.countDown();
+            esperar(liberar);
+            return Optional.of(usuarioTest);
+        }));
+        empezada.await(5, TimeUnit.SECONDS);
+        
+        // When
+        usuarioCache.invalidar(1L);
+        Optional<Usuario> nueva = coalescedor.porId(1L, Optional::empty);
+        liberar.countDown();
+        
+        // Then
+        assertThat(nueva).isNotPresent();
+        assertThat(antigua.get(5, TimeUnit.SECONDS)).contains(usuarioTest);
+        assertThat(coalescedor.coalescidasPorId()).isZero();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FiltroBloomEscalableTest {
+
+    private static final int ELEMENTOS = 100_000;
+
+    @Test
+    void testSinFalsosNegativos() {
+        // Given
+        FiltroBloomEscalable filtro = new FiltroBloomEscalable(ELEMENTOS, 0.01);
+        
+        // When
+        for (int i = 0; i < ELEMENTOS; i++) {
+            filtro.agregar("user" + i + "@example.com");
+        }
+        
+        // Then
+        for (int i = 0; i < ELEMENTOS; i++) {
+            assertThat(filtro.puedeContener("user" + i + "@example.com")).isTrue();
+        }
+        // Un falso positivo al insertar no se cuenta (no cambia ningún bit)
+        assertThat(filtro.elementos()).isBetween((long) (ELEMENTOS * 0.99), (long) ELEMENTOS);
+    }
+
+    @Test
+    void testTasaFalsosPositivosDentroDelObjetivo() {
+        // Given
+        FiltroBloomEscalable filtro = new FiltroBloomEscalable(ELEMENTOS, 0.01);
+        for (int i = 0; i < ELEMENTOS; i++) {
+            filtro.agregar("user" + i + "@example.com");
+        }
+        
+        // When
+        int falsosPositivos = 0;
+        for (int i = 0; i < ELEMENTOS; i++) {
+            if (filtro.puedeContener("otro" + i + "@example.org")) {
+                falsosPositivos++;
+            }
+        }
+        
+        // Then
+        assertThat((double) falsosPositivos / ELEMENTOS).isLessThan(0.01);
+        // ~11 bits por email con la mitad de la tasa en el primer sub-filtro
+        assertThat(filtro.tamanoBytes()).isLessThan(ELEMENTOS * 2L);
+    }
+
+    @Test
+    void testCreceSinSuperarLaTasa() {
+        // Given: se insertan 8 veces más elementos de los previstos
+        FiltroBloomEscalable filtro = new FiltroBloomEscalable(ELEMENTOS / 8, 0.01);
+        
+        // When
+        for (int i = 0; i < ELEMENTOS; i++) {
+            filtro.agregar("user" + i + "@example.com");
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < ELEMENTOS; i++) {
+            if (filtro.puedeContener("otro" + i + "@example.org")) {
+                falsosPositivos++;
+            }
+        }
+        
+        // Then
+        assertThat(filtro.puedeContener("user0@example.com")).isTrue();
+        assertThat((double) falsosPositivos / ELEMENTOS).isLessThan(0.01);
+    }
+
+    @Test
+    void testParametrosInvalidos() {
+        assertThatThrownBy(() -> new FiltroBloomEscalable(0, 0.01))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FiltroBloomEscalable(100, 1.0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
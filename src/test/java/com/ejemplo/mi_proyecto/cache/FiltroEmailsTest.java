@@ -0,0 +1,118 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FiltroEmailsTest {
+
+    private UsuarioRepository usuarioRepository;
+    private FiltroEmails filtroEmails;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.count()).thenReturn(2L);
+        when(usuarioRepository.streamEmails()).thenAnswer(invocation -> Stream.of("a@example.com", "b@example.com"));
+        // Escucha activa, sin la reconstrucción en segundo plano que lanza al iniciarse
+        filtroEmails = spy(new FiltroEmails(usuarioRepository, mock(PlatformTransactionManager.class), true, 0.01, true));
+        doNothing().when(filtroEmails).reconstruirEnSegundoPlano();
+        filtroEmails.escuchaIniciada();
+    }
+
+    @Test
+    void testSinConstruirPuedeExistirSiempre() {
+        // Then
+        assertThat(filtroEmails.listo()).isFalse();
+        assertThat(filtroEmails.puedeExistir("nadie@example.com")).isTrue();
+        assertThat(filtroEmails.consultasEvitadas()).isZero();
+    }
+
+    @Test
+    void testReconstruirDescartaEmailsInexistentes() {
+        // When
+        filtroEmails.reconstruir();
+        
+        // Then
+        assertThat(filtroEmails.listo()).isTrue();
+        assertThat(filtroEmails.elementos()).isEqualTo(2);
+        assertThat(filtroEmails.puedeExistir("a@example.com")).isTrue();
+        assertThat(filtroEmails.puedeExistir("nadie@example.com")).isFalse();
+        assertThat(filtroEmails.consultasEvitadas()).isEqualTo(1);
+    }
+
+    @Test
+    void testRegistradosAntesDeReconstruirNoSePierden() {
+        // Given: un email registrado cuyo commit aún no es visible al recorrer la tabla
+        filtroEmails.registrar("nuevo@example.com");
+        
+        // When
+        filtroEmails.reconstruir();
+        
+        // Then
+        assertThat(filtroEmails.puedeExistir("nuevo@example.com")).isTrue();
+    }
+
+    @Test
+    void testMarcarDesactualizadoDejaDeFiltrar() {
+        // Given
+        filtroEmails.reconstruir();
+        
+        // When
+        filtroEmails.marcarDesactualizado();
+        
+        // Then
+        assertThat(filtroEmails.listo()).isFalse();
+        assertThat(filtroEmails.puedeExistir("nadie@example.com")).isTrue();
+    }
+
+    @Test
+    void testSinEscuchaNoSeConstruye() {
+        // Given: el filtro espera a que la escucha de cambios de otros nodos esté activa
+        FiltroEmails sinEscucha = new FiltroEmails(usuarioRepository, mock(PlatformTransactionManager.class),
+                true, 0.01, true);
+        
+        // When
+        sinEscucha.reconstruir();
+        
+        // Then
+        assertThat(sinEscucha.listo()).isFalse();
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void testEscuchaPerdidaDejaDeFiltrarYNoReconstruye() {
+        // Given
+        filtroEmails.reconstruir();
+        
+        // When
+        filtroEmails.escuchaPerdida();
+        filtroEmails.reconstruir();
+        
+        // Then
+        assertThat(filtroEmails.listo()).isFalse();
+        assertThat(filtroEmails.puedeExistir("nadie@example.com")).isTrue();
+    }
+
+    @Test
+    void testSinNotificacionesQuedaDeshabilitado() {
+        // Given: sin LISTEN no llegarían los emails creados en otros nodos
+        FiltroEmails sinNotificaciones = new FiltroEmails(usuarioRepository, mock(PlatformTransactionManager.class),
+                true, 0.01, false);
+        
+        // When
+        sinNotificaciones.escuchaIniciada();
+        sinNotificaciones.reconstruir();
+        
+        // Then
+        assertThat(sinNotificaciones.habilitado()).isFalse();
+        assertThat(sinNotificaciones.listo()).isFalse();
+        verifyNoInteractions(usuarioRepository);
+    }
+}
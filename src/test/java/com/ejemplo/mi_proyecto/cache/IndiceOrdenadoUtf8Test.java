@@ -0,0 +1,64 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IndiceOrdenadoUtf8Test {
+
+    @Test
+    void testConstruirOrdenaPorBytesUtf8() {
+        // Given: más de 16 entradas para pasar por la mezcla además de la inserción
+        IndiceOrdenadoUtf8.Constructor constructor = new IndiceOrdenadoUtf8.Constructor(4);
+        for (int i = 40; i > 0; i--) {
+            constructor.agregar(String.format("u%02d@example.com", i), i);
+        }
+        constructor.agregar("ñandu@example.com", 100);
+        constructor.agregar("zeta@example.com", 101);
+        
+        // When
+        IndiceOrdenadoUtf8 indice = constructor.construir();
+        
+        // Then: "ñ" (0xC3 0xB1) va después de cualquier carácter ASCII
+        assertThat(indice.tamano()).isEqualTo(42);
+        assertThat(indice.clave(0)).isEqualTo("u01@example.com");
+        assertThat(indice.id(0)).isEqualTo(1L);
+        assertThat(indice.clave(40)).isEqualTo("zeta@example.com");
+        assertThat(indice.clave(41)).isEqualTo("ñandu@example.com");
+        assertThat(indice.id(41)).isEqualTo(100L);
+    }
+
+    @Test
+    void testBuscarPorPrefijo() {
+        // Given
+        IndiceOrdenadoUtf8 indice = new IndiceOrdenadoUtf8.Constructor(0)
+                .agregar("bea@example.com", 2)
+                .agregar("ana@example.com", 1)
+                .agregar("anabel@example.com", 3)
+                .agregar("carlos@example.com", 4)
+                .construir();
+        byte[] prefijo = "ana".getBytes(StandardCharsets.UTF_8);
+        
+        // When
+        List<String> coincidencias = new ArrayList<>();
+        for (int i = indice.primeraPosicion(prefijo); i < indice.tamano() && indice.empiezaPor(i, prefijo); i++) {
+            coincidencias.add(indice.clave(i));
+        }
+        
+        // Then
+        assertThat(coincidencias).containsExactly("ana@example.com", "anabel@example.com");
+        assertThat(indice.primeraPosicion("zz".getBytes(StandardCharsets.UTF_8))).isEqualTo(4);
+        assertThat(indice.tamanoBytes()).isEqualTo(15 + 18 + 15 + 18 + 5 * 4 + 4 * 8);
+    }
+
+    @Test
+    void testIndiceVacio() {
+        // Then
+        assertThat(IndiceOrdenadoUtf8.VACIO.tamano()).isZero();
+        assertThat(IndiceOrdenadoUtf8.VACIO.primeraPosicion(new byte[]{'a'})).isZero();
+    }
+}
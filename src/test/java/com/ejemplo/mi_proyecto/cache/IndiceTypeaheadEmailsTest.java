@@ -0,0 +1,102 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
+import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndiceTypeaheadEmailsTest {
+
+    private UsuarioRepository usuarioRepository;
+    private IndiceTypeaheadEmails indice;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.count()).thenReturn(3L);
+        when(usuarioRepository.streamIdsYEmails()).thenAnswer(invocation -> Stream.of(
+                new SugerenciaEmail(1L, "ana@example.com"),
+                new SugerenciaEmail(2L, "andres@example.com"),
+                new SugerenciaEmail(3L, "bea@example.com")));
+        indice = new IndiceTypeaheadEmails(usuarioRepository, mock(PlatformTransactionManager.class), true, 100);
+    }
+
+    @Test
+    void testSinConstruirNoSugiere() {
+        // Then: el servicio consulta entonces la base de datos
+        assertThat(indice.listo()).isFalse();
+        assertThat(indice.sugerir("an", 10)).isEmpty();
+    }
+
+    @Test
+    void testSugerirPorPrefijoConLimite() {
+        // Given
+        indice.reconstruir();
+        
+        // When
+        List<SugerenciaEmail> sugerencias = indice.sugerir("an", 1).orElseThrow();
+        
+        // Then
+        assertThat(indice.elementos()).isEqualTo(3);
+        assertThat(sugerencias).extracting(SugerenciaEmail::getEmail).containsExactly("ana@example.com");
+        assertThat(indice.sugerir("b", 10).orElseThrow()).extracting(SugerenciaEmail::getId).containsExactly(3L);
+    }
+
+    @Test
+    void testCambiosPrevalecenSobreLaBase() {
+        // Given
+        indice.reconstruir();
+        
+        // When: alta, cambio de email y eliminación fuera de transacción (se aplican al momento)
+        indice.aplicar(new CambioUsuario(4L, null, "anibal@example.com"));
+        indice.aplicar(new CambioUsuario(2L, "andres@example.com", "bruno@example.com"));
+        indice.aplicar(new CambioUsuario(1L, "ana@example.com", null));
+        
+        // Then
+        assertThat(indice.sugerir("an", 10).orElseThrow())
+                .extracting(SugerenciaEmail::getEmail).containsExactly("anibal@example.com");
+        assertThat(indice.sugerir("b", 10).orElseThrow())
+                .extracting(SugerenciaEmail::getEmail).containsExactly("bea@example.com", "bruno@example.com");
+        assertThat(indice.cambiosPendientes()).isEqualTo(3);
+    }
+
+    @Test
+    void testReconstruirDescartaCambiosIncluidos() {
+        // Given
+        indice.reconstruir();
+        indice.aplicar(new CambioUsuario(3L, "bea@example.com", null));
+        when(usuarioRepository.streamIdsYEmails()).thenAnswer(invocation -> Stream.of(
+                new SugerenciaEmail(1L, "ana@example.com"),
+                new SugerenciaEmail(2L, "andres@example.com")));
+        
+        // When
+        indice.reconstruir();
+        
+        // Then
+        assertThat(indice.cambiosPendientes()).isZero();
+        assertThat(indice.sugerir("b", 10).orElseThrow()).isEmpty();
+    }
+
+    @Test
+    void testDeshabilitadoNoHaceNada() {
+        // Given
+        IndiceTypeaheadEmails deshabilitado =
+                new IndiceTypeaheadEmails(usuarioRepository, mock(PlatformTransactionManager.class), false, 100);
+        
+        // When
+        deshabilitado.reconstruir();
+        deshabilitado.aplicar(new CambioUsuario(4L, null, "anibal@example.com"));
+        
+        // Then
+        assertThat(deshabilitado.listo()).isFalse();
+        assertThat(deshabilitado.cambiosPendientes()).isZero();
+        verify(usuarioRepository, never()).streamIdsYEmails();
+    }
+}
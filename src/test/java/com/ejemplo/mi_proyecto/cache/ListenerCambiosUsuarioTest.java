@@ -0,0 +1,85 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class ListenerCambiosUsuarioTest {
+
+    private UsuarioCache usuarioCache;
+    private FiltroEmails filtroEmails;
+    private IndiceTypeaheadEmails indiceTypeahead;
+    private ListenerCambiosUsuario listener;
+
+    @BeforeEach
+    void setUp() {
+        usuarioCache = mock(UsuarioCache.class);
+        filtroEmails = mock(FiltroEmails.class);
+        indiceTypeahead = mock(IndiceTypeaheadEmails.class);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(
+                Map.of("filtroEmails", filtroEmails, "indiceTypeahead", indiceTypeahead));
+        listener = new ListenerCambiosUsuario(usuarioCache, beans.getBeanProvider(FiltroEmails.class),
+                beans.getBeanProvider(IndiceTypeaheadEmails.class), new DataSourceProperties(),
+                new ObjectMapper(), "usuarios_cambios");
+    }
+
+    @Test
+    void testProcesarInvalidaUsuario() {
+        // When
+        listener.procesar("{\"id\":7,\"emailAnterior\":\"old@example.com\",\"emailNuevo\":\"new@example.com\"}");
+        
+        // Then
+        verify(usuarioCache).invalidar(7L);
+        verify(usuarioCache, never()).invalidarTodo();
+        verify(filtroEmails).registrar("new@example.com");
+        verify(indiceTypeahead).aplicar(argThat(c -> c.getId() == 7L && "new@example.com".equals(c.getEmailNuevo())));
+    }
+
+    @Test
+    void testProcesarEliminacionNoRegistraEmail() {
+        // When
+        listener.procesar("{\"id\":7,\"emailAnterior\":\"old@example.com\",\"emailNuevo\":null}");
+        
+        // Then
+        verify(usuarioCache).invalidar(7L);
+        verify(filtroEmails, never()).registrar(anyString());
+    }
+
+    @Test
+    void testProcesarPayloadInvalidoVaciaCache() {
+        // When
+        listener.procesar("no-es-json");
+        listener.procesar("{\"emailAnterior\":\"old@example.com\"}");
+        
+        // Then
+        verify(usuarioCache, times(2)).invalidarTodo();
+        verify(usuarioCache, never()).invalidar(anyLong());
+        verify(filtroEmails, times(2)).marcarDesactualizado();
+        verify(indiceTypeahead, times(2)).reconstruirEnSegundoPlano();
+        verify(indiceTypeahead, never()).aplicar(any());
+    }
+
+    @Test
+    void testProcesarSinFiltroNiIndiceSoloInvalidaLaCache() {
+        // Given: modo fragmentado, sin filtro de emails ni índice de autocompletado
+        StaticListableBeanFactory sinBeans = new StaticListableBeanFactory();
+        ListenerCambiosUsuario fragmentado = new ListenerCambiosUsuario(usuarioCache,
+                sinBeans.getBeanProvider(FiltroEmails.class), sinBeans.getBeanProvider(IndiceTypeaheadEmails.class),
+                new DataSourceProperties(), new ObjectMapper(), "usuarios_cambios");
+        
+        // When
+        fragmentado.procesar("{\"id\":7,\"emailAnterior\":\"old@example.com\",\"emailNuevo\":\"new@example.com\"}");
+        fragmentado.procesar("no-es-json");
+        
+        // Then
+        verify(usuarioCache).invalidar(7L);
+        verify(usuarioCache).invalidarTodo();
+        verifyNoInteractions(filtroEmails, indiceTypeahead);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.List;
+
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificadorCambiosUsuarioTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @Test
+    void testNotificarEnviaPgNotify() {
+        // Given
+        NotificadorCambiosUsuario notificador =
+                new NotificadorCambiosUsuario(jdbcTemplate, new ObjectMapper(), true, "usuarios_cambios");
+        
+        // When
+        notificador.notificar(new CambioUsuario(1L, "old@example.com", "new@example.com"));
+        
+        // Then
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, ?)"), any(ResultSetExtractor.class),
+                eq("usuarios_cambios"),
+                eq("{\"id\":1,\"emailAnterior\":\"old@example.com\",\"emailNuevo\":\"new@example.com\"}"));
+    }
+
+    @Test
+    void testNotificarTodosEnUnaSentencia() {
+        // Given
+        NotificadorCambiosUsuario notificador =
+                new NotificadorCambiosUsuario(jdbcTemplate, new ObjectMapper(), true, "usuarios_cambios");
+        
+        // When
+        notificador.notificarTodos(List.of(new CambioUsuario(1L, null, null), new CambioUsuario(2L, null, null)));
+        notificador.notificarTodos(List.of());
+        
+        // Then
+        verify(jdbcTemplate).query(eq("SELECT pg_notify(?, p) FROM unnest(?::text[]) AS p"),
+                any(ResultSetExtractor.class), eq("usuarios_cambios"),
+                aryEq(new String[] {
+                    "{\"id\":1,\"emailAnterior\":null,\"emailNuevo\":null}",
+                    "{\"id\":2,\"emailAnterior\":null,\"emailNuevo\":null}"}));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testNotificarDeshabilitado() {
+        // Given
+        NotificadorCambiosUsuario notificador =
+                new NotificadorCambiosUsuario(jdbcTemplate, new ObjectMapper(), false, "usuarios_cambios");
+        
+        // When
+        notificador.notificar(new CambioUsuario(1L, "old@example.com", null));
+        
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
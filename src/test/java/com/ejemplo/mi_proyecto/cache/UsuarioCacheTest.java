@@ -0,0 +1,136 @@
+package com.ejemplo.mi_proyecto.cache;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UsuarioCacheTest {
+
+    private UsuarioCache usuarioCache;
+    private Usuario usuarioTest;
+
+    @BeforeEach
+    void setUp() {
+        usuarioCache = new UsuarioCache(100, Duration.ofMinutes(1));
+        usuarioTest = new Usuario("Test User", "test@example.com", "555-1234");
+        usuarioTest.setId(1L);
+    }
+
+    @Test
+    void testGuardarYObtener() {
+        // When
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        
+        // Then
+        assertThat(usuarioCache.obtenerPorId(1L)).contains(usuarioTest);
+        assertThat(usuarioCache.obtenerPorEmail("test@example.com")).contains(usuarioTest);
+        assertThat(usuarioCache.estadisticasPorId().getAciertos()).isEqualTo(2);
+    }
+
+    @Test
+    void testDevuelveCopias() {
+        // Given
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        
+        // When
+        usuarioTest.setNombre("Modificado");
+        usuarioCache.obtenerPorId(1L).get().setTelefono("000");
+        
+        // Then
+        Usuario cacheado = usuarioCache.obtenerPorId(1L).get();
+        assertThat(cacheado.getNombre()).isEqualTo("Test User");
+        assertThat(cacheado.getTelefono()).isEqualTo("555-1234");
+    }
+
+    @Test
+    void testInvalidar() {
+        // Given
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        
+        // When
+        usuarioCache.invalidar(1L);
+        
+        // Then
+        assertThat(usuarioCache.obtenerPorId(1L)).isNotPresent();
+        assertThat(usuarioCache.obtenerPorEmail("test@example.com")).isNotPresent();
+    }
+
+    @Test
+    void testEmailReasignadoNoDevuelveUsuarioAnterior() {
+        // Given
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        Usuario conOtroEmail = new Usuario("Test User", "other@example.com", "555-1234");
+        conOtroEmail.setId(1L);
+        
+        // When: el usuario 1 cambia de email y se vuelve a cachear
+        usuarioCache.invalidar(1L);
+        usuarioCache.guardar(conOtroEmail, usuarioCache.generacion());
+        
+        // Then
+        assertThat(usuarioCache.obtenerPorEmail("test@example.com")).isNotPresent();
+        assertThat(usuarioCache.obtenerPorEmail("other@example.com")).contains(conOtroEmail);
+    }
+
+    @Test
+    void testLecturaConcurrenteConInvalidacionNoQuedaEnCache() {
+        // Given: una lectura empieza antes de que otro hilo invalide el usuario
+        long generacion = usuarioCache.generacion();
+        usuarioCache.invalidar(1L);
+        
+        // When
+        usuarioCache.guardar(usuarioTest, generacion);
+        
+        // Then
+        Optional<Usuario> cacheado = usuarioCache.obtenerPorId(1L);
+        assertThat(cacheado).isNotPresent();
+    }
+
+    @Test
+    void testInvalidarTodo() {
+        // Given
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        
+        // When
+        usuarioCache.invalidarTodo();
+        
+        // Then
+        assertThat(usuarioCache.obtenerPorId(1L)).isNotPresent();
+        assertThat(usuarioCache.estadisticasPorEmail().getTamano()).isZero();
+    }
+
+    @Test
+    void testVersionPorIdSinCopiarLaEntidad() {
+        // Given
+        usuarioTest.setVersion(3L);
+        usuarioCache.guardar(usuarioTest, usuarioCache.generacion());
+        
+        // When & Then
+        assertThat(usuarioCache.versionPorId(1L)).contains(3L);
+        assertThat(usuarioCache.versionPorId(2L)).isEmpty();
+        assertThat(usuarioCache.obtenerPorId(1L).get().getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void testReinvalidacionDescartaLecturaDeReplicaConRetraso() throws InterruptedException {
+        // Given: tras invalidar, una réplica con retraso devuelve aún el estado anterior y se cachea
+        UsuarioCache conReplicas = new UsuarioCache(100, Duration.ofMinutes(1), true,
+                Duration.ofMillis(30), Duration.ofMillis(20));
+        conReplicas.invalidar(1L);
+        conReplicas.guardar(usuarioTest, conReplicas.generacion());
+        assertThat(conReplicas.obtenerPorId(1L)).isPresent();
+        
+        // When: pasa el retraso tolerado
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (conReplicas.obtenerPorId(1L).isPresent() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        
+        // Then
+        assertThat(conReplicas.obtenerPorId(1L)).isEmpty();
+    }
+}
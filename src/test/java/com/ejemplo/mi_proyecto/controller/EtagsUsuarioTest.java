@@ -0,0 +1,65 @@
+package com.ejemplo.mi_proyecto.controller;
+
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class EtagsUsuarioTest {
+
+    @Test
+    void testEtagDeUsuario() {
+        // Given
+        Usuario usuario = usuario(7L, 2L, "Ana");
+        
+        // When & Then
+        assertThat(EtagsUsuario.deUsuario(usuario)).isEqualTo("\"7-2\"");
+    }
+
+    @Test
+    void testEtagDeListaCambiaConLaVersionYElCursor() {
+        // Given
+        List<Usuario> pagina = List.of(usuario(1L, 0L, "Ana"), usuario(2L, 0L, "Bob"));
+        List<Usuario> paginaModificada = List.of(usuario(1L, 0L, "Ana"), usuario(2L, 1L, "Bob"));
+        
+        // When
+        String etag = EtagsUsuario.deLista(pagina, null);
+        
+        // Then
+        assertThat(EtagsUsuario.deLista(List.of(usuario(1L, 0L, "Ana"), usuario(2L, 0L, "Bob")), null))
+            .isEqualTo(etag);
+        assertThat(EtagsUsuario.deLista(paginaModificada, null)).isNotEqualTo(etag);
+        assertThat(EtagsUsuario.deLista(pagina, "Mg")).isNotEqualTo(etag);
+        assertThat(EtagsUsuario.deLista(List.of(usuario(2L, 0L, "Bob"), usuario(1L, 0L, "Ana")), null))
+            .isNotEqualTo(etag);
+    }
+
+    @Test
+    void testCoincideConListasDebilesYComodin() {
+        // When & Then
+        assertThat(EtagsUsuario.coincide("\"7-2\"", "\"7-2\"")).isTrue();
+        assertThat(EtagsUsuario.coincide("\"1-0\", W/\"7-2\"", "\"7-2\"")).isTrue();
+        assertThat(EtagsUsuario.coincide("*", "\"7-2\"")).isTrue();
+        assertThat(EtagsUsuario.coincide("\"7-1\"", "\"7-2\"")).isFalse();
+        assertThat(EtagsUsuario.coincide(null, "\"7-2\"")).isFalse();
+    }
+
+    @Test
+    void testVersionDeIfMatchSoloConEtiquetasFuertesDelMismoUsuario() {
+        // When & Then
+        assertThat(EtagsUsuario.versionDeIfMatch("\"7-2\"", 7L)).isEqualTo(2L);
+        assertThat(EtagsUsuario.versionDeIfMatch("\"1-0\", \"7-3\"", 7L)).isEqualTo(3L);
+        assertThat(EtagsUsuario.versionDeIfMatch("W/\"7-2\"", 7L)).isNull();
+        assertThat(EtagsUsuario.versionDeIfMatch("\"8-2\"", 7L)).isNull();
+        assertThat(EtagsUsuario.versionDeIfMatch("\"7-x\"", 7L)).isNull();
+    }
+
+    private static Usuario usuario(Long id, Long version, String nombre) {
+        Usuario usuario = new Usuario(nombre, nombre.toLowerCase() + "@example.com", null);
+        usuario.setId(id);
+        usuario.setVersion(version);
+        return usuario;
+    }
+}
@@ -0,0 +1,172 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EnrutadorReplicasTest {
+
+    private DataSource primario;
+    private DataSource replica1;
+    private DataSource replica2;
+    private Connection conexionPrimario;
+    private Connection conexionReplica1;
+    private Connection conexionReplica2;
+    private SimpleMeterRegistry registry;
+    private EnrutadorReplicas enrutador;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conexionPrimario = conexion("H2");
+        conexionReplica1 = conexion("H2");
+        conexionReplica2 = conexion("H2");
+        primario = dataSource(conexionPrimario);
+        replica1 = dataSource(conexionReplica1);
+        replica2 = dataSource(conexionReplica2);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        registry = new SimpleMeterRegistry();
+        enrutador = new EnrutadorReplicas("primario", primario, replicas, Duration.ofSeconds(10), registry);
+    }
+
+    @Test
+    void testSinComprobarLeeDelPrimario() throws SQLException {
+        // When & Then
+        assertThat(enrutador.replicasDisponibles()).isZero();
+        assertThat(enrutador.lectura().getConnection()).isSameAs(conexionPrimario);
+        assertThat(registry.get("usuarios.bd.lecturas").tag("motivo", "sin-replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReparteLecturasEntreReplicasDisponibles() throws SQLException {
+        // Given
+        enrutador.comprobarReplicas();
+        
+        // When
+        Connection primera = enrutador.lectura().getConnection();
+        Connection segunda = enrutador.lectura().getConnection();
+        
+        // Then
+        assertThat(enrutador.replicasDisponibles()).isEqualTo(2);
+        assertThat(primera).isSameAs(conexionReplica1);
+        assertThat(segunda).isSameAs(conexionReplica2);
+        assertThat(enrutador.primario()).isSameAs(primario);
+        assertThat(registry.get("usuarios.bd.replica.disponible").tag("replica", "replica-1").gauge().value())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testLecturaPropiaVaAlPrimario() throws SQLException {
+        // Given
+        enrutador.comprobarReplicas();
+        
+        // When
+        Connection conexion = LecturaPrimario.ejecutar(() -> {
+            try {
+                return enrutador.lectura().getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        // Then
+        assertThat(conexion).isSameAs(conexionPrimario);
+        assertThat(LecturaPrimario.activa()).isFalse();
+        assertThat(registry.get("usuarios.bd.lecturas").tag("motivo", "lectura-propia").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReplicaQueFallaQuedaFuera() throws SQLException {
+        // Given
+        enrutador.comprobarReplicas();
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+        
+        // When: al conectar se descartan las dos y se lee del primario
+        Connection conexion = enrutador.lectura().getConnection();
+        
+        // Then
+        assertThat(conexion).isSameAs(conexionPrimario);
+        assertThat(enrutador.replicasDisponibles()).isZero();
+        
+        // When: la comprobación periódica tampoco las ve sanas
+        enrutador.comprobarReplicas();
+        
+        // Then
+        assertThat(enrutador.replicasDisponibles()).isZero();
+    }
+
+    @Test
+    void testReplicaConDemasiadoRetrasoQuedaFuera() throws SQLException {
+        // Given: la réplica 1 es PostgreSQL y lleva 30 s de retraso
+        Connection postgresql = replicaPostgreSQL("streaming", 30.0);
+        when(replica1.getConnection()).thenReturn(postgresql);
+        
+        // When
+        enrutador.comprobarReplicas();
+        
+        // Then
+        assertThat(enrutador.replicasDisponibles()).isEqualTo(1);
+        assertThat(enrutador.lectura().getConnection()).isSameAs(conexionReplica2);
+        assertThat(registry.get("usuarios.bd.replica.retraso").tag("replica", "replica-1").gauge().value())
+            .isEqualTo(30.0);
+    }
+
+    @Test
+    void testReplicaSinWalReceiverEnStreamingQuedaFuera() throws SQLException {
+        // Given: sin WAL pendiente (retraso 0) pero sin conexión con el primario
+        Connection esperando = replicaPostgreSQL("waiting", 0.0);
+        Connection parada = replicaPostgreSQL(null, 0.0);
+        when(replica1.getConnection()).thenReturn(esperando);
+        when(replica2.getConnection()).thenReturn(parada);
+        
+        // When
+        enrutador.comprobarReplicas();
+        
+        // Then
+        assertThat(enrutador.replicasDisponibles()).isZero();
+        assertThat(enrutador.lectura().getConnection()).isSameAs(conexionPrimario);
+    }
+
+    private static Connection replicaPostgreSQL(String estadoWalReceiver, double retraso) throws SQLException {
+        Connection postgresql = conexion("PostgreSQL");
+        Statement statement = mock(Statement.class);
+        ResultSet resultado = mock(ResultSet.class);
+        when(postgresql.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultado);
+        when(resultado.next()).thenReturn(true);
+        when(resultado.getBoolean(1)).thenReturn(true);
+        when(resultado.getString(2)).thenReturn(estadoWalReceiver);
+        when(resultado.getDouble(3)).thenReturn(retraso);
+        return postgresql;
+    }
+
+    private static Connection conexion(String producto) throws SQLException {
+        Connection conexion = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(producto);
+        when(conexion.getMetaData()).thenReturn(metaData);
+        when(conexion.isValid(anyInt())).thenReturn(true);
+        return conexion;
+    }
+
+    private static DataSource dataSource(Connection conexion) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conexion);
+        return dataSource;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FiltroLecturaPropiaTest {
+
+    private final FiltroLecturaPropia filtro = new FiltroLecturaPropia(Duration.ofSeconds(5));
+
+    @Test
+    void testEscrituraMarcaCookieYLeeDelPrimario() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/usuarios");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        // When
+        boolean primario = filtrar(request, response);
+        
+        // Then
+        assertThat(primario).isTrue();
+        assertThat(LecturaPrimario.activa()).isFalse();
+        Cookie cookie = response.getCookie(FiltroLecturaPropia.COOKIE);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    void testLecturaTrasEscrituraRecienteVaAlPrimario() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios/1");
+        request.setCookies(new Cookie(FiltroLecturaPropia.COOKIE, Long.toString(System.currentTimeMillis() - 1000)));
+        
+        // When & Then
+        assertThat(filtrar(request, new MockHttpServletResponse())).isTrue();
+    }
+
+    @Test
+    void testLecturaSinEscrituraRecienteVaALaReplica() throws Exception {
+        // Given: escritura fuera de la ventana, valor futuro y valor no numérico
+        long ahora = System.currentTimeMillis();
+        String[] valores = {Long.toString(ahora - 6000), Long.toString(ahora + 60_000), "x"};
+        
+        for (String valor : valores) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios/1");
+            request.setCookies(new Cookie(FiltroLecturaPropia.COOKIE, valor));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            
+            // When & Then
+            assertThat(filtrar(request, response)).isFalse();
+            assertThat(response.getCookie(FiltroLecturaPropia.COOKIE)).isNull();
+        }
+        assertThat(filtrar(new MockHttpServletRequest("GET", "/api/usuarios"), new MockHttpServletResponse())).isFalse();
+    }
+
+    /**
+     * @return Si durante la petición las lecturas iban al primario
+     */
+    private boolean filtrar(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean primario = new AtomicBoolean();
+        FilterChain cadena = (req, res) -> primario.set(LecturaPrimario.activa());
+        filtro.doFilter(request, response, cadena);
+        return primario.get();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GeneradorIdsFragmentadosTest {
+
+    private static final long AHORA = GeneradorIdsFragmentados.EPOCA_MS + 1_000_000L;
+
+    @Test
+    void testElIdCodificaLaRanura() {
+        // Given
+        GeneradorIdsFragmentados generador = new GeneradorIdsFragmentados(5, () -> AHORA);
+
+        // When & Then
+        for (int ranura : new int[] {0, 1, 127, 255}) {
+            long id = generador.generar(ranura);
+            assertThat(id).isPositive();
+            assertThat(GeneradorIdsFragmentados.ranura(id)).isEqualTo(ranura);
+        }
+    }
+
+    @Test
+    void testIdsCrecientesYUnicosAunqueSeAgoteLaSecuencia() {
+        // Given: el reloj avanza un milisegundo cada 300 lecturas
+        AtomicLong lecturas = new AtomicLong();
+        GeneradorIdsFragmentados generador = new GeneradorIdsFragmentados(0,
+                () -> AHORA + lecturas.incrementAndGet() / 300);
+
+        // When
+        Set<Long> ids = new HashSet<>();
+        long anterior = 0;
+        for (int i = 0; i < 2000; i++) {
+            long id = generador.generar(i % GeneradorIdsFragmentados.RANURAS);
+            // Then
+            assertThat(id).isGreaterThan(anterior);
+            anterior = id;
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(2000);
+    }
+
+    @Test
+    void testRelojQueRetrocedeNoRepiteIds() {
+        // Given
+        long[] reloj = {AHORA};
+        GeneradorIdsFragmentados generador = new GeneradorIdsFragmentados(0, () -> reloj[0]);
+        long primero = generador.generar(3);
+
+        // When
+        reloj[0] = AHORA - 5000;
+        long segundo = generador.generar(3);
+
+        // Then
+        assertThat(segundo).isGreaterThan(primero);
+    }
+
+    @Test
+    void testSecuenciaAgotadaConElRelojParadoNoEspera() {
+        // Given: el reloj ha retrocedido y no alcanza el último milisegundo usado
+        long[] reloj = {AHORA};
+        GeneradorIdsFragmentados generador = new GeneradorIdsFragmentados(0, () -> reloj[0]);
+        long anterior = generador.generar(0);
+        reloj[0] = AHORA - 5000;
+
+        // When & Then: se agota la secuencia varias veces sin que el reloj avance
+        for (int i = 0; i < 3 * GeneradorIdsFragmentados.RANURAS; i++) {
+            long id = generador.generar(0);
+            assertThat(id).isGreaterThan(anterior);
+            anterior = id;
+        }
+        // 1 + 768 IDs: los 255 restantes de AHORA, 256 en AHORA + 1 y en AHORA + 2, y uno en AHORA + 3
+        assertThat(anterior >>> 22).isEqualTo(AHORA + 3 - GeneradorIdsFragmentados.EPOCA_MS);
+    }
+
+    @Test
+    void testNodosDistintosGeneranIdsDistintos() {
+        // Given
+        GeneradorIdsFragmentados nodo1 = new GeneradorIdsFragmentados(1, () -> AHORA);
+        GeneradorIdsFragmentados nodo2 = new GeneradorIdsFragmentados(2, () -> AHORA);
+
+        // When & Then
+        assertThat(nodo1.generar(7)).isNotEqualTo(nodo2.generar(7));
+    }
+
+    @Test
+    void testRanuraDeEmailEstableYEnRango() {
+        // When
+        int ranura = GeneradorIdsFragmentados.ranuraDeEmail("test@example.com");
+
+        // Then
+        assertThat(ranura).isBetween(0, GeneradorIdsFragmentados.RANURAS - 1)
+                .isEqualTo(GeneradorIdsFragmentados.ranuraDeEmail("test@example.com"));
+    }
+
+    @Test
+    void testNodoORanuraFueraDeRango() {
+        // When & Then
+        assertThatThrownBy(() -> new GeneradorIdsFragmentados(GeneradorIdsFragmentados.NODOS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GeneradorIdsFragmentados(0).generar(GeneradorIdsFragmentados.RANURAS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
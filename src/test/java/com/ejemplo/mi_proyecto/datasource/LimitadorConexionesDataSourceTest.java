@@ -0,0 +1,81 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.ejemplo.mi_proyecto.exception.ServicioSaturadoException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LimitadorConexionesDataSourceTest {
+
+    private DataSource destino;
+    private LimitadorConexionesDataSource limitador;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        destino = mock(DataSource.class);
+        when(destino.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        limitador = new LimitadorConexionesDataSource(destino, 2, Duration.ofMillis(10));
+    }
+
+    @Test
+    void testRechazaSinPermisosLibres() throws SQLException {
+        // Given
+        Connection primera = limitador.getConnection();
+        Connection segunda = limitador.getConnection();
+        
+        // When & Then
+        assertThat(limitador.conexionesEnUso()).isEqualTo(2);
+        assertThatThrownBy(limitador::getConnection)
+            .isInstanceOf(ServicioSaturadoException.class)
+            .hasMessage("Todas las conexiones a la base de datos están en uso");
+        verify(destino, times(2)).getConnection();
+        
+        primera.close();
+        segunda.close();
+    }
+
+    @Test
+    void testCerrarDevuelveElPermisoUnaVez() throws SQLException {
+        // Given
+        Connection conexion = limitador.getConnection();
+        
+        // When
+        conexion.close();
+        conexion.close();
+        
+        // Then
+        assertThat(limitador.conexionesEnUso()).isZero();
+    }
+
+    @Test
+    void testDelegaEnLaConexionReal() throws SQLException {
+        // Given
+        Connection real = mock(Connection.class);
+        when(real.getAutoCommit()).thenReturn(true);
+        when(destino.getConnection()).thenReturn(real);
+        
+        // When
+        try (Connection conexion = limitador.getConnection()) {
+            // Then
+            assertThat(conexion.getAutoCommit()).isTrue();
+        }
+        verify(real).close();
+    }
+
+    @Test
+    void testErrorAlConectarDevuelveElPermiso() throws SQLException {
+        // Given
+        when(destino.getConnection()).thenThrow(new SQLException("sin conexión"));
+        
+        // When & Then
+        assertThatThrownBy(limitador::getConnection).isInstanceOf(SQLException.class);
+        assertThat(limitador.conexionesEnUso()).isZero();
+    }
+}
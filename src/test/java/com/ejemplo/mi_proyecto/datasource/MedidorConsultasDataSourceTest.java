@@ -0,0 +1,104 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MedidorConsultasDataSourceTest {
+
+    private Connection real;
+    private RegistroConsultasLentas registro;
+    private MedidorConsultasDataSource medidor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource destino = mock(DataSource.class);
+        real = mock(Connection.class);
+        when(destino.getConnection()).thenReturn(real);
+        registro = mock(RegistroConsultasLentas.class);
+        medidor = new MedidorConsultasDataSource(destino, () -> registro);
+    }
+
+    @Test
+    void testRegistraSentenciaPreparadaConParametros() throws SQLException {
+        // Given
+        PreparedStatement sentencia = mock(PreparedStatement.class);
+        when(real.prepareStatement("select * from usuarios where email=? and id=?")).thenReturn(sentencia);
+        when(sentencia.executeUpdate()).thenReturn(1);
+        
+        // When
+        try (Connection conexion = medidor.getConnection();
+             PreparedStatement preparada = conexion.prepareStatement("select * from usuarios where email=? and id=?")) {
+            preparada.setString(1, "ana@example.com");
+            preparada.setLong(2, 7L);
+            assertThat(preparada.executeUpdate()).isEqualTo(1);
+        }
+        
+        // Then
+        ArgumentCaptor<RegistroConsultasLentas.Parametros> parametros =
+            ArgumentCaptor.forClass(RegistroConsultasLentas.Parametros.class);
+        verify(registro).registrar(eq("select * from usuarios where email=? and id=?"), anyLong(), parametros.capture());
+        assertThat(parametros.getValue().describir(false)).isEqualTo("[1=String(15), 2=Long]");
+        assertThat(parametros.getValue().describir(true)).isEqualTo("[1=ana@example.com, 2=7]");
+        verify(sentencia).setString(1, "ana@example.com");
+    }
+
+    @Test
+    void testRegistraSentenciaSimple() throws SQLException {
+        // Given
+        Statement sentencia = mock(Statement.class);
+        when(real.createStatement()).thenReturn(sentencia);
+        
+        // When
+        try (Connection conexion = medidor.getConnection();
+             Statement simple = conexion.createStatement()) {
+            simple.execute("delete from usuarios");
+        }
+        
+        // Then
+        verify(registro).registrar(eq("delete from usuarios"), anyLong(), any());
+        verify(sentencia).execute("delete from usuarios");
+    }
+
+    @Test
+    void testRegistraAunqueLaSentenciaFalle() throws SQLException {
+        // Given
+        PreparedStatement sentencia = mock(PreparedStatement.class);
+        when(real.prepareStatement("select 1")).thenReturn(sentencia);
+        when(sentencia.executeQuery()).thenThrow(new SQLException("timeout"));
+        
+        // When & Then
+        try (Connection conexion = medidor.getConnection()) {
+            PreparedStatement preparada = conexion.prepareStatement("select 1");
+            assertThatThrownBy(preparada::executeQuery)
+                .isInstanceOf(SQLException.class)
+                .hasMessage("timeout");
+        }
+        verify(registro).registrar(eq("select 1"), anyLong(), any());
+    }
+
+    @Test
+    void testDescribirRecortaValoresLargosEIndicaLotes() {
+        // Given
+        String largo = "x".repeat(150);
+        
+        // When
+        String descripcion = MedidorConsultasDataSource.describir(Arrays.asList(largo, null), 3, true);
+        
+        // Then
+        assertThat(descripcion).isEqualTo("[1=" + "x".repeat(100) + "..., 2=null] (lote de 3 filas, parámetros de la última)");
+        assertThat(MedidorConsultasDataSource.describir(Arrays.asList(largo, null), 3, false))
+            .isEqualTo("[1=String(150), 2=null] (lote de 3 filas, parámetros de la última)");
+    }
+}
@@ -0,0 +1,100 @@
+package com.ejemplo.mi_proyecto.datasource;
+
+import com.ejemplo.mi_proyecto.dto.ConsultaLenta;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RegistroConsultasLentasTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void testIgnoraConsultasBajoElUmbral() {
+        // Given
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(Duration.ofMillis(100), 1.0, 10, false);
+        AtomicInteger descripciones = new AtomicInteger();
+        
+        // When
+        registro.registrar("select 1", 99 * MS, conValores -> "[" + descripciones.incrementAndGet() + "]");
+        
+        // Then
+        assertThat(registro.masLentas()).isEmpty();
+        assertThat(descripciones).hasValue(0);
+    }
+
+    @Test
+    void testAcumulaPorSentenciaConParametrosDelMaximo() {
+        // Given
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(Duration.ofMillis(100), 0.0, 10, false);
+        
+        // When
+        registro.registrar("select * from usuarios where id=?", 100 * MS, conValores -> "[1=1]");
+        registro.registrar("select * from usuarios where id=?", 300 * MS, conValores -> "[1=7]");
+        registro.registrar("select * from usuarios where id=?", 200 * MS, conValores -> "[1=3]");
+        
+        // Then
+        List<ConsultaLenta> lentas = registro.masLentas();
+        assertThat(lentas).hasSize(1);
+        assertThat(lentas.get(0).getEjecuciones()).isEqualTo(3);
+        assertThat(lentas.get(0).getMaximoMs()).isEqualTo(300.0);
+        assertThat(lentas.get(0).getMediaMs()).isEqualTo(200.0);
+        assertThat(lentas.get(0).getParametrosMaximo()).isEqualTo("[1=7]");
+    }
+
+    @Test
+    void testDevuelveLasMasLentasOrdenadas() {
+        // Given
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(Duration.ZERO, 0.0, 2, false);
+        registro.registrar("a", 10 * MS, conValores -> "[]");
+        registro.registrar("b", 30 * MS, conValores -> "[]");
+        registro.registrar("c", 20 * MS, conValores -> "[]");
+        
+        // When
+        List<ConsultaLenta> lentas = registro.masLentas();
+        
+        // Then
+        assertThat(lentas).extracting(ConsultaLenta::getSql).containsExactly("b", "c");
+    }
+
+    @Test
+    void testReiniciarOlvidaLasEstadisticas() {
+        // Given
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(Duration.ZERO, 0.0, 2, false);
+        registro.registrar("a", 10 * MS, conValores -> "[]");
+        
+        // When
+        registro.reiniciar();
+        
+        // Then
+        assertThat(registro.masLentas()).isEmpty();
+    }
+
+    @Test
+    void testValoresDeParametrosSoloSiSeHabilitan() {
+        // Given
+        RegistroConsultasLentas sinValores = new RegistroConsultasLentas(Duration.ZERO, 0.0, 10, false);
+        RegistroConsultasLentas conValores = new RegistroConsultasLentas(Duration.ZERO, 0.0, 10, true);
+        RegistroConsultasLentas.Parametros parametros = valores -> valores ? "[1=ana@example.com]" : "[1=String(15)]";
+        
+        // When
+        sinValores.registrar("select 1", MS, parametros);
+        conValores.registrar("select 1", MS, parametros);
+        
+        // Then
+        assertThat(sinValores.masLentas().get(0).getParametrosMaximo()).isEqualTo("[1=String(15)]");
+        assertThat(conValores.masLentas().get(0).getParametrosMaximo()).isEqualTo("[1=ana@example.com]");
+    }
+
+    @Test
+    void testRechazaMuestreoFueraDeRango() {
+        // When & Then
+        assertThatThrownBy(() -> new RegistroConsultasLentas(Duration.ZERO, 1.5, 10, false))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El muestreo debe estar entre 0 y 1");
+    }
+}
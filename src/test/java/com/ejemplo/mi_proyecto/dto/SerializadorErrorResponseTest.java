@@ -0,0 +1,80 @@
+package com.ejemplo.mi_proyecto.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SerializadorErrorResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    // Serialización por defecto (sin SerializadorErrorResponse) con el formato de fecha esperado como referencia
+    private final ObjectMapper referencia = new ObjectMapper().registerModule(new JavaTimeModule())
+            .addMixIn(ErrorResponse.class, SerializacionPorDefecto.class);
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class SerializacionPorDefecto {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
+        private LocalDateTime timestamp;
+    }
+
+    @Test
+    void testPlantillaProduceElMismoJson() throws Exception {
+        // Given
+        ErrorResponse respuesta = new ErrorResponse(RelojErrores.ahora(), 404, "NOT_FOUND",
+            "Usuario no encontrado con ID: 7", "/api/usuarios/7");
+        
+        // When
+        String json = objectMapper.writeValueAsString(respuesta);
+        
+        // Then
+        assertThat(json).isEqualTo(referencia.writeValueAsString(respuesta));
+        assertThat(json).contains("\"status\":404,\"error\":\"NOT_FOUND\"");
+    }
+
+    @Test
+    void testSinPlantillaYConNulosProduceElMismoJson() throws Exception {
+        // Given
+        ErrorResponse respuesta = new ErrorResponse(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 999), 422,
+            "UNPROCESSABLE_ENTITY", null, "/api/usuarios \"raras\"");
+        
+        // When
+        String json = objectMapper.writeValueAsString(respuesta);
+        
+        // Then
+        assertThat(json).isEqualTo(referencia.writeValueAsString(respuesta));
+        assertThat(json).startsWith("{\"timestamp\":\"2024-01-02 03:04:05\"");
+    }
+
+    @Test
+    void testConFormatoIndentadoProduceElMismoJson() throws Exception {
+        // Given
+        ErrorResponse respuesta = new ErrorResponse(RelojErrores.ahora(), 409, "CONFLICT", "Conflicto", "/api/usuarios");
+        
+        // When
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(respuesta);
+        
+        // Then
+        assertThat(json).isEqualTo(referencia.writerWithDefaultPrettyPrinter().writeValueAsString(respuesta));
+    }
+
+    @Test
+    void testRelojTruncaAlSegundo() {
+        // Given
+        LocalDateTime antes = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        
+        // When
+        LocalDateTime ahora = RelojErrores.ahora();
+        
+        // Then
+        assertThat(ahora.getNano()).isZero();
+        assertThat(ahora).isAfterOrEqualTo(antes).isBeforeOrEqualTo(LocalDateTime.now());
+    }
+}
@@ -58,4 +58,51 @@ class ExceptionTest {
         assertThat(exception.getMessage()).isEqualTo(message);
         assertThat(exception.getCause()).isEqualTo(cause);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testResourceNotFoundExceptionConCodigoSinTraza() {
+        // When
+        ResourceNotFoundException exception = new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, 7L);
+        
+        // Then
+        assertThat(exception.getCodigo()).isEqualTo(CodigoError.USUARIO_NO_ENCONTRADO);
+        assertThat(exception.getMessage()).isEqualTo("Usuario no encontrado con ID: 7");
+        assertThat(exception.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void testDataConflictExceptionConCodigoConservaLaCausa() {
+        // Given
+        Throwable cause = new IllegalStateException("Constraint violation");
+        
+        // When
+        DataConflictException exception = new DataConflictException(CodigoError.EMAIL_DUPLICADO, cause, "ana@example.com");
+        
+        // Then
+        assertThat(exception.getMessage()).isEqualTo("Ya existe un usuario con el email: ana@example.com");
+        assertThat(exception.getCause()).isEqualTo(cause);
+        assertThat(exception.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void testValidacionExceptionEsIllegalArgumentSinTraza() {
+        // When
+        ValidacionException exception = new ValidacionException(CodigoError.LOTE_DEMASIADO_GRANDE, 1000);
+        
+        // Then
+        assertThat(exception).isInstanceOf(IllegalArgumentException.class);
+        assertThat(exception.getCodigo()).isEqualTo(CodigoError.LOTE_DEMASIADO_GRANDE);
+        assertThat(exception.getMessage()).isEqualTo("No se pueden crear más de 1000 usuarios por petición");
+        assertThat(exception.getStackTrace()).isEmpty();
+    }
+
+    @Test
+    void testExcepcionConMensajeLibreConservaLaTraza() {
+        // When
+        ResourceNotFoundException exception = new ResourceNotFoundException("Usuario no encontrado");
+        
+        // Then
+        assertThat(exception.getCodigo()).isNull();
+        assertThat(exception.getStackTrace()).isNotEmpty();
+    }
+}
@@ -5,8 +5,14 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import com.ejemplo.mi_proyecto.dto.ErrorResponse;
 
@@ -61,6 +67,99 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios");
     }
 
+    @Test
+    void handlePrecondicionFallidaException() {
+        // Given
+        PrecondicionFallidaException exception =
+                new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, 1L);
+        when(webRequest.getDescription(false)).thenReturn("uri=/api/usuarios/1");
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handlePrecondicionFallidaException(exception, webRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(412);
+        assertThat(response.getBody().getError()).isEqualTo("PRECONDITION_FAILED");
+        assertThat(response.getBody().getMessage()).contains("usuario 1");
+        assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/1");
+    }
+
+    @Test
+    void handleOptimisticLockingFailureException() {
+        // Given
+        ObjectOptimisticLockingFailureException exception =
+                new ObjectOptimisticLockingFailureException("Usuario", 1L);
+        when(webRequest.getDescription(false)).thenReturn("uri=/api/usuarios/1");
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handleOptimisticLockingFailureException(exception, webRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(409);
+        assertThat(response.getBody().getError()).isEqualTo("CONFLICT");
+        assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/1");
+    }
+
+    @Test
+    void handleDataIntegrityViolationException() {
+        // Given
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("duplicate key");
+        when(webRequest.getDescription(false)).thenReturn("uri=/api/usuarios/batch");
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handleDataIntegrityViolationException(exception, webRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(409);
+        assertThat(response.getBody().getError()).isEqualTo("CONFLICT");
+        assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/batch");
+    }
+
+    @Test
+    void handleServicioSaturadoEnvueltoEnTransaccion() {
+        // Given
+        CannotCreateTransactionException exception = new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction",
+                new ServicioSaturadoException("Todas las conexiones a la base de datos están en uso"));
+        when(webRequest.getDescription(false)).thenReturn("uri=/api/usuarios/1");
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handleCannotCreateTransactionException(exception, webRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getStatus()).isEqualTo(503);
+        assertThat(response.getBody().getError()).isEqualTo("SERVICE_UNAVAILABLE");
+        assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/1");
+    }
+
+    @Test
+    void handleCannotCreateTransactionExceptionPorOtraCausa() {
+        // Given
+        CannotCreateTransactionException exception = new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction", new IllegalStateException("caída"));
+        when(webRequest.getDescription(false)).thenReturn("uri=/api/usuarios/1");
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handleCannotCreateTransactionException(exception, webRequest);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     @Test
     void handleIllegalArgumentException() {
         // Give git n
@@ -116,4 +215,21 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/123");
     }
+
+    @Test
+    void testPathDesdeLaPeticionServlet() {
+        // Given
+        ResourceNotFoundException exception = new ResourceNotFoundException(CodigoError.USUARIO_NO_ENCONTRADO, 5L);
+        WebRequest servletRequest = new ServletWebRequest(new MockHttpServletRequest("DELETE", "/api/usuarios/5"));
+
+        // When
+        ResponseEntity<ErrorResponse> response = exceptionHandler
+                .handleResourceNotFoundException(exception, servletRequest);
+
+        // Then
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getPath()).isEqualTo("/api/usuarios/5");
+        assertThat(response.getBody().getMessage()).isEqualTo("Usuario no encontrado con ID: 5");
+        assertThat(response.getBody().getTimestamp().getNano()).isZero();
+    }
 }
@@ -0,0 +1,96 @@
+package com.ejemplo.mi_proyecto.exception;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RegistroErroresLimitadoTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    private Logger logger;
+    private AtomicLong reloj;
+    private RegistroErroresLimitado registro;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        reloj = new AtomicLong();
+        registro = new RegistroErroresLimitado(logger, Duration.ofSeconds(60), reloj::get);
+    }
+
+    @Test
+    void testEscribeUnaTrazaPorFirmaEIntervalo() {
+        // Given
+        RuntimeException error = nuevoError();
+        
+        // When
+        boolean primera = registro.registrar(error, "/api/usuarios");
+        reloj.addAndGet(30 * SEGUNDO);
+        boolean segunda = registro.registrar(nuevoError(), "/api/usuarios");
+        reloj.addAndGet(30 * SEGUNDO);
+        boolean tercera = registro.registrar(nuevoError(), "/api/usuarios");
+        
+        // Then
+        assertThat(primera).isTrue();
+        assertThat(segunda).isFalse();
+        assertThat(tercera).isTrue();
+        assertThat(registro.contadores()).containsValue(3L);
+    }
+
+    @Test
+    void testFirmasDistintasSeCuentanPorSeparado() {
+        // Given
+        RuntimeException error = nuevoError();
+        IllegalStateException otro = new IllegalStateException("otro");
+        
+        // When
+        boolean primera = registro.registrar(error, "/api/usuarios");
+        boolean segunda = registro.registrar(otro, "/api/usuarios");
+        
+        // Then
+        assertThat(primera).isTrue();
+        assertThat(segunda).isTrue();
+        assertThat(registro.contadores()).hasSize(2);
+    }
+
+    @Test
+    void testFirmaIncluyeCausaRaizYPrimeraLinea() {
+        // Given
+        IllegalStateException raiz = new IllegalStateException("raíz");
+        RuntimeException error = new RuntimeException("envoltorio", raiz);
+        StackTraceElement linea = raiz.getStackTrace()[0];
+        
+        // When
+        String firma = RegistroErroresLimitado.firma(error);
+        
+        // Then
+        assertThat(firma).isEqualTo("java.lang.RuntimeException <- java.lang.IllegalStateException @ "
+            + linea.getClassName() + "." + linea.getMethodName() + ":" + linea.getLineNumber());
+    }
+
+    @Test
+    void testMensajesDistintosCompartenFirma() {
+        // When
+        registro.registrar(nuevoError("usuario 1"), "/api/usuarios/1");
+        boolean segunda = registro.registrar(nuevoError("usuario 2"), "/api/usuarios/2");
+        
+        // Then
+        assertThat(segunda).isFalse();
+        assertThat(registro.contadores()).hasSize(1);
+    }
+
+    private static RuntimeException nuevoError() {
+        return nuevoError("fallo");
+    }
+
+    private static RuntimeException nuevoError(String mensaje) {
+        return new RuntimeException(mensaje);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ejemplo.mi_proyecto.metricas;
+
+import com.ejemplo.mi_proyecto.exception.CodigoError;
+import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
+import com.ejemplo.mi_proyecto.exception.ResourceNotFoundException;
+import com.ejemplo.mi_proyecto.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TemporizadorMetodosTest {
+
+    interface Servicio {
+        Optional<String> buscar(String valor);
+
+        void fallar(RuntimeException e);
+    }
+
+    private SimpleMeterRegistry registry;
+    private Servicio servicio;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Servicio destino = new Servicio() {
+            @Override
+            public Optional<String> buscar(String valor) {
+                return Optional.ofNullable(valor);
+            }
+
+            @Override
+            public void fallar(RuntimeException e) {
+                throw e;
+            }
+        };
+        ProxyFactory factory = new ProxyFactory(destino);
+        factory.addAdvice(new TemporizadorMetodos(() -> registry, "prueba.servicio", "Prueba"));
+        servicio = (Servicio) factory.getProxy();
+    }
+
+    @Test
+    void testEtiquetaOkYNotFound() {
+        // When
+        servicio.buscar("a");
+        servicio.buscar("b");
+        servicio.buscar(null);
+        
+        // Then
+        assertThat(timer("buscar", "ok").count()).isEqualTo(2);
+        assertThat(timer("buscar", "not_found").count()).isEqualTo(1);
+    }
+
+    @Test
+    void testEtiquetaSegunExcepcion() {
+        // When
+        fallar(new ResourceNotFoundException("no"));
+        fallar(new DataConflictException("conflicto"));
+        fallar(new ObjectOptimisticLockingFailureException("Usuario", 1L));
+        fallar(new PrecondicionFallidaException(CodigoError.VERSION_NO_COINCIDE, 1L));
+        fallar(new IllegalArgumentException("inválido"));
+        fallar(new CannotCreateTransactionException("tx", new ServicioSaturadoException("saturado")));
+        fallar(new IllegalStateException("error"));
+        
+        // Then
+        assertThat(timer("fallar", "not_found").count()).isEqualTo(1);
+        assertThat(timer("fallar", "conflict").count()).isEqualTo(2);
+        assertThat(timer("fallar", "precondition_failed").count()).isEqualTo(1);
+        assertThat(timer("fallar", "bad_request").count()).isEqualTo(1);
+        assertThat(timer("fallar", "unavailable").count()).isEqualTo(1);
+        assertThat(timer("fallar", "error").count()).isEqualTo(1);
+    }
+
+    private void fallar(RuntimeException e) {
+        assertThatThrownBy(() -> servicio.fallar(e)).isSameAs(e);
+    }
+
+    private Timer timer(String metodo, String resultado) {
+        return registry.get("prueba.servicio").tag("method", metodo).tag("outcome", resultado).timer();
+    }
+}
@@ -0,0 +1,277 @@
+package com.ejemplo.mi_proyecto.repository;
+
+import com.ejemplo.mi_proyecto.datasource.Fragmentos;
+import com.ejemplo.mi_proyecto.datasource.GeneradorIdsFragmentados;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dos bases de datos H2 en memoria como fragmentos
+ */
+class UsuarioRepositoryFragmentadoTest {
+
+    private final List<EmbeddedDatabase> basesDeDatos = new ArrayList<>();
+    private Fragmentos fragmentos;
+    private UsuarioRepositoryFragmentado repositorio;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 2; i++) {
+            EmbeddedDatabase baseDeDatos = new EmbeddedDatabaseBuilder()
+                    .generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+            new JdbcTemplate(baseDeDatos).execute("""
+                    CREATE TABLE usuarios (id bigint PRIMARY KEY, nombre varchar(255) NOT NULL,
+                        email varchar(255) NOT NULL UNIQUE, telefono varchar(255), version bigint NOT NULL);
+                    CREATE TABLE usuarios_emails (email varchar(255) PRIMARY KEY, usuario_id bigint NOT NULL,
+                        reservado_en timestamp with time zone NOT NULL)""");
+            basesDeDatos.add(baseDeDatos);
+        }
+        fragmentos = new Fragmentos(List.<DataSource>copyOf(basesDeDatos), Executors.newFixedThreadPool(2));
+        repositorio = repositorio(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        fragmentos.close();
+        basesDeDatos.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void testCrearGuardaUsuarioYReservaEnElFragmentoDelEmail() {
+        // Given
+        String email = emailEnFragmento(1, 0);
+
+        // When
+        Usuario creado = repositorio.crear(new Usuario("Ana", email, null));
+
+        // Then
+        assertThat(creado.getVersion()).isZero();
+        assertThat(fragmentos.fragmentoDeId(creado.getId())).isEqualTo(1);
+        assertThat(contar(1, "usuarios")).isEqualTo(1);
+        assertThat(contar(1, "usuarios_emails")).isEqualTo(1);
+        assertThat(contar(0, "usuarios")).isZero();
+        assertThat(repositorio.buscarPorId(creado.getId())).contains(creado);
+        assertThat(repositorio.buscarPorEmail(email)).contains(creado);
+    }
+
+    @Test
+    void testEmailDuplicadoSeRechaza() {
+        // Given
+        String email = emailEnFragmento(0, 0);
+        repositorio.crear(new Usuario("Ana", email, null));
+
+        // When & Then
+        assertThatThrownBy(() -> repositorio.crear(new Usuario("Otra Ana", email, null)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(contar(0, "usuarios")).isEqualTo(1);
+    }
+
+    @Test
+    void testCambioDeEmailEntreFragmentosMueveLaReserva() {
+        // Given: el usuario vive en el fragmento 0 y su email nuevo se reserva en el 1
+        String emailAnterior = emailEnFragmento(0, 0);
+        String emailNuevo = emailEnFragmento(1, 0);
+        Usuario usuario = repositorio.crear(new Usuario("Ana", emailAnterior, null));
+
+        // When
+        Optional<Usuario> actualizado = repositorio.actualizar(usuario, "Ana", emailNuevo, "555");
+
+        // Then
+        assertThat(actualizado).isPresent();
+        assertThat(actualizado.get().getVersion()).isEqualTo(1L);
+        assertThat(repositorio.buscarPorEmail(emailNuevo)).contains(actualizado.get());
+        assertThat(repositorio.buscarPorEmail(emailAnterior)).isEmpty();
+        assertThat(contar(0, "usuarios_emails")).isZero();
+        // El email anterior queda libre y el nuevo ocupado
+        assertThat(repositorio.crear(new Usuario("Otra", emailAnterior, null)).getId()).isNotNull();
+        assertThatThrownBy(() -> repositorio.crear(new Usuario("Otra", emailNuevo, null)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void testVersionAntiguaNoActualizaYLiberaLaReservaNueva() {
+        // Given
+        Usuario usuario = repositorio.crear(new Usuario("Ana", emailEnFragmento(0, 0), null));
+        repositorio.actualizar(usuario, "Ana María", usuario.getEmail(), null);
+        String emailNuevo = emailEnFragmento(1, 0);
+
+        // When: se actualiza con la versión leída antes del primer cambio
+        Optional<Usuario> actualizado = repositorio.actualizar(usuario, "Ana", emailNuevo, null);
+
+        // Then
+        assertThat(actualizado).isEmpty();
+        assertThat(contar(1, "usuarios_emails")).isZero();
+        assertThat(repositorio.buscarPorId(usuario.getId()).get().getNombre()).isEqualTo("Ana María");
+    }
+
+    @Test
+    void testReservaHuerfanaSoloSeOcupaPasadaLaGracia() {
+        // Given: reserva de un cambio de email interrumpido (el usuario 42 no existe)
+        String email = emailEnFragmento(1, 0);
+        fragmentos.jdbc(1).update("INSERT INTO usuarios_emails (email, usuario_id, reservado_en)"
+                + " VALUES (?, ?, CURRENT_TIMESTAMP)", email, 42L);
+
+        // When & Then
+        assertThat(repositorio.buscarPorEmail(email)).isEmpty();
+        assertThatThrownBy(() -> repositorio.crear(new Usuario("Ana", email, null)))
+                .isInstanceOf(DuplicateKeyException.class);
+        Usuario creado = repositorio(Duration.ZERO).crear(new Usuario("Ana", email, null));
+        assertThat(repositorio.buscarPorEmail(email)).contains(creado);
+    }
+
+    @Test
+    void testReservaOcupadaAntesDeActualizarNoCambiaElEmail() {
+        // Given: el usuario vive en el fragmento 0; entre reservar el email nuevo (fragmento 1) y
+        // actualizar el usuario, otro usuario ocupa la reserva
+        Usuario usuario = repositorio.crear(new Usuario("Ana", emailEnFragmento(0, 0), null));
+        String emailNuevo = emailEnFragmento(1, 0);
+        Fragmentos espia = spy(fragmentos);
+        doAnswer(invocacion -> {
+            Object resultado = invocacion.callRealMethod();
+            fragmentos.jdbc(1).update("UPDATE usuarios_emails SET usuario_id = 42 WHERE email = ?", emailNuevo);
+            return resultado;
+        }).doCallRealMethod().when(espia).enTransaccion(eq(1), any());
+        UsuarioRepositoryFragmentado conEspia =
+                new UsuarioRepositoryFragmentado(espia, new GeneradorIdsFragmentados(0), Duration.ofMinutes(1));
+
+        // When & Then
+        assertThatThrownBy(() -> conEspia.actualizar(usuario, "Ana", emailNuevo, null))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(repositorio.buscarPorId(usuario.getId()).get().getEmail()).isEqualTo(usuario.getEmail());
+        assertThat(fragmentos.jdbc(1).queryForObject(
+                "SELECT usuario_id FROM usuarios_emails WHERE email = ?", Long.class, emailNuevo)).isEqualTo(42L);
+    }
+
+    @Test
+    void testPaginasYListadoMezclanLosFragmentosPorId() {
+        // Given
+        List<Usuario> creados = crearEnAmbosFragmentos(3);
+        List<Long> ids = creados.stream().map(Usuario::getId).sorted().toList();
+
+        // When
+        List<Usuario> primera = repositorio.buscarPagina(0L, 4);
+        List<Usuario> segunda = repositorio.buscarPagina(primera.get(3).getId(), 4);
+        List<Long> exportados = new ArrayList<>();
+        long total = repositorio.recorrer(usuario -> exportados.add(usuario.getId()));
+
+        // Then
+        assertThat(primera).extracting(Usuario::getId).containsExactlyElementsOf(ids.subList(0, 4));
+        assertThat(segunda).extracting(Usuario::getId).containsExactlyElementsOf(ids.subList(4, 6));
+        assertThat(repositorio.buscarTodos()).extracting(Usuario::getId).containsExactlyElementsOf(ids);
+        assertThat(total).isEqualTo(6);
+        assertThat(exportados).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void testBuscarPorIdsYEliminarPorIdsEnVariosFragmentos() {
+        // Given
+        List<Usuario> creados = crearEnAmbosFragmentos(2);
+        List<Long> ids = new ArrayList<>(creados.stream().map(Usuario::getId).toList());
+        ids.add(999L);
+
+        // When
+        List<Usuario> encontrados = repositorio.buscarPorIds(ids);
+        List<Long> eliminados = repositorio.eliminarPorIds(ids);
+
+        // Then
+        assertThat(encontrados).containsExactlyInAnyOrderElementsOf(creados);
+        assertThat(eliminados).containsExactlyInAnyOrderElementsOf(ids.subList(0, 4));
+        assertThat(contar(0, "usuarios") + contar(1, "usuarios")).isZero();
+        assertThat(contar(0, "usuarios_emails") + contar(1, "usuarios_emails")).isZero();
+    }
+
+    @Test
+    void testEliminarLiberaElEmailEnOtroFragmento() {
+        // Given: tras el cambio, el usuario vive en el fragmento 0 y su email se reserva en el 1
+        Usuario usuario = repositorio.crear(new Usuario("Ana", emailEnFragmento(0, 0), null));
+        String emailNuevo = emailEnFragmento(1, 0);
+        repositorio.actualizar(usuario, "Ana", emailNuevo, null);
+
+        // When
+        Optional<Usuario> eliminado = repositorio.eliminar(usuario.getId());
+
+        // Then
+        assertThat(eliminado).map(Usuario::getEmail).contains(emailNuevo);
+        assertThat(contar(1, "usuarios_emails")).isZero();
+        assertThat(repositorio.eliminar(usuario.getId())).isEmpty();
+    }
+
+    @Test
+    void testBusquedaYSugerenciasEnTodosLosFragmentos() {
+        // Given
+        List<Usuario> creados = crearEnAmbosFragmentos(2);
+
+        // When
+        List<Usuario> encontrados = repositorio.buscarPorNombreOEmail("usuario", 0, 10);
+        List<Usuario> segundaPagina = repositorio.buscarPorNombreOEmail("usuario", 3, 10);
+        List<SugerenciaEmail> sugerencias = repositorio.sugerirPorPrefijo("usuario", 3);
+
+        // Then
+        List<Usuario> porId = creados.stream().sorted(Comparator.comparing(Usuario::getId)).toList();
+        assertThat(encontrados).containsExactlyElementsOf(porId);
+        assertThat(segundaPagina).containsExactlyElementsOf(porId.subList(3, 4));
+        assertThat(sugerencias).extracting(SugerenciaEmail::getEmail).containsExactlyElementsOf(
+                creados.stream().map(Usuario::getEmail).sorted().limit(3).toList());
+    }
+
+    @Test
+    void testMezclarRespetaOrdenYLimite() {
+        // When
+        List<Integer> mezcla = UsuarioRepositoryFragmentado.mezclar(
+                List.of(List.of(1, 4, 7), List.of(), List.of(2, 3, 9)), Comparator.naturalOrder(), 5);
+
+        // Then
+        assertThat(mezcla).containsExactly(1, 2, 3, 4, 7);
+    }
+
+    private UsuarioRepositoryFragmentado repositorio(Duration graciaReservas) {
+        return new UsuarioRepositoryFragmentado(fragmentos, new GeneradorIdsFragmentados(0), graciaReservas);
+    }
+
+    private List<Usuario> crearEnAmbosFragmentos(int porFragmento) {
+        List<Usuario> creados = new ArrayList<>();
+        for (int i = 0; i < porFragmento; i++) {
+            for (int fragmento = 0; fragmento < 2; fragmento++) {
+                creados.add(repositorio.crear(new Usuario("Usuario " + i, emailEnFragmento(fragmento, i), null)));
+            }
+        }
+        return creados;
+    }
+
+    /**
+     * El n-ésimo email de la forma usuarioX@example.com que se reserva en el fragmento indicado
+     */
+    private String emailEnFragmento(int fragmento, int n) {
+        int encontrados = 0;
+        for (int i = 0; ; i++) {
+            String email = "usuario" + i + "@example.com";
+            if (fragmentos.fragmentoDeEmail(email) == fragmento && encontrados++ == n) {
+                return email;
+            }
+        }
+    }
+
+    private int contar(int fragmento, String tabla) {
+        return fragmentos.jdbc(fragmento).queryForObject("SELECT COUNT(*) FROM " + tabla, Integer.class);
+    }
+}
@@ -3,12 +3,16 @@ package com.ejemplo.mi_proyecto.repository;
 import com.ejemplo.mi_proyecto.entity.Usuario;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -96,6 +100,19 @@ class UsuarioRepositoryTest {
         assertThat(notExists).isFalse();
     }
 
+    @Test
+    void testFindEmailsExistentes() {
+        // Given
+        usuarioRepository.save(usuarioTest);
+        
+        // When
+        List<String> existentes = usuarioRepository.findEmailsExistentes(
+                List.of("test@example.com", "notfound@example.com"));
+        
+        // Then
+        assertThat(existentes).containsExactly("test@example.com");
+    }
+
     @Test
     void testFindAll() {
         // Given
@@ -113,6 +130,41 @@ class UsuarioRepositoryTest {
             .contains("user1@example.com", "user2@example.com");
     }
 
+    @Test
+    void testFindByIdGreaterThanOrderByIdAsc() {
+        // Given
+        Usuario usuario1 = usuarioRepository.save(new Usuario("User 1", "user1@example.com", "111-1111"));
+        Usuario usuario2 = usuarioRepository.save(new Usuario("User 2", "user2@example.com", "222-2222"));
+        Usuario usuario3 = usuarioRepository.save(new Usuario("User 3", "user3@example.com", "333-3333"));
+        
+        // When
+        List<Usuario> primeraPagina = usuarioRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        List<Usuario> segundaPagina = usuarioRepository.findByIdGreaterThanOrderByIdAsc(
+                usuario2.getId(), Limit.of(2));
+        
+        // Then
+        assertThat(primeraPagina).extracting(Usuario::getId)
+            .containsExactly(usuario1.getId(), usuario2.getId());
+        assertThat(segundaPagina).extracting(Usuario::getId)
+            .containsExactly(usuario3.getId());
+    }
+
+    @Test
+    void testStreamAllByOrderByIdAsc() {
+        // Given
+        usuarioRepository.save(new Usuario("User 2", "user2@example.com", "222-2222"));
+        usuarioRepository.save(new Usuario("User 1", "user1@example.com", "111-1111"));
+        
+        // When
+        List<String> emails;
+        try (Stream<Usuario> usuarios = usuarioRepository.streamAllByOrderByIdAsc()) {
+            emails = usuarios.map(Usuario::getEmail).toList();
+        }
+        
+        // Then
+        assertThat(emails).containsExactly("user2@example.com", "user1@example.com");
+    }
+
     @Test
     void testDeleteById() {
         // Given
@@ -143,6 +195,54 @@ class UsuarioRepositoryTest {
         assertThat(updatedUsuario.getEmail()).isEqualTo("test@example.com"); // Email no cambia
     }
 
+    @Test
+    void testEliminarPorIds() {
+        // Given
+        Usuario primero = usuarioRepository.saveAndFlush(new Usuario("User 1", "uno@example.com", null));
+        Usuario segundo = usuarioRepository.saveAndFlush(new Usuario("User 2", "dos@example.com", null));
+        Usuario tercero = usuarioRepository.saveAndFlush(new Usuario("User 3", "tres@example.com", null));
+        
+        // When
+        List<Long> eliminados = usuarioRepository.eliminarPorIds(
+                List.of(primero.getId(), tercero.getId(), 999_999L));
+        
+        // Then
+        assertThat(eliminados).containsExactlyInAnyOrder(primero.getId(), tercero.getId());
+        assertThat(usuarioRepository.findAll()).extracting(Usuario::getId).containsExactly(segundo.getId());
+        assertThat(usuarioRepository.eliminarPorIds(List.of())).isEmpty();
+    }
+
+    @Test
+    void testBuscarPorNombreOEmailPrimeroLosPrefijos() {
+        // Given
+        usuarioRepository.save(new Usuario("Mariano Ruiz", "mruiz@example.com", null));
+        usuarioRepository.save(new Usuario("Ana Marin", "ana@example.com", null));
+        usuarioRepository.save(new Usuario("Pedro", "marin.pedro@example.com", null));
+        usuarioRepository.save(new Usuario("Luis", "luis@example.com", null));
+        usuarioRepository.flush();
+        
+        // When
+        List<Usuario> resultado = usuarioRepository.buscarPorNombreOEmail("mari", 0, 10);
+        
+        // Then
+        assertThat(resultado).extracting(Usuario::getEmail)
+            .containsExactly("mruiz@example.com", "marin.pedro@example.com", "ana@example.com");
+        assertThat(usuarioRepository.buscarPorNombreOEmail("mari", 0, 1)).hasSize(1);
+        assertThat(usuarioRepository.buscarPorNombreOEmail("mari", 1, 10)).extracting(Usuario::getEmail)
+            .containsExactly("marin.pedro@example.com", "ana@example.com");
+    }
+
+    @Test
+    void testBuscarPorNombreOEmailEscapaComodines() {
+        // Given
+        usuarioRepository.saveAndFlush(new Usuario("Ana", "ana@example.com", null));
+        
+        // When & Then: "%" y "_" se buscan literalmente
+        assertThat(usuarioRepository.buscarPorNombreOEmail("a%a", 0, 10)).isEmpty();
+        assertThat(usuarioRepository.buscarPorNombreOEmail("a_a", 0, 10)).isEmpty();
+        assertThat(usuarioRepository.buscarPorNombreOEmail("ana", 0, 10)).hasSize(1);
+    }
+
     @Test
     void testEmailUniqueConstraint() {
         // Given
@@ -157,4 +257,18 @@ class UsuarioRepositoryTest {
             usuarioRepository.flush(); // Forzar la escritura a DB
         }).isInstanceOf(Exception.class);
     }
+
+    @Test
+    void testEmailUniqueConstraintEsViolacionUnique() {
+        // Given
+        usuarioRepository.saveAndFlush(new Usuario("User 1", "duplicate@example.com", "111-1111"));
+        
+        // When & Then: el service depende de este tipo de violación para responder 409
+        assertThatThrownBy(() -> usuarioRepository.saveAndFlush(
+                new Usuario("User 2", "duplicate@example.com", "222-2222")))
+            .isInstanceOf(DataIntegrityViolationException.class)
+            .cause()
+            .isInstanceOfSatisfying(ConstraintViolationException.class, violacion ->
+                assertThat(violacion.getKind()).isEqualTo(ConstraintViolationException.ConstraintKind.UNIQUE));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.ejemplo.mi_proyecto.service.impl;
+
+import com.ejemplo.mi_proyecto.cache.CambioUsuario;
+import com.ejemplo.mi_proyecto.cache.CoalescedorConsultasUsuario;
+import com.ejemplo.mi_proyecto.cache.NotificadorCambiosUsuario;
+import com.ejemplo.mi_proyecto.cache.UsuarioCache;
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.entity.Usuario;
+import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
+import com.ejemplo.mi_proyecto.repository.UsuarioRepositoryFragmentado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UsuarioServiceFragmentadoImplTest {
+
+    @Mock
+    private UsuarioRepositoryFragmentado repositorio;
+
+    @Spy
+    private UsuarioCache usuarioCache = new UsuarioCache(100, Duration.ofMinutes(1));
+
+    @Mock
+    private NotificadorCambiosUsuario notificadorCambios;
+
+    @Spy
+    private CoalescedorConsultasUsuario coalescedor =
+            new CoalescedorConsultasUsuario(new UsuarioCache(0, Duration.ofMinutes(1)));
+
+    @Spy
+    private LimitesLote limitesLote = new LimitesLote(100, 3, 3);
+
+    @InjectMocks
+    private UsuarioServiceFragmentadoImpl usuarioService;
+
+    private Usuario usuarioTest;
+
+    @BeforeEach
+    void setUp() {
+        usuarioTest = new Usuario("Test User", "test@example.com", "555-1234");
+        usuarioTest.setId(1L);
+        usuarioTest.setVersion(3L);
+    }
+
+    @Test
+    void testCrearUsuarioNormalizaSinNotificar() {
+        // Given
+        when(repositorio.crear(any(Usuario.class))).thenAnswer(invocacion -> {
+            Usuario usuario = invocacion.getArgument(0);
+            usuario.setId(7L);
+            return usuario;
+        });
+
+        // When
+        Usuario creado = usuarioService.crearUsuario(new Usuario("  Ana  ", " ANA@Example.com ", null));
+
+        // Then
+        assertThat(creado.getNombre()).isEqualTo("Ana");
+        assertThat(creado.getEmail()).isEqualTo("ana@example.com");
+        verifyNoInteractions(notificadorCambios);
+    }
+
+    @Test
+    void testCrearUsuarioConEmailReservadoEsConflicto() {
+        // Given
+        when(repositorio.crear(any(Usuario.class))).thenThrow(new DuplicateKeyException("reservado"));
+
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.crearUsuario(new Usuario("Ana", "ana@example.com", null)))
+                .isInstanceOf(DataConflictException.class);
+        verifyNoInteractions(notificadorCambios);
+    }
+
+    @Test
+    void testCrearUsuariosInformaCadaResultado() {
+        // Given
+        when(repositorio.crear(any(Usuario.class)))
+                .thenAnswer(invocacion -> {
+                    Usuario usuario = invocacion.getArgument(0);
+                    usuario.setId(10L);
+                    return usuario;
+                })
+                .thenThrow(new DuplicateKeyException("reservado"));
+
+        // When
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(List.of(
+                new Usuario("Ana", "ana@example.com", null),
+                new Usuario("X", "x@example.com", null),
+                new Usuario("Ana Bis", "ANA@example.com", null),
+                new Usuario("Luis", "luis@example.com", null)));
+
+        // Then
+        assertThat(resultados).extracting(ResultadoCreacion::getStatus).containsExactly(201, 400, 409, 409);
+        assertThat(resultados.get(0).getId()).isEqualTo(10L);
+        verify(repositorio, times(2)).crear(any(Usuario.class));
+        verifyNoInteractions(notificadorCambios);
+    }
+
+    @Test
+    void testActualizarConVersionDistintaNoEscribe() {
+        // Given
+        when(repositorio.buscarPorId(1L)).thenReturn(Optional.of(usuarioTest));
+
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(1L,
+                new Usuario("Nuevo", "nuevo@example.com", null), 2L))
+                .isInstanceOf(PrecondicionFallidaException.class);
+        verify(repositorio, never()).actualizar(any(), any(), any(), any());
+    }
+
+    @Test
+    void testActualizarModificadoEntreLecturaYEscrituraEsConflicto() {
+        // Given
+        when(repositorio.buscarPorId(1L)).thenReturn(Optional.of(usuarioTest));
+        when(repositorio.actualizar(usuarioTest, "Nuevo", "nuevo@example.com", null)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(1L, new Usuario("Nuevo", "nuevo@example.com", null)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void testActualizarParcialmenteInvalidaYNotificaElEmailAnterior() {
+        // Given
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setEmail("Nuevo@Example.com");
+        Usuario actualizado = new Usuario("Test User", "nuevo@example.com", "555-1234");
+        actualizado.setId(1L);
+        when(repositorio.buscarPorId(1L)).thenReturn(Optional.of(usuarioTest));
+        when(repositorio.actualizar(usuarioTest, "Test User", "nuevo@example.com", "555-1234"))
+                .thenReturn(Optional.of(actualizado));
+
+        // When
+        Usuario resultado = usuarioService.actualizarParcialmente(1L, parche);
+
+        // Then
+        assertThat(resultado).isSameAs(actualizado);
+        verify(usuarioCache).invalidar(1L);
+        verify(notificadorCambios).notificar(argThat((CambioUsuario c) ->
+                "test@example.com".equals(c.getEmailAnterior()) && "nuevo@example.com".equals(c.getEmailNuevo())));
+    }
+
+    @Test
+    void testObtenerPorIdGuardaEnCache() {
+        // Given
+        when(repositorio.buscarPorId(1L)).thenReturn(Optional.of(usuarioTest));
+
+        // When
+        usuarioService.obtenerUsuarioPorId(1L);
+        Optional<Usuario> segunda = usuarioService.obtenerUsuarioPorId(1L);
+
+        // Then
+        assertThat(segunda).contains(usuarioTest);
+        verify(repositorio, times(1)).buscarPorId(1L);
+    }
+
+    @Test
+    void testPaginacionPideUnElementoExtra() {
+        // Given
+        Usuario otro = new Usuario("Otro", "otro@example.com", null);
+        otro.setId(2L);
+        when(repositorio.buscarPagina(0L, 2)).thenReturn(List.of(usuarioTest, otro));
+
+        // When
+        PaginaUsuarios pagina = usuarioService.obtenerUsuariosPaginados(null, 1);
+
+        // Then
+        assertThat(pagina.getUsuarios()).containsExactly(usuarioTest);
+        assertThat(pagina.getSiguienteCursor()).isNotNull();
+    }
+}
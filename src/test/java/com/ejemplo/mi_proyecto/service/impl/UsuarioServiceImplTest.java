@@ -1,20 +1,43 @@
 package com.ejemplo.mi_proyecto.service.impl;
 
+import com.ejemplo.mi_proyecto.cache.CambioUsuario;
+import com.ejemplo.mi_proyecto.cache.CoalescedorConsultasUsuario;
+import com.ejemplo.mi_proyecto.cache.FiltroEmails;
+import com.ejemplo.mi_proyecto.cache.IndiceTypeaheadEmails;
+import com.ejemplo.mi_proyecto.cache.NotificadorCambiosUsuario;
+import com.ejemplo.mi_proyecto.cache.UsuarioCache;
+import com.ejemplo.mi_proyecto.dto.PaginaUsuarios;
+import com.ejemplo.mi_proyecto.dto.ParcheUsuario;
+import com.ejemplo.mi_proyecto.dto.ResultadoConsultaLote;
+import com.ejemplo.mi_proyecto.dto.ResultadoCreacion;
+import com.ejemplo.mi_proyecto.dto.ResultadoEliminacionLote;
+import com.ejemplo.mi_proyecto.dto.SugerenciaEmail;
 import com.ejemplo.mi_proyecto.entity.Usuario;
 import com.ejemplo.mi_proyecto.exception.DataConflictException;
+import com.ejemplo.mi_proyecto.exception.PrecondicionFallidaException;
 import com.ejemplo.mi_proyecto.exception.ResourceNotFoundException;
 import com.ejemplo.mi_proyecto.repository.UsuarioRepository;
 import com.ejemplo.mi_proyecto.service.UsuarioService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +49,36 @@ class UsuarioServiceImplTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private UsuarioCache usuarioCache = new UsuarioCache(100, Duration.ofMinutes(1));
+
+    @Mock
+    private NotificadorCambiosUsuario notificadorCambios;
+
+    @Spy
+    private CoalescedorConsultasUsuario coalescedor =
+            new CoalescedorConsultasUsuario(new UsuarioCache(0, Duration.ofMinutes(1)));
+
+    // Sin construir: responde siempre "puede existir" salvo que un test indique lo contrario
+    @Spy
+    private FiltroEmails filtroEmails =
+            new FiltroEmails(null, mock(PlatformTransactionManager.class), true, 0.01, true);
+
+    // Máximos pequeños para probar el límite de las operaciones masivas
+    @Spy
+    private LimitesLote limitesLote = new LimitesLote(100, 3, 3);
+
+    // Sin construir salvo que un test indique lo contrario: sugerir() devuelve empty
+    @Mock
+    private IndiceTypeaheadEmails indiceTypeahead;
+
+    // getTransaction devuelve null y commit/rollback no hacen nada: basta para TransactionTemplate
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private UsuarioServiceImpl usuarioServiceImpl;
     
@@ -59,6 +112,138 @@ class UsuarioServiceImplTest {
         verify(usuarioRepository).findAll();
     }
 
+    @Test
+    void testObtenerUsuariosPaginados() {
+        // Given
+        Usuario usuario1 = new Usuario("User 1", "user1@example.com", "111-1111");
+        usuario1.setId(1L);
+        Usuario usuario2 = new Usuario("User 2", "user2@example.com", "222-2222");
+        usuario2.setId(2L);
+        Usuario usuario3 = new Usuario("User 3", "user3@example.com", "333-3333");
+        usuario3.setId(3L);
+        
+        when(usuarioRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+            .thenReturn(Arrays.asList(usuario1, usuario2, usuario3));
+        when(usuarioRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3)))
+            .thenReturn(List.of(usuario3));
+        
+        // When
+        PaginaUsuarios primera = usuarioService.obtenerUsuariosPaginados(null, 2);
+        PaginaUsuarios segunda = usuarioService.obtenerUsuariosPaginados(primera.getSiguienteCursor(), 2);
+        
+        // Then
+        assertThat(primera.getUsuarios()).containsExactly(usuario1, usuario2);
+        assertThat(primera.getSiguienteCursor()).isNotNull();
+        assertThat(segunda.getUsuarios()).containsExactly(usuario3);
+        assertThat(segunda.getSiguienteCursor()).isNull();
+    }
+
+    @Test
+    void testObtenerUsuariosPaginadosLimiteMaximo() {
+        // Given
+        when(usuarioRepository.findByIdGreaterThanOrderByIdAsc(0L,
+                Limit.of(UsuarioServiceImpl.LIMITE_MAXIMO_PAGINA + 1))).thenReturn(List.of());
+        
+        // When
+        PaginaUsuarios pagina = usuarioService.obtenerUsuariosPaginados(null, 10_000);
+        
+        // Then
+        assertThat(pagina.getLimite()).isEqualTo(UsuarioServiceImpl.LIMITE_MAXIMO_PAGINA);
+        assertThat(pagina.getUsuarios()).isEmpty();
+    }
+
+    @Test
+    void testObtenerUsuariosPaginadosCursorInvalido() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.obtenerUsuariosPaginados("no-es-un-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El cursor de paginación no es válido");
+        assertThatThrownBy(() -> usuarioService.obtenerUsuariosPaginados(null, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void testBuscarUsuariosNormalizaYAcotaElLimite() {
+        // Given
+        when(usuarioRepository.buscarPorNombreOEmail("mari", 40, UsuarioServiceImpl.LIMITE_MAXIMO_BUSQUEDA))
+            .thenReturn(List.of(usuarioTest));
+        
+        // When
+        List<Usuario> result = usuarioService.buscarUsuarios("  MARI ", 40, 1000);
+        
+        // Then
+        assertThat(result).containsExactly(usuarioTest);
+    }
+
+    @Test
+    void testBuscarUsuariosTextoDemasiadoCorto() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.buscarUsuarios(" ab ", 0, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El texto de búsqueda debe tener al menos 3 caracteres");
+        assertThatThrownBy(() -> usuarioService.buscarUsuarios("abc", 0, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El límite debe ser un número positivo");
+        assertThatThrownBy(() -> usuarioService.buscarUsuarios("abc", -1, 10))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El desplazamiento debe estar entre 0 y 1000");
+        assertThatThrownBy(() -> usuarioService.buscarUsuarios("abc", 1001, 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void testSugerirEmailsSinIndiceConsultaLaBaseDeDatos() {
+        // Given
+        List<SugerenciaEmail> sugerencias = List.of(new SugerenciaEmail(1L, "test@example.com"));
+        when(usuarioRepository.sugerirPorPrefijo("te", UsuarioServiceImpl.LIMITE_MAXIMO_SUGERENCIAS))
+            .thenReturn(sugerencias);
+        
+        // When
+        List<SugerenciaEmail> result = usuarioService.sugerirEmails(" TE ", 1000);
+        
+        // Then
+        assertThat(result).isEqualTo(sugerencias);
+        verify(indiceTypeahead).sugerir("te", UsuarioServiceImpl.LIMITE_MAXIMO_SUGERENCIAS);
+    }
+
+    @Test
+    void testSugerirEmailsDesdeElIndice() {
+        // Given
+        List<SugerenciaEmail> sugerencias = List.of(new SugerenciaEmail(1L, "test@example.com"));
+        when(indiceTypeahead.sugerir("te", 5)).thenReturn(Optional.of(sugerencias));
+        
+        // When
+        List<SugerenciaEmail> result = usuarioService.sugerirEmails("te", 5);
+        
+        // Then
+        assertThat(result).isEqualTo(sugerencias);
+        verifyNoInteractions(usuarioRepository);
+        assertThatThrownBy(() -> usuarioService.sugerirEmails("  ", 5))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El prefijo no puede estar vacío");
+    }
+
+    @Test
+    void testExportarUsuarios() {
+        // Given
+        Usuario usuario1 = new Usuario("User 1", "user1@example.com", "111-1111");
+        Usuario usuario2 = new Usuario("User 2", "user2@example.com", "222-2222");
+        when(usuarioRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(usuario1, usuario2));
+        List<Usuario> exportados = new ArrayList<>();
+        
+        // When
+        long total = usuarioService.exportarUsuarios(exportados::add);
+        
+        // Then
+        assertThat(total).isEqualTo(2);
+        assertThat(exportados).containsExactly(usuario1, usuario2);
+        verify(entityManager).detach(usuario1);
+        verify(entityManager).detach(usuario2);
+    }
+
     @Test
     void testObtenerUsuarioPorId() {
         // Given
@@ -72,6 +257,168 @@ class UsuarioServiceImplTest {
         verify(usuarioRepository).findById(1L);
     }
 
+    @Test
+    void testObtenerUsuarioPorIdDesdeCache() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        usuarioService.obtenerUsuarioPorId(1L);
+        Optional<Usuario> result = usuarioService.obtenerUsuarioPorId(1L);
+        Optional<Usuario> porEmail = usuarioService.obtenerUsuarioPorEmail("TEST@example.com");
+        
+        // Then
+        assertThat(result).contains(usuarioTest);
+        assertThat(porEmail).contains(usuarioTest);
+        verify(usuarioRepository, times(1)).findById(1L);
+        verify(usuarioRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testObtenerVersionEnCacheSinConsultarLaBaseDeDatos() {
+        // Given
+        usuarioTest.setVersion(4L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        Optional<Long> antes = usuarioService.obtenerVersionEnCache(1L);
+        usuarioService.obtenerUsuarioPorId(1L);
+        Optional<Long> despues = usuarioService.obtenerVersionEnCache(1L);
+        
+        // Then
+        assertThat(antes).isEmpty();
+        assertThat(despues).contains(4L);
+        assertThat(usuarioService.obtenerVersionEnCache(-1L)).isEmpty();
+        verify(usuarioRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testObtenerUsuariosPorIdsConsultaSoloLosQueNoEstanEnCache() {
+        // Given
+        Usuario otro = new Usuario("Other User", "other@example.com", null);
+        otro.setId(2L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        when(usuarioRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(otro));
+        usuarioService.obtenerUsuarioPorId(1L);
+        
+        // When
+        ResultadoConsultaLote resultado = usuarioService.obtenerUsuariosPorIds(List.of(3L, 1L, 2L));
+        
+        // Then
+        assertThat(resultado.getUsuarios()).extracting(Usuario::getId).containsExactly(1L, 2L);
+        assertThat(resultado.getNoEncontrados()).containsExactly(3L);
+        verify(usuarioRepository).findAllById(List.of(3L, 2L));
+        assertThat(usuarioCache.obtenerPorId(2L)).isPresent();
+    }
+
+    @Test
+    void testObtenerUsuariosPorIdsTodosEnCacheSinConsulta() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        usuarioService.obtenerUsuarioPorId(1L);
+        
+        // When
+        ResultadoConsultaLote resultado = usuarioService.obtenerUsuariosPorIds(List.of(1L));
+        
+        // Then
+        assertThat(resultado.getUsuarios()).containsExactly(usuarioTest);
+        verify(usuarioRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testObtenerUsuariosPorIdsListaInvalida() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.obtenerUsuariosPorIds(List.of()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("La lista de IDs no puede estar vacía");
+        assertThatThrownBy(() -> usuarioService.obtenerUsuariosPorIds(List.of(1L, 2L, 3L, 4L)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("No se pueden indicar más de 3 IDs por petición");
+        assertThatThrownBy(() -> usuarioService.obtenerUsuariosPorIds(Arrays.asList(1L, null)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El ID del usuario debe ser un número positivo");
+        verifyNoInteractions(usuarioRepository);
+    }
+
+    @Test
+    void testObtenerUsuarioPorIdUsaCoalescedor() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        when(usuarioRepository.findByEmail("test@example.com")).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        usuarioService.obtenerUsuarioPorId(1L);
+        usuarioCache.invalidarTodo();
+        usuarioService.obtenerUsuarioPorEmail("test@example.com");
+        
+        // Then
+        verify(coalescedor).porId(eq(1L), any());
+        verify(coalescedor).porEmail(eq("test@example.com"), any());
+    }
+
+    @Test
+    void testActualizarUsuarioInvalidaCache() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Updated User", "updated@example.com", "999-9999");
+        Usuario usuarioEnBd = new Usuario("Test User", "test@example.com", "555-1234");
+        usuarioEnBd.setId(1L);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioEnBd));
+        usuarioService.obtenerUsuarioPorId(1L);
+        
+        // When
+        usuarioService.actualizarUsuario(1L, usuarioActualizado);
+        
+        // Then
+        verify(usuarioCache).invalidar(1L);
+        verify(notificadorCambios).notificar(argThat((CambioUsuario cambio) ->
+            "test@example.com".equals(cambio.getEmailAnterior())
+                && "updated@example.com".equals(cambio.getEmailNuevo())));
+        assertThat(usuarioCache.obtenerPorId(1L)).isNotPresent();
+        assertThat(usuarioCache.obtenerPorEmail("test@example.com")).isNotPresent();
+    }
+
+    @Test
+    void testEliminarUsuarioInvalidaCache() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        usuarioService.obtenerUsuarioPorId(1L);
+        
+        // When
+        usuarioService.eliminarUsuario(1L);
+        
+        // Then
+        assertThat(usuarioCache.obtenerPorId(1L)).isNotPresent();
+    }
+
+    @Test
+    void testEliminarUsuariosEnUnaSentencia() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        usuarioService.obtenerUsuarioPorId(1L);
+        when(usuarioRepository.eliminarPorIds(anyCollection())).thenReturn(List.of(1L));
+        
+        // When
+        ResultadoEliminacionLote resultado = usuarioService.eliminarUsuarios(List.of(5L, 1L, 5L));
+        
+        // Then
+        assertThat(resultado.getEliminados()).containsExactly(1L);
+        assertThat(resultado.getNoEncontrados()).containsExactly(5L);
+        verify(usuarioRepository).eliminarPorIds(argThat(ids -> List.copyOf(ids).equals(List.of(5L, 1L))));
+        verify(usuarioRepository, never()).delete(any(Usuario.class));
+        assertThat(usuarioCache.obtenerPorId(1L)).isNotPresent();
+        verify(notificadorCambios).notificarTodos(argThat(cambios -> cambios.size() == 1
+                && cambios.iterator().next().getId() == 1L));
+    }
+
+    @Test
+    void testEliminarUsuariosDemasiados() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.eliminarUsuarios(List.of(1L, 2L, 3L, 4L)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("No se pueden indicar más de 3 IDs por petición");
+        verify(usuarioRepository, never()).eliminarPorIds(anyCollection());
+    }
+
     @Test
     void testObtenerUsuarioPorIdNotFound() {
         // Given
@@ -92,8 +439,7 @@ class UsuarioServiceImplTest {
         Usuario usuarioGuardado = new Usuario("New User", "new@example.com", "555-5678");
         usuarioGuardado.setId(2L);
         
-        when(usuarioRepository.existsByEmail("new@example.com")).thenReturn(false);
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioGuardado);
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(usuarioGuardado);
         
         // When
         Usuario result = usuarioService.crearUsuario(usuarioNuevo);
@@ -101,8 +447,29 @@ class UsuarioServiceImplTest {
         // Then
         assertThat(result.getId()).isEqualTo(2L);
         assertThat(result.getEmail()).isEqualTo("new@example.com");
-        verify(usuarioRepository).existsByEmail("new@example.com");
-        verify(usuarioRepository).save(usuarioNuevo);
+        verify(usuarioRepository).saveAndFlush(usuarioNuevo);
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+        verify(filtroEmails).registrar("new@example.com");
+        verify(notificadorCambios).notificarTodos(argThat(cambios -> cambios.size() == 1
+                && cambios.iterator().next().getId() == 2L && cambios.iterator().next().getEmailAnterior() == null
+                && "new@example.com".equals(cambios.iterator().next().getEmailNuevo())));
+        verify(notificadorCambios, never()).notificar(any());
+    }
+
+    @Test
+    void testCrearUsuarioSinFiltroNiIndiceNoNotifica() {
+        // Given: nadie en el clúster necesita conocer las altas
+        Usuario usuarioNuevo = new Usuario("New User", "new@example.com", "555-5678");
+        Usuario usuarioGuardado = new Usuario("New User", "new@example.com", "555-5678");
+        usuarioGuardado.setId(2L);
+        doReturn(false).when(filtroEmails).habilitado();
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenReturn(usuarioGuardado);
+        
+        // When
+        usuarioService.crearUsuario(usuarioNuevo);
+        
+        // Then: el INSERT es la única sentencia
+        verifyNoInteractions(notificadorCambios);
     }
 
     @Test
@@ -110,15 +477,173 @@ class UsuarioServiceImplTest {
         // Given
         Usuario usuarioNuevo = new Usuario("New User", "existing@example.com", "555-5678");
         
-        when(usuarioRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenThrow(violacionEmailUnico());
         
         // When & Then
         assertThatThrownBy(() -> usuarioService.crearUsuario(usuarioNuevo))
             .isInstanceOf(DataConflictException.class)
             .hasMessage("Ya existe un usuario con el email: existing@example.com");
         
-        verify(usuarioRepository).existsByEmail("existing@example.com");
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verify(usuarioRepository).saveAndFlush(usuarioNuevo);
+    }
+
+    @Test
+    void testCrearUsuarioOtraViolacionDeIntegridad() {
+        // Given
+        Usuario usuarioNuevo = new Usuario("New User", "new@example.com", "555-5678");
+        DataIntegrityViolationException noNulo = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException("not null", "23502"), null,
+                        ConstraintViolationException.ConstraintKind.OTHER, "nombre"));
+        
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenThrow(noNulo);
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.crearUsuario(usuarioNuevo)).isSameAs(noNulo);
+    }
+
+    @Test
+    void testCrearUsuarios() {
+        // Given
+        Usuario valido = new Usuario(" Valid User ", " Valid@Example.com ", "111-1111");
+        Usuario invalido = new Usuario("", "invalid@example.com", "222-2222");
+        Usuario repetido = new Usuario("Repeated", "valid@example.com", "333-3333");
+        Usuario existente = new Usuario("Existing", "existing@example.com", "444-4444");
+        
+        when(usuarioRepository.findEmailsExistentes(anyCollection()))
+            .thenReturn(List.of("existing@example.com"));
+        when(usuarioRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Usuario> bloque = invocation.getArgument(0);
+            bloque.forEach(u -> u.setId(10L));
+            return bloque;
+        });
+        
+        // When
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(
+                Arrays.asList(valido, invalido, repetido, existente));
+        
+        // Then
+        assertThat(resultados).extracting(ResultadoCreacion::getIndice).containsExactly(0, 1, 2, 3);
+        assertThat(resultados).extracting(ResultadoCreacion::getStatus).containsExactly(201, 400, 409, 409);
+        assertThat(resultados.get(0).getId()).isEqualTo(10L);
+        assertThat(resultados.get(1).getError()).isEqualTo("El nombre del usuario es obligatorio");
+        assertThat(resultados.get(3).getError())
+            .isEqualTo("Ya existe un usuario con el email: existing@example.com");
+        assertThat(valido.getEmail()).isEqualTo("valid@example.com");
+        assertThat(valido.getNombre()).isEqualTo("Valid User");
+        verify(usuarioRepository).saveAll(anyList());
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+        verify(notificadorCambios).notificarTodos(argThat(cambios -> cambios.size() == 1));
+    }
+
+    @Test
+    void testCrearUsuariosNoCompruebaEmailsDescartadosPorFiltro() {
+        // Given
+        Usuario nuevo = new Usuario("New User", "new@example.com", null);
+        Usuario quizas = new Usuario("Maybe User", "maybe@example.com", null);
+        doReturn(false).when(filtroEmails).puedeExistir("new@example.com");
+        when(usuarioRepository.findEmailsExistentes(anyCollection())).thenReturn(List.of());
+        
+        // When
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(List.of(nuevo, quizas));
+        
+        // Then
+        assertThat(resultados).extracting(ResultadoCreacion::getStatus).containsExactly(201, 201);
+        verify(usuarioRepository).findEmailsExistentes(List.of("maybe@example.com"));
+        verify(filtroEmails).registrar("new@example.com");
+        verify(filtroEmails).registrar("maybe@example.com");
+    }
+
+    @Test
+    void testCrearUsuariosEnVariosLotesJdbc() {
+        // Given
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < UsuarioServiceImpl.TAMANO_LOTE_JDBC + 1; i++) {
+            usuarios.add(new Usuario("User " + i, "user" + i + "@example.com", null));
+        }
+        when(usuarioRepository.findEmailsExistentes(anyCollection())).thenReturn(List.of());
+        
+        // When
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(usuarios);
+        
+        // Then
+        assertThat(resultados).hasSize(usuarios.size())
+            .allSatisfy(r -> assertThat(r.getStatus()).isEqualTo(201));
+        verify(usuarioRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        // Una sola notificación para todas las altas del lote
+        verify(notificadorCambios).notificarTodos(argThat(cambios -> cambios.size() == usuarios.size()));
+        verify(notificadorCambios, never()).notificar(any());
+    }
+
+    @Test
+    void testCrearUsuariosReintentaUnoAUnoSiElLoteChocaConUnEmail() {
+        // Given: otra petición crea "ocupado@example.com" entre la comprobación y el INSERT del lote
+        Usuario primero = new Usuario("First", "first@example.com", null);
+        Usuario ocupado = new Usuario("Taken", "ocupado@example.com", null);
+        Usuario ultimo = new Usuario("Last", "last@example.com", null);
+        when(usuarioRepository.findEmailsExistentes(anyCollection())).thenReturn(List.of());
+        when(usuarioRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Usuario> bloque = invocation.getArgument(0);
+            bloque.forEach(u -> u.setId(99L));
+            return bloque;
+        });
+        doThrow(violacionEmailUnico()).when(entityManager).flush();
+        long[] siguienteId = {20L};
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenAnswer(invocation -> {
+            Usuario u = invocation.getArgument(0);
+            assertThat(u.getId()).isNull();
+            if ("ocupado@example.com".equals(u.getEmail())) {
+                throw violacionEmailUnico();
+            }
+            u.setId(siguienteId[0]++);
+            return u;
+        });
+        
+        // When
+        List<ResultadoCreacion> resultados = usuarioService.crearUsuarios(List.of(primero, ocupado, ultimo));
+        
+        // Then: el lote se deshace y cada usuario se reintenta en su propia transacción
+        assertThat(resultados).extracting(ResultadoCreacion::getStatus).containsExactly(201, 409, 201);
+        assertThat(resultados).extracting(ResultadoCreacion::getId).containsExactly(20L, null, 21L);
+        assertThat(resultados.get(1).getError())
+            .isEqualTo("Ya existe un usuario con el email: ocupado@example.com");
+        verify(usuarioRepository, times(3)).saveAndFlush(any(Usuario.class));
+        // Se deshacen el lote y el reintento que pierde
+        verify(transactionManager, times(2)).rollback(any());
+        verify(filtroEmails, never()).registrar("ocupado@example.com");
+        verify(notificadorCambios).notificarTodos(argThat(cambios -> cambios.size() == 2));
+    }
+
+    @Test
+    void testCrearUsuariosOtraViolacionDeIntegridadNoReintenta() {
+        // Given
+        DataIntegrityViolationException noNulo = new DataIntegrityViolationException("not null");
+        when(usuarioRepository.findEmailsExistentes(anyCollection())).thenReturn(List.of());
+        doThrow(noNulo).when(entityManager).flush();
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.crearUsuarios(
+                List.of(new Usuario("New User", "new@example.com", null)))).isSameAs(noNulo);
+        verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
+        verifyNoInteractions(notificadorCambios);
+    }
+
+    @Test
+    void testCrearUsuariosListaInvalida() {
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.crearUsuarios(List.of()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("La lista de usuarios no puede estar vacía");
+        
+        List<Usuario> demasiados = new ArrayList<>();
+        for (int i = 0; i <= limitesLote.maximoCreacion(); i++) {
+            demasiados.add(new Usuario("User", "user" + i + "@example.com", null));
+        }
+        assertThatThrownBy(() -> usuarioService.crearUsuarios(demasiados))
+            .isInstanceOf(IllegalArgumentException.class);
+        
+        verifyNoInteractions(usuarioRepository);
     }
 
     @Test
@@ -128,8 +653,6 @@ class UsuarioServiceImplTest {
         usuarioActualizado.setId(1L);
         
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
-        when(usuarioRepository.existsByEmail("updated@example.com")).thenReturn(false);
-        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuarioActualizado);
         
         // When
         Usuario result = usuarioService.actualizarUsuario(1L, usuarioActualizado);
@@ -138,8 +661,25 @@ class UsuarioServiceImplTest {
         assertThat(result.getNombre()).isEqualTo("Updated User");
         assertThat(result.getEmail()).isEqualTo("updated@example.com");
         verify(usuarioRepository).findById(1L);
-        verify(usuarioRepository).existsByEmail("updated@example.com");
-        verify(usuarioRepository).save(any(Usuario.class));
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+        // La entidad gestionada se escribe con el flush, sin save explícito
+        verify(usuarioRepository).flush();
+        verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
+        verify(filtroEmails).registrar("updated@example.com");
+    }
+
+    @Test
+    void testActualizarUsuarioEmailDuplicado() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Updated User", "taken@example.com", "999-9999");
+        
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        doThrow(violacionEmailUnico()).when(usuarioRepository).flush();
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(1L, usuarioActualizado))
+            .isInstanceOf(DataConflictException.class)
+            .hasMessage("Ya existe un usuario con el email: taken@example.com");
     }
 
     @Test
@@ -155,35 +695,204 @@ class UsuarioServiceImplTest {
             .hasMessage("Usuario no encontrado con ID: 999");
         
         verify(usuarioRepository).findById(999L);
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verify(usuarioRepository, never()).flush();
     }
 
     @Test
-    void testEliminarUsuario() {
+    void testActualizarUsuarioConVersionEnUnaSentencia() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("  Updated User ", "Updated@Example.com", "999-9999");
+        when(usuarioRepository.actualizarSiVersion(1L, 3L, "Updated User", "updated@example.com", "999-9999"))
+            .thenReturn(1);
+        
+        // When
+        Usuario result = usuarioService.actualizarUsuario(1L, usuarioActualizado, 3L);
+        
+        // Then
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getVersion()).isEqualTo(4L);
+        assertThat(result.getEmail()).isEqualTo("updated@example.com");
+        verify(usuarioRepository, never()).findById(anyLong());
+        verify(usuarioRepository, never()).existsById(anyLong());
+        verify(usuarioCache).invalidar(1L);
+        verify(filtroEmails).registrar("updated@example.com");
+    }
+
+    @Test
+    void testActualizarUsuarioConVersionDistinta() {
         // Given
+        Usuario usuarioActualizado = new Usuario("Updated User", "updated@example.com", "999-9999");
+        when(usuarioRepository.actualizarSiVersion(eq(1L), eq(3L), anyString(), anyString(), anyString()))
+            .thenReturn(0);
         when(usuarioRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(usuarioRepository).deleteById(1L);
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(1L, usuarioActualizado, 3L))
+            .isInstanceOf(PrecondicionFallidaException.class)
+            .hasMessage("El usuario 1 fue modificado: la versión indicada en If-Match ya no es la actual");
+        verify(usuarioCache, never()).invalidar(anyLong());
+    }
+
+    @Test
+    void testActualizarUsuarioConVersionNoExiste() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Updated User", "updated@example.com", "999-9999");
+        when(usuarioRepository.actualizarSiVersion(eq(999L), eq(0L), anyString(), anyString(), anyString()))
+            .thenReturn(0);
+        when(usuarioRepository.existsById(999L)).thenReturn(false);
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(999L, usuarioActualizado, 0L))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessage("Usuario no encontrado con ID: 999");
+    }
+
+    @Test
+    void testActualizarUsuarioConVersionEmailDuplicado() {
+        // Given
+        Usuario usuarioActualizado = new Usuario("Updated User", "taken@example.com", "999-9999");
+        when(usuarioRepository.actualizarSiVersion(eq(1L), eq(2L), anyString(), anyString(), anyString()))
+            .thenThrow(violacionEmailUnico());
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarUsuario(1L, usuarioActualizado, 2L))
+            .isInstanceOf(DataConflictException.class)
+            .hasMessage("Ya existe un usuario con el email: taken@example.com");
+    }
+
+    @Test
+    void testActualizarParcialmenteSoloTelefono() {
+        // Given
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setTelefono("999-9999");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        Usuario result = usuarioService.actualizarParcialmente(1L, parche);
+        
+        // Then
+        assertThat(result.getTelefono()).isEqualTo("999-9999");
+        assertThat(result.getNombre()).isEqualTo("Test User");
+        assertThat(result.getEmail()).isEqualTo("test@example.com");
+        verify(usuarioRepository).flush();
+        verify(usuarioCache).invalidar(1L);
+        // El email no cambió: no se registra en el filtro y la notificación lleva el email actual
+        verify(filtroEmails, never()).registrar(anyString());
+        verify(notificadorCambios).notificar(argThat(c -> c.getId() == 1L && c.getEmailAnterior() == null
+                && "test@example.com".equals(c.getEmailNuevo())));
+    }
+
+    @Test
+    void testActualizarParcialmenteBorraTelefonoConNull() {
+        // Given
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setTelefono(null);
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        Usuario result = usuarioService.actualizarParcialmente(1L, parche);
+        
+        // Then
+        assertThat(result.getTelefono()).isNull();
+        verify(usuarioRepository).flush();
+    }
+
+    @Test
+    void testActualizarParcialmenteSinCambiosNoEscribe() {
+        // Given: mismo email con otra capitalización y mismo teléfono
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setEmail(" TEST@example.com ");
+        parche.setTelefono("555-1234");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        usuarioService.actualizarParcialmente(1L, parche);
+        
+        // Then
+        verify(usuarioRepository, never()).flush();
+        verify(usuarioCache, never()).invalidar(anyLong());
+        verifyNoInteractions(notificadorCambios);
+    }
+
+    @Test
+    void testActualizarParcialmenteEmail() {
+        // Given
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setEmail("Nuevo@Example.com");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        
+        // When
+        Usuario result = usuarioService.actualizarParcialmente(1L, parche);
+        
+        // Then
+        assertThat(result.getEmail()).isEqualTo("nuevo@example.com");
+        verify(filtroEmails).registrar("nuevo@example.com");
+        verify(notificadorCambios).notificar(argThat(c ->
+                "test@example.com".equals(c.getEmailAnterior()) && "nuevo@example.com".equals(c.getEmailNuevo())));
+    }
+
+    @Test
+    void testActualizarParcialmenteEmailDuplicado() {
+        // Given
+        ParcheUsuario parche = new ParcheUsuario();
+        parche.setEmail("taken@example.com");
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
+        doThrow(violacionEmailUnico()).when(usuarioRepository).flush();
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarParcialmente(1L, parche))
+            .isInstanceOf(DataConflictException.class)
+            .hasMessage("Ya existe un usuario con el email: taken@example.com");
+    }
+
+    @Test
+    void testActualizarParcialmenteValidaSoloLosCamposPresentes() {
+        // Given
+        ParcheUsuario nombreCorto = new ParcheUsuario();
+        nombreCorto.setNombre("A");
+        ParcheUsuario emailNulo = new ParcheUsuario();
+        emailNulo.setEmail(null);
+        
+        // When & Then
+        assertThatThrownBy(() -> usuarioService.actualizarParcialmente(1L, nombreCorto))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El nombre debe tener al menos 2 caracteres");
+        assertThatThrownBy(() -> usuarioService.actualizarParcialmente(1L, emailNulo))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("El email del usuario es obligatorio");
+        verify(usuarioRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testEliminarUsuario() {
+        // Given
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuarioTest));
         
         // When
         usuarioService.eliminarUsuario(1L);
         
         // Then
-        verify(usuarioRepository).existsById(1L);
-        verify(usuarioRepository).deleteById(1L);
+        verify(usuarioRepository).findById(1L);
+        verify(usuarioRepository).delete(usuarioTest);
+        verify(notificadorCambios).notificar(argThat(cambio ->
+            cambio.getId().equals(1L) && "test@example.com".equals(cambio.getEmailAnterior())
+                && cambio.getEmailNuevo() == null));
+        verify(indiceTypeahead).aplicar(argThat(cambio -> cambio.getId().equals(1L) && cambio.getEmailNuevo() == null));
     }
 
     @Test
     void testEliminarUsuarioNotFound() {
         // Given
-        when(usuarioRepository.existsById(999L)).thenReturn(false);
+        when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
         
         // When & Then
         assertThatThrownBy(() -> usuarioService.eliminarUsuario(999L))
             .isInstanceOf(ResourceNotFoundException.class)
             .hasMessage("Usuario no encontrado con ID: 999");
         
-        verify(usuarioRepository).existsById(999L);
-        verify(usuarioRepository, never()).deleteById(anyLong());
+        verify(usuarioRepository).findById(999L);
+        verify(usuarioRepository, never()).delete(any(Usuario.class));
+        verifyNoInteractions(notificadorCambios);
     }
 
     @Test
@@ -199,6 +908,32 @@ class UsuarioServiceImplTest {
         verify(usuarioRepository).findByEmail("test@example.com");
     }
 
+    @Test
+    void testObtenerUsuarioPorEmailDescartadoPorFiltro() {
+        // Given
+        doReturn(false).when(filtroEmails).puedeExistir("missing@example.com");
+        
+        // When
+        Optional<Usuario> result = usuarioService.obtenerUsuarioPorEmail(" Missing@Example.com ");
+        
+        // Then
+        assertThat(result).isNotPresent();
+        verify(usuarioRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testExisteUsuarioConEmailDescartadoPorFiltro() {
+        // Given
+        doReturn(false).when(filtroEmails).puedeExistir("missing@example.com");
+        
+        // When
+        boolean exists = usuarioService.existeUsuarioConEmail("missing@example.com");
+        
+        // Then
+        assertThat(exists).isFalse();
+        verify(usuarioRepository, never()).existsByEmail(anyString());
+    }
+
     @Test
     void testExisteUsuarioConEmail() {
         // Given
@@ -215,4 +950,10 @@ class UsuarioServiceImplTest {
         verify(usuarioRepository).existsByEmail("test@example.com");
         verify(usuarioRepository).existsByEmail("notfound@example.com");
     }
+
+    private static DataIntegrityViolationException violacionEmailUnico() {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), null,
+                        ConstraintViolationException.ConstraintKind.UNIQUE, "usuarios_email_key"));
+    }
 }
\ No newline at end of file